@@ -0,0 +1,100 @@
+package com.covestro;
+
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic catalog data shared by the benchmarks, shaped like the bundled {@code products.json}.
+ */
+public final class BenchmarkData {
+    public static final String[] CURRENCIES = {"EUR", "USD", "INR", "JPY", "GBP"};
+    public static final String[] CATEGORIES = {"Coatings", "Plastics", "PerformanceMaterials", "Adhesives",
+            "Elastomers", "Films", "Foams", "Fibers", "Resins", "Additives"};
+    private static final LocalDateTime LAST_UPDATE = LocalDateTime.of(2026, 1, 1, 0, 0);
+    
+    private BenchmarkData() {
+    }
+    
+    /**
+     * @return An object mapper configured like the one of the application context
+     */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+    
+    public static List<Currency> currencies() {
+        List<Currency> currencies = new ArrayList<>(CURRENCIES.length);
+        for (int i = 0; i < CURRENCIES.length; i++) {
+            currencies.add(new Currency((long) i + 1, CURRENCIES[i]));
+        }
+        return currencies;
+    }
+    
+    public static List<Category> categories() {
+        List<Category> categories = new ArrayList<>(CATEGORIES.length);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            categories.add(new Category((long) i + 1, CATEGORIES[i]));
+        }
+        return categories;
+    }
+    
+    /**
+     * @return {@code count} persisted-looking products with IDs starting at 1
+     */
+    public static List<Product> products(int count) {
+        List<Currency> currencies = currencies();
+        List<Category> categories = categories();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(new Product((long) i + 1, materialId(i), "Material " + i, price(i),
+                    currencies.get(i % currencies.size()), categories.get(i % categories.size()),
+                    LAST_UPDATE.plusSeconds(i)));
+        }
+        return products;
+    }
+    
+    /**
+     * @return A catalog file of {@code count} records in the {@code {"products": [...]}} format read by the loader
+     */
+    public static byte[] catalogJson(ObjectMapper objectMapper, int count) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(count * 128);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("products");
+            for (int i = 0; i < count; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("materialId", materialId(i));
+                generator.writeStringField("name", "Material " + i);
+                generator.writeNumberField("price", price(i));
+                generator.writeStringField("currency", CURRENCIES[i % CURRENCIES.length]);
+                generator.writeStringField("category", CATEGORIES[i % CATEGORIES.length]);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+    
+    private static String materialId(int i) {
+        return String.format("M%09d", i);
+    }
+    
+    private static BigDecimal price(int i) {
+        return BigDecimal.valueOf(100 + i % 10_000, 2);
+    }
+}
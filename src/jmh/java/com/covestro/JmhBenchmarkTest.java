@@ -0,0 +1,43 @@
+package com.covestro;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the JMH benchmarks of {@code src/jmh/java} with the GC profiler, so every result reports the allocation rate
+ * per operation next to its time. The results are written to {@code target/jmh-result.json} to be compared with the
+ * baseline of the previous release. Disabled by default; run with
+ * {@code mvn -Pbenchmark test -Dtest=JmhBenchmarkTest -Dbenchmark=true [-Dbenchmark.include=ProductLoader]}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class JmhBenchmarkTest {
+    
+    @Test
+    void runBenchmarks() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("benchmark.include", "com\\.covestro\\..*Benchmark"))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .shouldFailOnError(true)
+                .build();
+        
+        Collection<RunResult> results = new Runner(options).run();
+        
+        assertFalse(results.isEmpty());
+        log.info("{} benchmark results written to target/jmh-result.json", results.size());
+    }
+}
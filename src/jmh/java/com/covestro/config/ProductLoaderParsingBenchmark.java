@@ -0,0 +1,86 @@
+package com.covestro.config;
+
+import com.covestro.BenchmarkData;
+import com.covestro.model.JsonProduct;
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the CPU side of {@link ProductLoader}: streaming records out of an in-memory catalog with
+ * {@link JsonProductReader} and resolving them to {@link Product} entities with {@link ReferenceDataResolver}, as the
+ * loader does before each JDBC batch. The database writes are measured by {@code ProductLoaderBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductLoaderParsingBenchmark {
+    
+    @Param({"1000", "100000", "1000000"})
+    private int records;
+    
+    private ObjectMapper objectMapper;
+    private byte[] catalog;
+    private CurrencyRepository currencyRepository;
+    private CategoryRepository categoryRepository;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkData.objectMapper();
+        catalog = BenchmarkData.catalogJson(objectMapper, records);
+        currencyRepository = mock(CurrencyRepository.class);
+        categoryRepository = mock(CategoryRepository.class);
+        when(currencyRepository.findAll()).thenReturn(BenchmarkData.currencies());
+        when(categoryRepository.findAll()).thenReturn(BenchmarkData.categories());
+    }
+    
+    @Benchmark
+    public int read(Blackhole blackhole) throws IOException {
+        int count = 0;
+        try (JsonProductReader reader = new JsonProductReader(objectMapper, new ByteArrayInputStream(catalog))) {
+            JsonProduct productJson;
+            while ((productJson = reader.next()) != null) {
+                blackhole.consume(productJson);
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    @Benchmark
+    public int readAndResolve(Blackhole blackhole) throws IOException {
+        ReferenceDataResolver resolver = new ReferenceDataResolver(currencyRepository, categoryRepository);
+        int count = 0;
+        try (JsonProductReader reader = new JsonProductReader(objectMapper, new ByteArrayInputStream(catalog))) {
+            JsonProduct productJson;
+            while ((productJson = reader.next()) != null) {
+                blackhole.consume(resolver.toProduct(productJson));
+                count++;
+            }
+        }
+        return count;
+    }
+}
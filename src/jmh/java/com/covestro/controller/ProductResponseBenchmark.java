@@ -0,0 +1,73 @@
+package com.covestro.controller;
+
+import com.covestro.BenchmarkData;
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.repository.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the steps that turn products into a {@code GET /products} response body: the entity to DTO mapping of
+ * {@link ProductController} and the Jackson serialization of the DTO list. Serialization writes to a discarding
+ * stream, so the numbers exclude buffer copies of the network layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductResponseBenchmark {
+    
+    @Param({"1000", "100000"})
+    private int size;
+    
+    private List<Product> products;
+    private List<ProductResponseDTO> dtos;
+    private ObjectWriter listWriter;
+    
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        products = BenchmarkData.products(size);
+        dtos = products.stream().map(ProductController::convertToDto).toList();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, ProductResponseDTO.class));
+    }
+    
+    @Benchmark
+    public List<ProductResponseDTO> convertToDto() {
+        List<ProductResponseDTO> result = new ArrayList<>(products.size());
+        for (Product product : products) {
+            result.add(ProductController.convertToDto(product));
+        }
+        return result;
+    }
+    
+    @Benchmark
+    public byte[] serializeListToBytes() throws IOException {
+        return listWriter.writeValueAsBytes(dtos);
+    }
+    
+    @Benchmark
+    public void serializeListToStream() throws IOException {
+        listWriter.writeValue(OutputStream.nullOutputStream(), dtos);
+    }
+}
@@ -0,0 +1,58 @@
+package com.covestro.model;
+
+import com.covestro.BenchmarkData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures binding a single catalog record to {@link JsonProduct}, including its {@code CurrencyDeserializer} and
+ * {@code CategoryDeserializer}, and binding a whole 1k record catalog to {@link JsonProductList} at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonProductBenchmark {
+    private static final byte[] RECORD = """
+            {"materialId":"M000000042","name":"Material 42","price":1.42,"currency":"EUR","category":"Coatings"}\
+            """.getBytes(StandardCharsets.UTF_8);
+    
+    private ObjectReader productReader;
+    private ObjectReader productListReader;
+    private byte[] catalog;
+    
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        productReader = objectMapper.readerFor(JsonProduct.class);
+        productListReader = objectMapper.readerFor(JsonProductList.class);
+        catalog = BenchmarkData.catalogJson(objectMapper, 1000);
+    }
+    
+    @Benchmark
+    public JsonProduct readRecord() throws IOException {
+        return productReader.readValue(RECORD);
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public JsonProductList readCatalogOf1000() throws IOException {
+        return productListReader.readValue(catalog);
+    }
+}
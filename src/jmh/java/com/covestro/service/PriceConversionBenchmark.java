@@ -0,0 +1,94 @@
+package com.covestro.service;
+
+import com.covestro.BenchmarkData;
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.BlockingTaskProperties;
+import com.covestro.config.FxRateProperties;
+import com.covestro.dto.ProductResponseDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Measures the cost of {@code ?targetCurrency=} on a large list export: the same rows serialized to a discarding
+ * stream with and without conversion to USD. The difference of the two is the conversion overhead per export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceConversionBenchmark {
+    private static final String[] CURRENCIES = {"EUR", "USD", "INR", "JPY"};
+    private static final LocalDateTime LAST_UPDATE = LocalDateTime.of(2026, 1, 1, 0, 0);
+    
+    @Param({"1000000"})
+    private int size;
+    
+    private BlockingTaskExecutor blockingTaskExecutor;
+    private ObjectWriter writer;
+    private PriceConverter toUsd;
+    
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        blockingTaskExecutor = new BlockingTaskExecutor(new BlockingTaskProperties(), meterRegistry);
+        FxRateTable fxRateTable = new FxRateTable(new DefaultResourceLoader(), new ObjectMapper(), blockingTaskExecutor,
+                new FxRateProperties(), meterRegistry);
+        fxRateTable.reload();
+        toUsd = fxRateTable.converter("USD");
+        writer = BenchmarkData.objectMapper()
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .writerFor(ProductResponseDTO.class);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        blockingTaskExecutor.destroy();
+    }
+    
+    @Benchmark
+    public void exportPlain() throws IOException {
+        export(UnaryOperator.identity());
+    }
+    
+    @Benchmark
+    public void exportConverted() throws IOException {
+        export(toUsd::convert);
+    }
+    
+    private void export(UnaryOperator<ProductResponseDTO> conversion) throws IOException {
+        try (JsonGenerator generator = writer.createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            for (int i = 0; i < size; i++) {
+                ProductResponseDTO product = new ProductResponseDTO((long) i, "M" + i, "Product " + i,
+                        BigDecimal.valueOf(100 + i % 100_000, 2), CURRENCIES[i & 3], "Coatings", LAST_UPDATE);
+                writer.writeValue(generator, conversion.apply(product));
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.covestro.service;
+
+import com.covestro.dto.ProductStatsDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code GET /products/stats} without the database: the aggregation of the off-heap price snapshot of
+ * {@link ProductStatsStore} over five categories and four currencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductStatsAggregationBenchmark {
+    private static final List<String> CATEGORIES = List.of("Adhesives", "Coatings", "Elastomers", "Foams", "Polycarbonates");
+    private static final List<String> CURRENCIES = List.of("EUR", "INR", "JPY", "USD");
+    
+    @Param({"100000", "10000000"})
+    private int size;
+    
+    private ProductStatsStore.Columns columns;
+    
+    @Setup
+    public void setUp() {
+        ProductStatsStore.ColumnsBuilder builder = new ProductStatsStore.ColumnsBuilder(size);
+        for (int i = 0; i < size; i++) {
+            builder.add(100 + i % 100_000, i % CATEGORIES.size(), i % CURRENCIES.size());
+        }
+        columns = builder.build(CATEGORIES, CURRENCIES, null, System.nanoTime());
+    }
+    
+    @Benchmark
+    public ProductStatsDTO aggregate() {
+        return ProductStatsStore.aggregate(columns);
+    }
+}
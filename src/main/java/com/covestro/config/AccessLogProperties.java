@@ -0,0 +1,32 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code AccessLogProperties} configures the sampled, asynchronous access log written to the {@code access-log} logger.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "access-log")
+public class AccessLogProperties {
+    
+    private boolean enabled = true;
+    
+    /**
+     * Fraction of requests between 0 and 1 that get an access log record.
+     */
+    private double sampleRate = 0.01;
+    
+    /**
+     * Whether every request answered with a 5xx status is logged, regardless of sampling.
+     */
+    private boolean logServerErrors = true;
+    
+    /**
+     * Records buffered between request threads and the writer thread. Records are dropped, and counted in
+     * {@code access.log.dropped}, while the buffer is full.
+     */
+    private int bufferSize = 8192;
+}
@@ -0,0 +1,128 @@
+package com.covestro.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@code BlockingTaskExecutor} runs blocking calls off the event loop, on the scheduler selected by
+ * {@link BlockingTaskProperties#getMode()}.
+ * <p>
+ * Tasks are instrumented with meters tagged {@code mode}:
+ * <ul>
+ *     <li>{@code blocking.tasks.pending}: tasks submitted but not started, i.e. the queue depth</li>
+ *     <li>{@code blocking.tasks.active}: tasks running</li>
+ *     <li>{@code blocking.tasks.wait}: time from submission to start</li>
+ *     <li>{@code blocking.tasks.execution}: run time, also tagged {@code outcome}; its rate is the task throughput</li>
+ * </ul>
+ * The timers are also tagged {@code operation} with the value of {@link #OPERATION_CONTEXT_KEY} in the subscriber
+ * context, {@code none} outside of a named operation, so queueing and run time can be told apart per operation.
+ */
+@Component
+@Slf4j
+public class BlockingTaskExecutor implements DisposableBean {
+    /**
+     * Reactor context key of the operation name the task timers are tagged with.
+     */
+    public static final String OPERATION_CONTEXT_KEY = "blocking.tasks.operation";
+    private static final String NO_OPERATION = "none";
+    @Getter
+    private final BlockingTaskProperties.Mode mode;
+    private final Scheduler scheduler;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Meter.MeterProvider<Timer> waitTimers;
+    private final Meter.MeterProvider<Timer> executionTimers;
+    
+    public BlockingTaskExecutor(BlockingTaskProperties properties, MeterRegistry meterRegistry) {
+        this.mode = properties.getMode();
+        this.scheduler = switch (mode) {
+            case BOUNDED_ELASTIC -> Schedulers.boundedElastic();
+            case VIRTUAL_THREADS -> Schedulers.fromExecutorService(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("blocking-virtual-", 0).factory()),
+                    "blocking-virtual");
+        };
+        String modeTag = mode.name().toLowerCase();
+        Gauge.builder("blocking.tasks.pending", pending, AtomicInteger::get)
+                .tag("mode", modeTag)
+                .description("Blocking tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("blocking.tasks.active", active, AtomicInteger::get)
+                .tag("mode", modeTag)
+                .description("Blocking tasks running")
+                .register(meterRegistry);
+        this.waitTimers = Timer.builder("blocking.tasks.wait")
+                .tag("mode", modeTag)
+                .description("Time blocking tasks waited for a thread")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.executionTimers = Timer.builder("blocking.tasks.execution")
+                .tag("mode", modeTag)
+                .description("Run time of blocking tasks")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        log.info("Running blocking tasks in {} mode", mode);
+    }
+    
+    /**
+     * Wraps a blocking operation in reactive context.
+     *
+     * @param <T> Return type
+     * @param task Supplier of blocking operation
+     * @return Mono executing the task on the configured scheduler
+     */
+    public <T> Mono<T> execute(Supplier<T> task) {
+        return Mono.deferContextual(context -> {
+            String operation = context.getOrDefault(OPERATION_CONTEXT_KEY, NO_OPERATION);
+            long submitted = System.nanoTime();
+            AtomicBoolean started = new AtomicBoolean();
+            pending.incrementAndGet();
+            return Mono.fromSupplier(() -> {
+                        if (started.compareAndSet(false, true)) {
+                            pending.decrementAndGet();
+                        }
+                        long start = System.nanoTime();
+                        waitTimers.withTags("operation", operation).record(start - submitted, TimeUnit.NANOSECONDS);
+                        active.incrementAndGet();
+                        String outcome = "error";
+                        try {
+                            T result = task.get();
+                            outcome = "success";
+                            return result;
+                        } finally {
+                            active.decrementAndGet();
+                            executionTimers.withTags("operation", operation, "outcome", outcome)
+                                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                    })
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> {
+                        if (started.compareAndSet(false, true)) {
+                            // cancelled or rejected before it ran
+                            pending.decrementAndGet();
+                        }
+                    });
+        });
+    }
+    
+    @Override
+    public void destroy() {
+        if (mode == BlockingTaskProperties.Mode.VIRTUAL_THREADS) {
+            scheduler.dispose();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code BlockingTaskProperties} selects where blocking JDBC/JPA calls of the request path run, see {@link BlockingTaskExecutor}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-store.blocking")
+public class BlockingTaskProperties {
+    
+    /**
+     * Scheduler that runs blocking calls, see {@link Mode}.
+     */
+    private Mode mode = Mode.BOUNDED_ELASTIC;
+    
+    public enum Mode {
+        /**
+         * Reactor's shared bounded elastic pool, capped at 10 threads per core; excess tasks queue.
+         */
+        BOUNDED_ELASTIC,
+        /**
+         * One new virtual thread per task, no thread cap. Database concurrency is still bounded by the connection pool.
+         */
+        VIRTUAL_THREADS
+    }
+}
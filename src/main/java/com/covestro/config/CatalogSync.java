@@ -0,0 +1,176 @@
+package com.covestro.config;
+
+import com.covestro.model.JsonProduct;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * {@code CatalogSync} applies a catalog file to a non-empty database as a delta.
+ * <p>
+ * The {@code products} table is streamed once to build a {@code materialId -> (id, content hash)} index.
+ * The catalog is then streamed and each record is compared by content hash: new material IDs are inserted,
+ * changed ones are updated and unchanged ones are not written at all. Material IDs left in the index
+ * afterwards are no longer in the catalog and are deleted; every delete batch is reported to a listener once it is
+ * written. All writes go out in JDBC batches.
+ * A material ID repeated in the catalog is applied with its first record; later records are skipped and counted.
+ */
+@Slf4j
+class CatalogSync {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    /**
+     * Scale of the {@code products.price} column, {@code decimal(38,2)}.
+     */
+    private static final int PRICE_SCALE = 2;
+    
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ReferenceDataResolver resolver;
+    private final int batchSize;
+    private final Consumer<List<Long>> deleted;
+    
+    /**
+     * Creates a sync for one run.
+     *
+     * @param productJdbcRepository The JDBC repository used to read and write products.
+     * @param resolver              The resolver for currencies and categories.
+     * @param batchSize             The number of rows per JDBC batch.
+     * @param deleted               The listener called with the IDs of each written delete batch.
+     */
+    CatalogSync(ProductJdbcRepository productJdbcRepository, ReferenceDataResolver resolver, int batchSize,
+                Consumer<List<Long>> deleted) {
+        this.productJdbcRepository = productJdbcRepository;
+        this.resolver = resolver;
+        this.batchSize = Math.max(1, batchSize);
+        this.deleted = deleted;
+    }
+    
+    /**
+     * Runs the sync.
+     *
+     * @param reader The reader streaming products from the catalog file.
+     * @return The number of inserted, updated, unchanged, deleted and duplicate products.
+     * @throws IOException If the catalog cannot be parsed. Batches written before the failure are kept,
+     *                     no deletes are issued.
+     */
+    SyncResult run(JsonProductReader reader) throws IOException {
+        Map<String, StoredProduct> stored = new HashMap<>();
+        productJdbcRepository.forEachProduct(product ->
+                stored.put(product.getMaterialId(), new StoredProduct(product.getId(), contentHash(product))));
+        
+        BatchBuffer<Product> inserts = new BatchBuffer<>(batchSize, productJdbcRepository::batchInsert);
+        BatchBuffer<Product> updates = new BatchBuffer<>(batchSize, productJdbcRepository::batchUpdate);
+        Set<String> seen = new HashSet<>();
+        long unchanged = 0;
+        long duplicates = 0;
+        JsonProduct productJson;
+        while ((productJson = reader.next()) != null) {
+            Product product = resolver.toProduct(productJson);
+            if (!seen.add(product.getMaterialId())) {
+                log.warn("Skipping duplicate material ID in catalog: {}", product.getMaterialId());
+                duplicates++;
+                continue;
+            }
+            StoredProduct existing = stored.remove(product.getMaterialId());
+            if (existing == null) {
+                inserts.add(product);
+            } else if (existing.contentHash() != contentHash(product)) {
+                product.setId(existing.id());
+                updates.add(product);
+            } else {
+                unchanged++;
+            }
+        }
+        inserts.flush();
+        updates.flush();
+        
+        BatchBuffer<Long> deletes = new BatchBuffer<>(batchSize, ids -> {
+            productJdbcRepository.batchDelete(ids);
+            deleted.accept(ids);
+        });
+        stored.values().forEach(product -> deletes.add(product.id()));
+        deletes.flush();
+        
+        return new SyncResult(inserts.count, updates.count, unchanged, deletes.count, duplicates);
+    }
+    
+    /**
+     * Computes a 64-bit FNV-1a hash over the persisted content of a product. Prices are compared as they
+     * are stored, rounded to the scale of the column, so {@code 4.5} and {@code 4.50} hash equally and so
+     * do {@code 4.567} and its stored value {@code 4.57}.
+     *
+     * @param product The product, with currency and category IDs set.
+     * @return The content hash.
+     */
+    static long contentHash(Product product) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, product.getName());
+        hash = hash(hash, normalize(product.getPrice()));
+        hash = hash(hash, String.valueOf(product.getCurrency().getId()));
+        hash = hash(hash, String.valueOf(product.getCategory().getId()));
+        return hash;
+    }
+    
+    private static String normalize(BigDecimal price) {
+        return price == null ? null : price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).toPlainString();
+    }
+    
+    private static long hash(long hash, String value) {
+        if (value != null) {
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= FNV_PRIME;
+            }
+        }
+        // field separator, so that ("ab", "c") and ("a", "bc") differ
+        hash ^= 0xff;
+        return hash * FNV_PRIME;
+    }
+    
+    private record StoredProduct(long id, long contentHash) { }
+    
+    /**
+     * The outcome of a sync run.
+     */
+    record SyncResult(long inserted, long updated, long unchanged, long deleted, long duplicates) { }
+    
+    private static final class BatchBuffer<T> {
+        private final int batchSize;
+        private final Consumer<List<T>> writer;
+        private List<T> buffer;
+        private long count;
+        
+        private BatchBuffer(int batchSize, Consumer<List<T>> writer) {
+            this.batchSize = batchSize;
+            this.writer = writer;
+            this.buffer = new ArrayList<>(batchSize);
+        }
+        
+        private void add(T element) {
+            buffer.add(element);
+            if (buffer.size() == batchSize) {
+                flush();
+            }
+        }
+        
+        private void flush() {
+            if (!buffer.isEmpty()) {
+                writer.accept(buffer);
+                count += buffer.size();
+                buffer = new ArrayList<>(batchSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * {@code FxRateProperties} holds the source and refresh settings of the FX rate table used for {@code targetCurrency} conversions.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "fx-rates")
+public class FxRateProperties {
+    
+    /**
+     * Spring resource location of the rate file, e.g. {@code classpath:fx-rates.json} or {@code file:/data/fx-rates.json}.
+     */
+    private String location = "classpath:fx-rates.json";
+    
+    /**
+     * Age after which the rate file is read again in the background. Conversions use the previous rates meanwhile.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+}
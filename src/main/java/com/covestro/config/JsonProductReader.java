@@ -0,0 +1,81 @@
+package com.covestro.config;
+
+import com.covestro.model.JsonProduct;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@code JsonProductReader} streams {@link JsonProduct} records out of a catalog file shaped like
+ * {@code {"products": [ ... ]}} without materializing the whole list in memory.
+ * Only the record currently being read is held by the parser.
+ */
+public class JsonProductReader implements Closeable {
+    private static final String PRODUCTS_FIELD = "products";
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private boolean insideProducts;
+    private boolean exhausted;
+    
+    /**
+     * Creates a reader on top of the given input stream.
+     *
+     * @param objectMapper The object mapper used to bind each record.
+     * @param inputStream  The catalog input stream.
+     * @throws IOException If the parser cannot be created.
+     */
+    public JsonProductReader(ObjectMapper objectMapper, InputStream inputStream) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(inputStream);
+    }
+    
+    /**
+     * Reads the next product of the {@code products} array.
+     *
+     * @return The next product, or {@code null} once the array is exhausted.
+     * @throws IOException If the input is not valid JSON or does not have the expected shape.
+     */
+    public JsonProduct next() throws IOException {
+        if (exhausted) {
+            return null;
+        }
+        if (!insideProducts && !seekProductsArray()) {
+            exhausted = true;
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            return objectMapper.readValue(parser, JsonProduct.class);
+        }
+        if (token == JsonToken.END_ARRAY || token == null) {
+            exhausted = true;
+            return null;
+        }
+        throw new IOException("Unexpected token in products array: " + token);
+    }
+    
+    private boolean seekProductsArray() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Catalog must be a JSON object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (PRODUCTS_FIELD.equals(fieldName) && value == JsonToken.START_ARRAY) {
+                insideProducts = true;
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
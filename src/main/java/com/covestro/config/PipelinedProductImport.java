@@ -0,0 +1,223 @@
+package com.covestro.config;
+
+import com.covestro.model.JsonProduct;
+import com.covestro.repository.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@code PipelinedProductImport} runs a catalog import as three stages joined by bounded queues:
+ * <ol>
+ *     <li>a parser reading {@link JsonProduct} records into batches,</li>
+ *     <li>a resolver mapping currency codes and category names to persisted entities,</li>
+ *     <li>N writers inserting disjoint batches, each on its own connection.</li>
+ * </ol>
+ * A full queue blocks the stage feeding it, so a slow database throttles the parser instead of growing the heap.
+ * At most {@code 2 * queueCapacity + writerThreads + 2} batches are in memory at any time.
+ */
+@Slf4j
+class PipelinedProductImport {
+    private static final List<JsonProduct> END_OF_PARSED = List.of();
+    private static final List<Product> END_OF_RESOLVED = List.of();
+    
+    private final JsonProductReader reader;
+    private final ReferenceDataResolver resolver;
+    private final Function<List<Product>, List<Product>> batchWriter;
+    private final int batchSize;
+    private final int writerThreads;
+    private final BlockingQueue<List<JsonProduct>> parsedQueue;
+    private final BlockingQueue<List<Product>> resolvedQueue;
+    private final StageStats parseStats = new StageStats("parse");
+    private final StageStats resolveStats = new StageStats("resolve");
+    private final StageStats writeStats = new StageStats("write");
+    
+    /**
+     * Creates a pipeline for one import run.
+     *
+     * @param reader      The reader streaming products from the catalog file.
+     * @param resolver    The resolver for currencies and categories, only used by the resolver stage.
+     * @param batchWriter Writes one batch and returns the products that were saved. Called concurrently.
+     * @param properties  The loader settings (batch size, writer threads, queue capacity).
+     */
+    PipelinedProductImport(JsonProductReader reader,
+                           ReferenceDataResolver resolver,
+                           Function<List<Product>, List<Product>> batchWriter,
+                           ProductLoaderProperties properties) {
+        this.reader = reader;
+        this.resolver = resolver;
+        this.batchWriter = batchWriter;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.writerThreads = Math.max(1, properties.getWriterThreads());
+        int queueCapacity = Math.max(1, properties.getQueueCapacity());
+        this.parsedQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.resolvedQueue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+    
+    /**
+     * Runs all stages and waits for them to finish. If any stage fails, the others are interrupted.
+     *
+     * @param savedProductConsumer Called from writer threads with each saved batch; must be thread-safe.
+     * @throws IOException If the catalog cannot be parsed.
+     */
+    void run(Consumer<List<Product>> savedProductConsumer) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(writerThreads + 2, new StageThreadFactory());
+        CompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+        try {
+            stages.submit(this::parse);
+            stages.submit(this::resolve);
+            for (int i = 0; i < writerThreads; i++) {
+                stages.submit(() -> write(savedProductConsumer));
+            }
+            for (int i = 0; i < writerThreads + 2; i++) {
+                stages.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Catalog import was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException("Catalog import failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        logStats(System.nanoTime() - start);
+    }
+    
+    private Void parse() throws IOException, InterruptedException {
+        List<JsonProduct> batch = new ArrayList<>(batchSize);
+        JsonProduct productJson;
+        long busyStart = System.nanoTime();
+        while ((productJson = reader.next()) != null) {
+            batch.add(productJson);
+            if (batch.size() == batchSize) {
+                parseStats.busy(busyStart, batch.size());
+                parseStats.blockedPut(() -> parsedQueue.put(List.copyOf(batch)));
+                batch.clear();
+                busyStart = System.nanoTime();
+            }
+        }
+        parseStats.busy(busyStart, batch.size());
+        if (!batch.isEmpty()) {
+            parseStats.blockedPut(() -> parsedQueue.put(List.copyOf(batch)));
+        }
+        parsedQueue.put(END_OF_PARSED);
+        return null;
+    }
+    
+    private Void resolve() throws InterruptedException {
+        while (true) {
+            List<JsonProduct> parsed = resolveStats.blockedTake(parsedQueue::take);
+            if (parsed == END_OF_PARSED) {
+                break;
+            }
+            long busyStart = System.nanoTime();
+            List<Product> products = new ArrayList<>(parsed.size());
+            parsed.forEach(productJson -> products.add(resolver.toProduct(productJson)));
+            resolveStats.busy(busyStart, products.size());
+            resolveStats.blockedPut(() -> resolvedQueue.put(products));
+        }
+        for (int i = 0; i < writerThreads; i++) {
+            resolvedQueue.put(END_OF_RESOLVED);
+        }
+        return null;
+    }
+    
+    private Void write(Consumer<List<Product>> savedProductConsumer) throws InterruptedException {
+        while (true) {
+            List<Product> batch = writeStats.blockedTake(resolvedQueue::take);
+            if (batch == END_OF_RESOLVED) {
+                return null;
+            }
+            long busyStart = System.nanoTime();
+            List<Product> saved = batchWriter.apply(batch);
+            writeStats.busy(busyStart, saved.size());
+            savedProductConsumer.accept(saved);
+        }
+    }
+    
+    private void logStats(long elapsedNanos) {
+        log.info("Pipelined import finished in {} ms with {} writer(s)", elapsedNanos / 1_000_000, writerThreads);
+        for (StageStats stats : List.of(parseStats, resolveStats, writeStats)) {
+            log.info("Stage {}: {} products, busy {} ms, blocked {} ms, {} products/s overall, {} products/s while busy",
+                    stats.name, stats.items.sum(), stats.busyNanos.sum() / 1_000_000,
+                    stats.blockedNanos.sum() / 1_000_000, stats.throughput(elapsedNanos),
+                    stats.throughput(stats.busyNanos.sum()));
+        }
+    }
+    
+    /**
+     * Per-stage counters. Busy time is time spent working, blocked time is time spent waiting on a queue;
+     * a stage with high blocked time on {@code put} is being throttled by the stage after it.
+     */
+    private static final class StageStats {
+        private final String name;
+        private final LongAdder items = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder blockedNanos = new LongAdder();
+        
+        private StageStats(String name) {
+            this.name = name;
+        }
+        
+        private void busy(long startNanos, int itemCount) {
+            busyNanos.add(System.nanoTime() - startNanos);
+            items.add(itemCount);
+        }
+        
+        private void blockedPut(QueuePut put) throws InterruptedException {
+            long start = System.nanoTime();
+            put.put();
+            blockedNanos.add(System.nanoTime() - start);
+        }
+        
+        private <T> T blockedTake(QueueTake<T> take) throws InterruptedException {
+            long start = System.nanoTime();
+            T element = take.take();
+            blockedNanos.add(System.nanoTime() - start);
+            return element;
+        }
+        
+        private long throughput(long nanos) {
+            return nanos == 0 ? 0 : Math.round(items.sum() * 1e9 / nanos);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface QueuePut {
+        void put() throws InterruptedException;
+    }
+    
+    @FunctionalInterface
+    private interface QueueTake<T> {
+        T take() throws InterruptedException;
+    }
+    
+    private static final class StageThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "product-import-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * {@code ProductCacheProperties} holds the limits of the in-process product cache in front of {@code GET /products/{id}}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-cache")
+public class ProductCacheProperties {
+    
+    /**
+     * Maximum number of cached products. Eviction beyond it is frequency and recency based (W-TinyLFU).
+     */
+    private long maximumSize = 10_000;
+    
+    /**
+     * How long a product stays cached after it was loaded or written. Bounds staleness for changes made
+     * outside this service instance.
+     */
+    private Duration timeToLive = Duration.ofMinutes(10);
+}
@@ -0,0 +1,27 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * {@code ProductChangeFeedProperties} holds the limits of the live product change stream behind {@code GET /products/changes/stream}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-changes")
+public class ProductChangeFeedProperties {
+    
+    /**
+     * Changes buffered per subscriber that reads slower than products are written. A subscriber that falls further
+     * behind is disconnected and has to resume from its last event ID.
+     */
+    private int bufferSize = 1024;
+    
+    /**
+     * Interval of the keep-alive comments sent on an idle stream, so that proxies do not close the connection.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+}
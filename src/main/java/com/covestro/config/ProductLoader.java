@@ -1,63 +1,84 @@
 package com.covestro.config;
 
 import com.covestro.model.JsonProduct;
-import com.covestro.model.JsonProductList;
 import com.covestro.repository.CategoryRepository;
 import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.ProductJdbcRepository;
 import com.covestro.repository.ProductRepository;
-import com.covestro.repository.entity.Category;
-import com.covestro.repository.entity.Currency;
 import com.covestro.repository.entity.Product;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.covestro.service.ProductCache;
+import com.covestro.service.ProductNameIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * {@code ProductLoader} is a Spring service that loads product data from a JSON file into the database.
  * It implements {@link CommandLineRunner} to execute the data loading process on application startup.
+ * <p>
+ * The catalog is streamed record by record and written in JDBC batches, so memory use is bounded
+ * by {@link ProductLoaderProperties#getBatchSize()} rather than by the size of the catalog.
  */
 @Service
 @Configuration
 @Slf4j
 public class ProductLoader implements CommandLineRunner {
-    private static final String PRODUCTS_JSON_PATH = "products.json";
     private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
     private final CurrencyRepository currencyRepository;
     private final CategoryRepository categoryRepository;
     private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final ProductLoaderProperties properties;
+    private final ProductCache productCache;
+    private final ProductNameIndex productNameIndex;
     
     /**
      * Constructs a {@code ProductLoader} with the necessary repositories and object mapper.
      *
-     * @param productRepository    The repository for product entities.
-     * @param currencyRepository   The repository for currency entities.
-     * @param categoryRepository   The repository for category entities.
-     * @param objectMapper         The object mapper for JSON processing.
+     * @param productRepository     The repository for product entities.
+     * @param productJdbcRepository The JDBC repository used for batched product inserts.
+     * @param currencyRepository    The repository for currency entities.
+     * @param categoryRepository    The repository for category entities.
+     * @param objectMapper          The object mapper for JSON processing.
+     * @param resourceLoader        The loader used to resolve the catalog location.
+     * @param properties            The loader settings.
+     * @param productCache          The cache that products deleted by a sync are dropped from.
+     * @param productNameIndex      The typeahead index that products deleted by a sync are removed from.
      */
     @Autowired
     public ProductLoader(ProductRepository productRepository,
+                         ProductJdbcRepository productJdbcRepository,
                          CurrencyRepository currencyRepository,
                          CategoryRepository categoryRepository,
-                         ObjectMapper objectMapper) {
+                         ObjectMapper objectMapper,
+                         ResourceLoader resourceLoader,
+                         ProductLoaderProperties properties,
+                         ProductCache productCache,
+                         ProductNameIndex productNameIndex) {
         this.productRepository = productRepository;
+        this.productJdbcRepository = productJdbcRepository;
         this.currencyRepository = currencyRepository;
         this.categoryRepository = categoryRepository;
         this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.properties = properties;
+        this.productCache = productCache;
+        this.productNameIndex = productNameIndex;
     }
     
     /**
@@ -66,119 +87,132 @@ public class ProductLoader implements CommandLineRunner {
      * @throws IOException If an I/O error occurs while reading the JSON file.
      */
     public void loadProductsFromJson() throws IOException {
-        ClassPathResource resource = new ClassPathResource(PRODUCTS_JSON_PATH);
-        try (InputStream inputStream = resource.getInputStream()) {
-            TypeReference<JsonProductList> typeReference = new TypeReference<>() {};
-            JsonProductList jsonProductList = objectMapper.readValue(inputStream, typeReference);
-            
-            Map<String, Currency> currencyMap = new HashMap<>();
-            Map<String, Category> categoryMap = new HashMap<>();
-            
-            extractAndSaveCurrenciesAndCategories(jsonProductList.getProducts(), currencyMap, categoryMap);
-            List<Product> savedProducts = saveProducts(jsonProductList, currencyMap, categoryMap);
-            logCategoryCounts(savedProducts);
+        Resource resource = resourceLoader.getResource(properties.getLocation());
+        try (InputStream inputStream = resource.getInputStream();
+             JsonProductReader reader = new JsonProductReader(objectMapper, inputStream)) {
+            ReferenceDataResolver resolver = new ReferenceDataResolver(currencyRepository, categoryRepository);
+            Map<String, Long> categoryCounts = properties.getMode() == ProductLoaderProperties.ImportMode.PIPELINED
+                    ? saveProductsPipelined(reader, resolver)
+                    : saveProducts(reader, resolver);
+            logCategoryCounts(categoryCounts);
         }
     }
     
     /**
-     * Saves the products from the JSON list into the database.
+     * Applies the JSON file to a database that already contains products, writing only the differences.
      *
-     * @param jsonProductList The list of products from the JSON file.
-     * @param currencyMap     A map of currency codes to currency entities.
-     * @param categoryMap     A map of category names to category entities.
-     * @return A list of saved product entities.
+     * @throws IOException If an I/O error occurs while reading the JSON file.
+     * @see CatalogSync
      */
-    private List<Product> saveProducts(JsonProductList jsonProductList,
-                                       Map<String, Currency> currencyMap,
-                                       Map<String, Category> categoryMap) {
-        int count = 0;
-        List<Product> savedProducts = new ArrayList<>();
-        for (JsonProduct productJson : jsonProductList.getProducts()) {
-            Currency currency = currencyMap.get(productJson.getCurrency().getCode());
-            Category category = categoryMap.get(productJson.getCategory().getName());
-            
-            Product product = new Product();
-            product.setMaterialId(productJson.getMaterialId());
-            product.setName(productJson.getName());
-            product.setPrice(productJson.getPrice());
-            product.setCurrency(currency);
-            product.setCategory(category);
-            
-            try {
-                productRepository.save(product);
-                savedProducts.add(product);
-                count++;
-            } catch (Exception e) {
-                log.error("Error saving product: {}", productJson.getName(), e);
+    public void syncProductsFromJson() throws IOException {
+        Resource resource = resourceLoader.getResource(properties.getLocation());
+        try (InputStream inputStream = resource.getInputStream();
+             JsonProductReader reader = new JsonProductReader(objectMapper, inputStream)) {
+            ReferenceDataResolver resolver = new ReferenceDataResolver(currencyRepository, categoryRepository);
+            CatalogSync.SyncResult result = new CatalogSync(productJdbcRepository, resolver, properties.getBatchSize(),
+                    this::productsDeleted).run(reader);
+            log.info("Json products have been synced! inserted: {}, updated: {}, unchanged: {}, deleted: {}, duplicates: {}",
+                    result.inserted(), result.updated(), result.unchanged(), result.deleted(), result.duplicates());
+        }
+    }
+    
+    private void productsDeleted(List<Long> ids) {
+        for (Long id : ids) {
+            productCache.invalidate(id);
+            productNameIndex.remove(id);
+        }
+    }
+    
+    /**
+     * Streams the products from the JSON file into the database in batches on the current thread.
+     *
+     * @param reader   The reader streaming products from the JSON file.
+     * @param resolver The resolver for currencies and categories.
+     * @return The number of saved products per category name.
+     * @throws IOException If the JSON file cannot be parsed.
+     */
+    private Map<String, Long> saveProducts(JsonProductReader reader, ReferenceDataResolver resolver) throws IOException {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        Map<String, Long> categoryCounts = new HashMap<>();
+        List<Product> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        JsonProduct productJson;
+        while ((productJson = reader.next()) != null) {
+            batch.add(resolver.toProduct(productJson));
+            if (batch.size() == batchSize) {
+                count += countSaved(writeBatch(batch), categoryCounts);
+                batch.clear();
             }
         }
+        count += countSaved(writeBatch(batch), categoryCounts);
         
         log.info("Json products have been saved! count: {}", count);
-        return savedProducts;
+        return categoryCounts;
     }
     
     /**
-     * Logs the counts of materials per category and lists all saved products.
+     * Streams the products from the JSON file into the database through a {@link PipelinedProductImport}
+     * with separate parser, resolver and writer stages.
      *
-     * @param savedProducts The list of saved product entities.
+     * @param reader   The reader streaming products from the JSON file.
+     * @param resolver The resolver for currencies and categories.
+     * @return The number of saved products per category name.
+     * @throws IOException If the JSON file cannot be parsed.
      */
-    private void logCategoryCounts(List<Product> savedProducts) {
-        Map<String, Long> categoryCounts = savedProducts.stream()
-                .collect(Collectors.groupingBy(product -> product.getCategory().getName(),
-                        Collectors.counting()));
+    private Map<String, Long> saveProductsPipelined(JsonProductReader reader, ReferenceDataResolver resolver) throws IOException {
+        Map<String, Long> categoryCounts = new ConcurrentHashMap<>();
+        AtomicLong count = new AtomicLong();
+        new PipelinedProductImport(reader, resolver, this::writeBatch, properties)
+                .run(saved -> count.addAndGet(countSaved(saved, categoryCounts)));
         
-        log.info("Material counts per category:");
-        categoryCounts.forEach((category, count) -> log.info("{}: {}", category, count));
-        
-        log.info("Successfully saved all products:");
-        savedProducts.forEach(product -> log.info("{}", product));
+        log.info("Json products have been saved! count: {}", count.get());
+        return categoryCounts;
     }
     
     /**
-     * Extracts and saves currencies and categories from the product list.
+     * Writes one batch of products. If the batch fails as a whole, e.g. because of a duplicate material ID,
+     * the products are retried one by one so that a single bad record does not drop the entire batch.
      *
-     * @param products      The list of products from the JSON file.
-     * @param currencyMap   A map to store currency codes and entities.
-     * @param categoryMap   A map to store category names and entities.
+     * @param batch The products to write.
+     * @return The products that were saved.
      */
-    private void extractAndSaveCurrenciesAndCategories(List<JsonProduct> products,
-                                                       Map<String, Currency> currencyMap,
-                                                       Map<String, Category> categoryMap) {
+    private List<Product> writeBatch(List<Product> batch) {
+        if (batch.isEmpty()) {
+            return batch;
+        }
         try {
-            Set<Currency> currencies = new HashSet<>();
-            Set<Category> categories = new HashSet<>();
-            Set<String> currencyCodes = new HashSet<>();
-            Set<String> categoryNames = new HashSet<>();
-            
-            for (JsonProduct product : products) {
-                String currencyCode = product.getCurrency().getCode();
-                if(!currencyCodes.contains(currencyCode)) {
-                    Currency currency = new Currency();
-                    currency.setCode(product.getCurrency().getCode());
-                    currencies.add(currency);
-                    currencyCodes.add(currencyCode);
-                }
-                
-                String categoryName = product.getCategory().getName();
-                if (!categoryNames.contains(categoryName)) {
-                    Category category = new Category();
-                    category.setName(categoryName);
-                    categories.add(category);
-                    categoryNames.add(categoryName);
+            productJdbcRepository.batchInsert(batch);
+            return batch;
+        } catch (Exception batchException) {
+            log.warn("Error saving product batch of size {}, retrying products one by one", batch.size(), batchException);
+            List<Product> saved = new ArrayList<>(batch.size());
+            for (Product product : batch) {
+                try {
+                    productJdbcRepository.batchInsert(List.of(product));
+                    saved.add(product);
+                } catch (Exception e) {
+                    log.error("Error saving product: {}", product.getName(), e);
                 }
             }
-            
-            currencyRepository.saveAll(currencies);
-            categoryRepository.saveAll(categories);
-            
-            currencyRepository.findAll().forEach(currency -> currencyMap.put(currency.getCode(), currency));
-            categoryRepository.findAll().forEach(category -> categoryMap.put(category.getName(), category));
-            
-        } catch (Exception e) {
-            log.error("Error while saving currencies / categories!", e);
+            return saved;
         }
     }
     
+    private int countSaved(List<Product> saved, Map<String, Long> categoryCounts) {
+        saved.forEach(product -> categoryCounts.merge(product.getCategory().getName(), 1L, Long::sum));
+        return saved.size();
+    }
+    
+    /**
+     * Logs the counts of materials per category.
+     *
+     * @param categoryCounts The number of saved products per category name.
+     */
+    private void logCategoryCounts(Map<String, Long> categoryCounts) {
+        log.info("Material counts per category:");
+        categoryCounts.forEach((category, count) -> log.info("{}: {}", category, count));
+    }
+    
     /**
      * Checks if the database is empty.
      *
@@ -189,7 +223,20 @@ public class ProductLoader implements CommandLineRunner {
     }
     
     /**
-     * Runs the product loading process on application startup if the database is empty.
+     * Rebuilds the {@code product_view} read model if it does not have one row per product,
+     * e.g. because the catalog was loaded before the read model existed.
+     */
+    private void rebuildProductViewIfIncomplete() {
+        if (!productJdbcRepository.isViewComplete()) {
+            int rows = productJdbcRepository.rebuildView();
+            log.info("Product view has been rebuilt! count: {}", rows);
+        }
+    }
+    
+    /**
+     * Runs the product loading process on application startup if the database is empty,
+     * or the delta sync if the database is not empty and sync is enabled.
+     * For a database that is not empty, the product read model is completed first.
      *
      * @param args The command line arguments.
      */
@@ -201,6 +248,15 @@ public class ProductLoader implements CommandLineRunner {
             } catch (IOException e) {
                 log.error("Error while saving products in database!", e);
             }
+            return;
+        }
+        rebuildProductViewIfIncomplete();
+        if (properties.isSyncEnabled()) {
+            try {
+                syncProductsFromJson();
+            } catch (Exception e) {
+                log.error("Error while syncing products in database!", e);
+            }
         } else {
             log.warn("Database is not empty, product were not saved!");
         }
@@ -0,0 +1,57 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code ProductLoaderProperties} holds the settings of the startup catalog import done by {@link ProductLoader}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-loader")
+public class ProductLoaderProperties {
+    
+    /**
+     * Spring resource location of the catalog file, e.g. {@code classpath:products.json} or {@code file:/data/products.json}.
+     */
+    private String location = "classpath:products.json";
+    
+    /**
+     * Number of products written per JDBC batch. Bounds the memory held by the loader.
+     */
+    private int batchSize = 1000;
+    
+    /**
+     * How the catalog is imported, see {@link ImportMode}.
+     */
+    private ImportMode mode = ImportMode.BATCH;
+    
+    /**
+     * Number of concurrent writer workers in {@link ImportMode#PIPELINED} mode.
+     * Each worker holds its own connection, so keep it below the connection pool size.
+     */
+    private int writerThreads = 4;
+    
+    /**
+     * Capacity, in batches, of each queue between pipeline stages. A full queue blocks the upstream stage.
+     */
+    private int queueCapacity = 8;
+    
+    /**
+     * Whether to apply the catalog as a delta when the database already contains products.
+     * When disabled, a non-empty database is left untouched.
+     */
+    private boolean syncEnabled = false;
+    
+    public enum ImportMode {
+        /**
+         * Parse, resolve and write sequentially on the startup thread.
+         */
+        BATCH,
+        /**
+         * Parse, resolve and write in separate stages joined by bounded queues, with several writer workers.
+         */
+        PIPELINED
+    }
+}
@@ -0,0 +1,26 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * {@code ProductResponseCacheProperties} holds the limits of the cache of serialized {@code GET /products} response bodies.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-response-cache")
+public class ProductResponseCacheProperties {
+    
+    /**
+     * Total size of the cached bodies, plain and gzipped together. Eviction beyond it is frequency and recency based.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+    
+    /**
+     * Largest plain body that is cached. Larger responses, typically the whole catalog of a big database, are streamed
+     * without being kept.
+     */
+    private DataSize maximumEntrySize = DataSize.ofMegabytes(16);
+}
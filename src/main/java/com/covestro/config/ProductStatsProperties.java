@@ -0,0 +1,22 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * {@code ProductStatsProperties} holds the refresh settings of the columnar price snapshot behind {@code GET /products/stats}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-stats")
+public class ProductStatsProperties {
+    
+    /**
+     * Age after which the snapshot is rebuilt from the database in the background. Requests are answered from the
+     * current snapshot meanwhile, so this bounds how stale the aggregates can be.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+}
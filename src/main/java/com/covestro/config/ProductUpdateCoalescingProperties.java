@@ -0,0 +1,33 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * {@code ProductUpdateCoalescingProperties} configures the merging of concurrent updates to the same product into one
+ * database write.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-update-coalescing")
+public class ProductUpdateCoalescingProperties {
+    
+    /**
+     * Whether updates are coalesced. Without it every update is written on its own.
+     */
+    private boolean enabled = false;
+    
+    /**
+     * How long the first pending update to a product waits for further updates to merge with. Adds up to this much
+     * latency to every update.
+     */
+    private Duration window = Duration.ofMillis(20);
+    
+    /**
+     * Locks the per-product queues are striped over.
+     */
+    private int stripes = 64;
+}
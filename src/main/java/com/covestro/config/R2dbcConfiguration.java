@@ -0,0 +1,51 @@
+package com.covestro.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * {@code R2dbcConfiguration} sets up the R2DBC connection pool used by
+ * {@link com.covestro.repository.R2dbcProductStore} when the {@code r2dbc} profile is active.
+ * <p>
+ * Spring Boot's R2DBC auto-configuration is excluded on the application class: it would otherwise require an
+ * R2DBC URL in every profile and register a second transaction manager next to the JPA one.
+ * The JDBC datasource stays in use for the startup catalog import and the bulk endpoints.
+ * For the same reason the R2DBC transaction manager is not a bean; it is only reachable through the
+ * {@link TransactionalOperator} the store uses to write a product and its read model row together.
+ */
+@Configuration
+@Profile("r2dbc")
+public class R2dbcConfiguration {
+    
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(R2dbcStoreProperties properties) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, properties.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+                .build();
+        ConnectionPoolConfiguration poolConfiguration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(properties.getInitialSize())
+                .maxSize(properties.getMaxSize())
+                .build();
+        return new ConnectionPool(poolConfiguration);
+    }
+    
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+    
+    @Bean
+    public TransactionalOperator r2dbcTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
@@ -0,0 +1,34 @@
+package com.covestro.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code R2dbcStoreProperties} holds the connection settings of the non-blocking data path enabled by the
+ * {@code r2dbc} profile, see {@link R2dbcConfiguration}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-store.r2dbc")
+public class R2dbcStoreProperties {
+    
+    /**
+     * R2DBC URL, e.g. {@code r2dbc:mysql://localhost:3306/productdb}.
+     */
+    private String url;
+    
+    private String username;
+    
+    private String password;
+    
+    /**
+     * Connections opened when the pool starts.
+     */
+    private int initialSize = 10;
+    
+    /**
+     * Upper bound of connections, and therefore of concurrently executing queries.
+     */
+    private int maxSize = 50;
+}
@@ -0,0 +1,81 @@
+package com.covestro.config;
+
+import com.covestro.model.JsonProduct;
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code ReferenceDataResolver} maps the currency codes and category names of streamed {@link JsonProduct}
+ * records to persisted {@link Currency} and {@link Category} entities.
+ * Existing reference data is loaded once; unknown codes and names are saved the first time they are seen.
+ * Instances are not thread-safe and live for the duration of a single import.
+ */
+public class ReferenceDataResolver {
+    private final CurrencyRepository currencyRepository;
+    private final CategoryRepository categoryRepository;
+    private final Map<String, Currency> currencyMap = new HashMap<>();
+    private final Map<String, Category> categoryMap = new HashMap<>();
+    
+    /**
+     * Creates a resolver and preloads all existing currencies and categories.
+     *
+     * @param currencyRepository The repository for currency entities.
+     * @param categoryRepository The repository for category entities.
+     */
+    public ReferenceDataResolver(CurrencyRepository currencyRepository, CategoryRepository categoryRepository) {
+        this.currencyRepository = currencyRepository;
+        this.categoryRepository = categoryRepository;
+        currencyRepository.findAll().forEach(currency -> currencyMap.put(currency.getCode(), currency));
+        categoryRepository.findAll().forEach(category -> categoryMap.put(category.getName(), category));
+    }
+    
+    /**
+     * Builds a product entity from a JSON record with resolved currency and category.
+     *
+     * @param productJson The product read from the catalog file.
+     * @return A new, not yet persisted product entity.
+     */
+    public Product toProduct(JsonProduct productJson) {
+        Product product = new Product();
+        product.setMaterialId(productJson.getMaterialId());
+        product.setName(productJson.getName());
+        product.setPrice(productJson.getPrice());
+        product.setCurrency(resolveCurrency(productJson.getCurrency().getCode()));
+        product.setCategory(resolveCategory(productJson.getCategory().getName()));
+        return product;
+    }
+    
+    /**
+     * Returns the currency for the given code, saving it first if it does not exist yet.
+     *
+     * @param code The currency code.
+     * @return The persisted currency entity.
+     */
+    public Currency resolveCurrency(String code) {
+        return currencyMap.computeIfAbsent(code, key -> {
+            Currency currency = new Currency();
+            currency.setCode(key);
+            return currencyRepository.save(currency);
+        });
+    }
+    
+    /**
+     * Returns the category for the given name, saving it first if it does not exist yet.
+     *
+     * @param name The category name.
+     * @return The persisted category entity.
+     */
+    public Category resolveCategory(String name) {
+        return categoryMap.computeIfAbsent(name, key -> {
+            Category category = new Category();
+            category.setName(key);
+            return categoryRepository.save(category);
+        });
+    }
+}
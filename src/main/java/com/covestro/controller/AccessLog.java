@@ -0,0 +1,196 @@
+package com.covestro.controller;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.covestro.config.AccessLogProperties;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sampled access log: one JSON record per logged request, with its request ID, method, path, query, status, the time
+ * until the response was committed and the total time.
+ * <p>
+ * Request threads only take two timestamps and, for logged requests, offer a record to a lock-free
+ * {@link MpscRingBuffer}. A single writer thread serializes the records and writes them to the {@code access-log}
+ * logger, which {@code logback-spring.xml} routes to a rolling file. A request is logged with probability
+ * {@link AccessLogProperties#getSampleRate()}, and requests answered with a 5xx status are always logged if
+ * {@link AccessLogProperties#isLogServerErrors()} is set. Requests cancelled by the client are logged with status
+ * 499. Records that do not fit into the buffer are dropped and counted in {@code access.log.dropped}. The file appender
+ * does not flush per record; the writer flushes it whenever the buffer is drained, so records reach the file within
+ * one idle period even under low traffic.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class AccessLog implements WebFilter, DisposableBean {
+    static final String LOGGER_NAME = "access-log";
+    static final int CLIENT_CLOSED_REQUEST = 499;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    
+    private final AccessLogProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Logger accessLogger;
+    private final MpscRingBuffer<Entry> buffer;
+    private final Counter droppedCounter;
+    private final Thread writer;
+    private volatile boolean running = true;
+    
+    @Autowired
+    public AccessLog(AccessLogProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, LoggerFactory.getLogger(LOGGER_NAME));
+    }
+    
+    AccessLog(AccessLogProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry, Logger accessLogger) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.accessLogger = accessLogger;
+        this.buffer = new MpscRingBuffer<>(properties.getBufferSize());
+        this.droppedCounter = Counter.builder("access.log.dropped")
+                .description("Access log records dropped because the buffer was full")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().name("access-log-writer").daemon().unstarted(this::drain);
+        if (properties.isEnabled()) {
+            writer.start();
+        }
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+        if (!sampled && !properties.isLogServerErrors()) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        long[] committed = new long[1];
+        exchange.getResponse().beforeCommit(() -> {
+            committed[0] = System.nanoTime();
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    int status = status(exchange, signal);
+                    if (sampled || status >= 500) {
+                        long end = System.nanoTime();
+                        record(exchange.getRequest(), status, committed[0] == 0 ? end - start : committed[0] - start,
+                                end - start);
+                    }
+                });
+    }
+    
+    private static int status(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return CLIENT_CLOSED_REQUEST;
+        }
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        if (statusCode != null) {
+            return statusCode.value();
+        }
+        // errors not handled by a controller advice get their status from the WebExceptionHandler after the filters
+        return signal == SignalType.ON_ERROR ? 500 : 200;
+    }
+    
+    private void record(ServerHttpRequest request, int status, long commitNanos, long totalNanos) {
+        Entry entry = new Entry(Instant.now(), request.getId(), request.getMethod().name(), request.getPath().value(),
+                request.getURI().getRawQuery(), status, commitNanos / 1e6, totalNanos / 1e6);
+        if (!buffer.offer(entry)) {
+            droppedCounter.increment();
+        }
+    }
+    
+    private void drain() {
+        boolean unflushed = false;
+        while (true) {
+            Entry entry = buffer.poll();
+            if (entry != null) {
+                write(entry);
+                unflushed = true;
+            } else {
+                if (unflushed) {
+                    flush();
+                    unflushed = false;
+                }
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+    
+    private void write(Entry entry) {
+        try {
+            accessLogger.info(objectMapper.writeValueAsString(entry));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Error writing access log record", e);
+        }
+    }
+    
+    /**
+     * Flushes the output streams of the access log appenders. Only called by the writer thread, the only one that
+     * writes to them.
+     */
+    private void flush() {
+        if (!(accessLogger instanceof ch.qos.logback.classic.Logger logbackLogger)) {
+            return;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders = logbackLogger.iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof OutputStreamAppender<ILoggingEvent> appender
+                    && appender.getOutputStream() != null) {
+                try {
+                    appender.getOutputStream().flush();
+                } catch (IOException e) {
+                    log.warn("Error flushing access log", e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stops the writer once the buffered records are written.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+    
+    /**
+     * One access log record; times are in milliseconds.
+     */
+    record Entry(@JsonFormat(shape = JsonFormat.Shape.STRING) Instant timestamp, String requestId, String method, String path, String query, int status,
+                 double commitMs, double durationMs) {
+    }
+}
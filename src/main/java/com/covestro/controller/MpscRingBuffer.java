@@ -0,0 +1,81 @@
+package com.covestro.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer single-consumer queue on a ring of slots, after Dmitry Vyukov's bounded queue.
+ * Each slot carries a sequence number telling producers whether it is free for the current lap and the consumer whether
+ * it has been published, so producers only contend on one compare-and-set of the tail. A full buffer rejects elements
+ * instead of blocking the producer.
+ *
+ * @param <E> Element type
+ */
+final class MpscRingBuffer<E> {
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+    
+    /**
+     * @param capacity Minimum number of elements, rounded up to a power of two
+     */
+    MpscRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = capacity == 1 ? 2 : 1 << (32 - Integer.numberOfLeadingZeros(capacity - 1));
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    /**
+     * Adds an element; safe to call from any thread.
+     *
+     * @return {@code false} if the buffer is full and the element was dropped
+     */
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                return false;
+            }
+            // another producer claimed the slot, retry with the new tail
+        }
+    }
+    
+    /**
+     * Takes the oldest element; must only be called by the single consumer thread.
+     *
+     * @return The element, {@code null} if the buffer is empty
+     */
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, head + elements.length());
+        head++;
+        return element;
+    }
+    
+    int capacity() {
+        return elements.length();
+    }
+}
@@ -1,8 +1,22 @@
 package com.covestro.controller;
 
+import com.covestro.config.ProductChangeFeedProperties;
+import com.covestro.dto.ProductBatchResultDTO;
 import com.covestro.dto.ProductRequestDTO;
 import com.covestro.dto.ProductResponseDTO;
+import com.covestro.dto.ProductSearchResultDTO;
+import com.covestro.dto.ProductStatsDTO;
+import com.covestro.dto.ProductSuggestionDTO;
+import com.covestro.repository.ProductSearchCriteria;
+import com.covestro.repository.ProductSearchCursor;
+import com.covestro.repository.ProductSortField;
 import com.covestro.repository.entity.Product;
+import com.covestro.service.CatalogVersion;
+import com.covestro.service.FallbackMarker;
+import com.covestro.service.FxRateTable;
+import com.covestro.service.PriceConverter;
+import com.covestro.service.ProductBatchService;
+import com.covestro.service.ProductNameIndex;
 import com.covestro.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,13 +26,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
 /**
  * REST controller for products.
  * Provides endpoints for retrieving, creating, and updating products.
@@ -30,38 +56,265 @@ import reactor.core.publisher.Mono;
 public class ProductController {
     
     private final ProductService productService;
+    private final ProductBatchService productBatchService;
+    private final FxRateTable fxRateTable;
+    private final CatalogVersion catalogVersion;
+    private final ProductChangeFeedProperties productChangeFeedProperties;
     
-    @Operation(summary = "Get a list of products")
+    @Operation(summary = "Get a list of products",
+            description = "Without parameters the whole catalog is streamed in ID order. With `after` and/or `limit` "
+                    + "a single keyset page is returned; pass the ID of the last product as `after` to get the next page. "
+                    + "Request `application/x-ndjson` or `text/event-stream` to receive one product per line or event "
+                    + "as soon as it is read instead of a single JSON array. With `targetCurrency` prices are converted "
+                    + "into that currency. Responses carry an `ETag` of the catalog version; send it back as "
+                    + "`If-None-Match` to get 304 while nothing changed.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of products retrieved successfully",
                     content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductResponseDTO.class)),
+                            @Content(mediaType = "application/x-ndjson",
+                                    schema = @Schema(implementation = ProductResponseDTO.class)),
+                            @Content(mediaType = "text/event-stream",
+                                    schema = @Schema(implementation = ProductResponseDTO.class))}),
+            @ApiResponse(responseCode = "304", description = "Catalog not modified", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<Flux<ProductResponseDTO>> getAllProducts(@RequestParam(required = false) Long after,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   @RequestParam(required = false) String targetCurrency,
+                                                                   ServerWebExchange exchange) {
+        int pageSize = limit == null ? ProductService.DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > ProductService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + ProductService.MAX_PAGE_SIZE);
+        }
+        PriceConverter converter = priceConverter(targetCurrency);
+        CatalogVersion.Stamp stamp = catalogVersion.current();
+        String eTag = eTag(stamp, converter);
+        if (exchange.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        Flux<ProductResponseDTO> products;
+        if (after == null && limit == null) {
+            log.debug("Received request to get all products");
+            products = productService.getAllProducts();
+        } else {
+            log.debug("Received request to get products after ID: {}, limit: {}", after, pageSize);
+            products = productService.getProductsPage(after, pageSize);
+        }
+        return ResponseEntity.ok().eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(withoutFallbackValidator(products.map(conversion(converter)), exchange.getResponse()));
+    }
+    
+    @Operation(summary = "Get products changed since a point in time",
+            description = "Returns every product whose `lastUpdate` is at or after `since` (ISO date-time), ordered by "
+                    + "`lastUpdate` and ID. Keep the `lastUpdate` of the last product as `since` for the next call. "
+                    + "Request `application/x-ndjson` to receive one product per line as it is read.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changed products retrieved successfully",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductResponseDTO.class)),
+                            @Content(mediaType = "application/x-ndjson",
+                                    schema = @Schema(implementation = ProductResponseDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping(value = "/changes", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductResponseDTO> getProductChanges(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime since) {
+        return productService.getProductChanges(since);
+    }
+    
+    @Operation(summary = "Stream product changes",
+            description = "Server-sent events with one `product` event per product written from now on. With `since` "
+                    + "(ISO date-time), or the `Last-Event-ID` header of a reconnecting client, the products changed since "
+                    + "then are sent as well, interleaved with live changes. The event ID is the product's `lastUpdate`. "
+                    + "A product can be sent more than once; keep the version with the latest `lastUpdate`. A client "
+                    + "that reads too slowly is disconnected and resumes from its last event ID.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Change stream opened",
+                    content = {@Content(mediaType = "text/event-stream",
                             schema = @Schema(implementation = ProductResponseDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)
+    })
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProductResponseDTO>> streamProductChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        LocalDateTime resumeFrom = lastEventId == null ? since : parseEventId(lastEventId);
+        log.debug("Received request to stream product changes since: {}", resumeFrom);
+        Flux<ServerSentEvent<ProductResponseDTO>> changes = productService.streamProductChanges(resumeFrom)
+                .map(change -> ServerSentEvent.builder(change)
+                        .id(change.getLastUpdate() == null ? null : change.getLastUpdate().toString())
+                        .event("product")
+                        .build());
+        Flux<ServerSentEvent<ProductResponseDTO>> heartbeats = Flux
+                .interval(productChangeFeedProperties.getHeartbeatInterval())
+                .map(tick -> ServerSentEvent.<ProductResponseDTO>builder().comment("keep-alive").build());
+        return Flux.merge(changes, heartbeats);
+    }
+    
+    @Operation(summary = "Search products",
+            description = "Filters by exact `categoryName` and `currencyCode`, an inclusive `minPrice`/`maxPrice` range "
+                    + "and a `namePrefix`, sorted by `sort` (ID, PRICE, NAME or LAST_UPDATE) in `direction` (ASC or DESC). "
+                    + "Pages are addressed by keyset: pass the `nextCursor` of a page as `cursor` with the same sort "
+                    + "to get the next page; `nextCursor` is null on the last page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search page retrieved successfully",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductSearchResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
-    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public Flux<ProductResponseDTO> getAllProducts() {
-        log.info("Received request to get all products");
-        return productService.getAllProducts()
-                .map(this::convertToDto);
+    @GetMapping("/search")
+    public Mono<ProductSearchResultDTO> searchProducts(@RequestParam(required = false) String categoryName,
+                                                       @RequestParam(required = false) String currencyCode,
+                                                       @RequestParam(required = false) BigDecimal minPrice,
+                                                       @RequestParam(required = false) BigDecimal maxPrice,
+                                                       @RequestParam(required = false) String namePrefix,
+                                                       @RequestParam(defaultValue = "ID") ProductSortField sort,
+                                                       @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) String cursor) {
+        int pageSize = limit == null ? ProductService.DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > ProductService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + ProductService.MAX_PAGE_SIZE);
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        ProductSearchCursor after = cursor == null ? null : ProductSearchCursor.decode(cursor);
+        if (after != null && after.sortField() != sort) {
+            throw new IllegalArgumentException("cursor was created for sort " + after.sortField());
+        }
+        log.debug("Received request to search products");
+        return productService.searchProducts(new ProductSearchCriteria(categoryName, currencyCode, minPrice, maxPrice,
+                        namePrefix, sort, direction, after, pageSize))
+                .defaultIfEmpty(new ProductSearchResultDTO(List.of(), null));
     }
     
-    @Operation(summary = "Get a product by ID")
+    @Operation(summary = "Suggest products for typeahead",
+            description = "Returns up to `limit` products whose name or material ID contains `q`, ignoring case, "
+                    + "in ID order. Answered from an in-memory trigram index; `q` needs at least "
+                    + ProductNameIndex.GRAM_LENGTH + " characters.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductSuggestionDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping("/suggest")
+    public Flux<ProductSuggestionDTO> suggestProducts(@RequestParam String q,
+                                                      @RequestParam(required = false) Integer limit) {
+        String query = q.trim();
+        if (query.length() < ProductNameIndex.GRAM_LENGTH) {
+            throw new IllegalArgumentException("q must have at least " + ProductNameIndex.GRAM_LENGTH + " characters");
+        }
+        int suggestions = limit == null ? ProductService.DEFAULT_SUGGESTIONS : limit;
+        if (suggestions < 1 || suggestions > ProductService.MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + ProductService.MAX_SUGGESTIONS);
+        }
+        return productService.suggestProducts(query, suggestions);
+    }
+    
+    @Operation(summary = "Get catalog statistics",
+            description = "Returns the number of products per category and the minimum, maximum and average price per "
+                    + "category and currency and per currency. Prices are not converted between currencies. Answered "
+                    + "from an in-memory snapshot of the catalog that is refreshed in the background; `snapshotTime` "
+                    + "tells when it was read.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductStatsDTO.class))}),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping("/stats")
+    public Mono<ProductStatsDTO> getProductStats() {
+        return productService.getProductStats();
+    }
+    
+    @Operation(summary = "Get a product by ID",
+            description = "With `targetCurrency` the price is converted into that currency. Responses carry an `ETag` "
+                    + "of the catalog version; send it back as `If-None-Match` to get 304 while nothing changed.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product retrieved successfully",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = ProductResponseDTO.class))}),
+            @ApiResponse(responseCode = "304", description = "Catalog not modified", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
             @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<ProductResponseDTO>> getProductById(@PathVariable Long id) {
-        log.info("Received request to get product by ID: {}", id);
+    public Mono<ResponseEntity<ProductResponseDTO>> getProductById(@PathVariable Long id,
+                                                                   @RequestParam(required = false) String targetCurrency,
+                                                                   ServerWebExchange exchange) {
+        PriceConverter converter = priceConverter(targetCurrency);
+        CatalogVersion.Stamp stamp = catalogVersion.current();
+        String eTag = eTag(stamp, converter);
+        if (exchange.checkNotModified(eTag)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+        }
+        log.debug("Received request to get product by ID: {}", id);
         return productService.getProductById(id)
-                .map(this::convertToDto)
+                .map(ProductController::convertToDto)
+                .map(conversion(converter))
+                .map(dto -> ResponseEntity.ok().eTag(eTag).body(dto))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
+    @Operation(summary = "Get a product by material ID",
+            description = "With `targetCurrency` the price is converted into that currency.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product retrieved successfully",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductResponseDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping("/by-material/{materialId}")
+    public Mono<ResponseEntity<ProductResponseDTO>> getProductByMaterialId(@PathVariable String materialId,
+                                                                           @RequestParam(required = false) String targetCurrency) {
+        UnaryOperator<ProductResponseDTO> conversion = priceConversion(targetCurrency);
+        log.debug("Received request to get product by material ID: {}", materialId);
+        return productService.getProductByMaterialId(materialId)
+                .map(ProductController::convertToDto)
+                .map(conversion)
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
     
+    @Operation(summary = "Get products by material IDs",
+            description = "Resolves up to " + ProductService.MAX_MATERIAL_IDS + " material IDs in one round trip, "
+                    + "passed comma-separated or as repeated `materialIds` parameters. Products are returned in the "
+                    + "requested order; unknown material IDs are left out. With `targetCurrency` prices are converted "
+                    + "into that currency.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of products retrieved successfully",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductResponseDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping("/by-material")
+    public Flux<ProductResponseDTO> getProductsByMaterialIds(@RequestParam List<String> materialIds,
+                                                             @RequestParam(required = false) String targetCurrency) {
+        if (materialIds.isEmpty() || materialIds.size() > ProductService.MAX_MATERIAL_IDS) {
+            throw new IllegalArgumentException("materialIds must contain between 1 and "
+                    + ProductService.MAX_MATERIAL_IDS + " entries");
+        }
+        UnaryOperator<ProductResponseDTO> conversion = priceConversion(targetCurrency);
+        log.debug("Received request to get {} products by material ID", materialIds.size());
+        return productService.getProductsByMaterialIds(materialIds)
+                .map(ProductController::convertToDto)
+                .map(conversion);
+    }
+    
     @Operation(summary = "Update a product by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product updated successfully",
@@ -73,9 +326,9 @@ public class ProductController {
     })
     @PutMapping("/{id}")
     public Mono<ResponseEntity<ProductResponseDTO>> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductRequestDTO productRequestDTO) {
-        log.info("Received request to update product with ID: {}", id);
+        log.debug("Received request to update product with ID: {}", id);
         return productService.updateProduct(id, productRequestDTO)
-                .map(this::convertToDto)
+                .map(ProductController::convertToDto)
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
@@ -90,14 +343,126 @@ public class ProductController {
     })
     @PostMapping
     public Mono<ResponseEntity<ProductResponseDTO>> createProduct(@Valid @RequestBody ProductRequestDTO productRequestDTO) {
-        log.info("Received request to create a new product");
+        log.debug("Received request to create a new product");
         return productService.createProduct(productRequestDTO)
-                .map(this::convertToDto)
+                .map(ProductController::convertToDto)
                 .map(dto -> ResponseEntity.status(HttpStatus.CREATED).body(dto))
                 .switchIfEmpty(Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build()));
     }
     
-    private ProductResponseDTO convertToDto(Product product) {
+    @Operation(summary = "Create products in bulk",
+            description = "Accepts a JSON array or an `application/x-ndjson` stream of products. Items are validated "
+                    + "one by one and written in JDBC batches; the response holds one result per item in request order, "
+                    + "so a rejected item does not fail the others.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-item results",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductBatchResultDTO.class)),
+                            @Content(mediaType = "application/x-ndjson",
+                                    schema = @Schema(implementation = ProductBatchResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductBatchResultDTO> createProducts(@RequestBody Flux<ProductRequestDTO> productRequestDTOs) {
+        log.debug("Received request to create products in bulk");
+        return productBatchService.createProducts(productRequestDTOs)
+                .map(ProductController::convertToDto);
+    }
+    
+    @Operation(summary = "Update products in bulk by material ID",
+            description = "Accepts a JSON array or an `application/x-ndjson` stream of products. Each item updates the "
+                    + "product with its `materialId`. Items are validated one by one and written in JDBC batches; "
+                    + "the response holds one result per item in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-item results",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductBatchResultDTO.class)),
+                            @Content(mediaType = "application/x-ndjson",
+                                    schema = @Schema(implementation = ProductBatchResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @PutMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductBatchResultDTO> updateProducts(@RequestBody Flux<ProductRequestDTO> productRequestDTOs) {
+        log.debug("Received request to update products in bulk");
+        return productBatchService.updateProducts(productRequestDTOs)
+                .map(ProductController::convertToDto);
+    }
+    
+    /**
+     * @throws IllegalArgumentException If the event ID is not a last update sent by {@link #streamProductChanges}
+     */
+    private static LocalDateTime parseEventId(String lastEventId) {
+        try {
+            return LocalDateTime.parse(lastEventId);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Last-Event-ID must be an ISO date-time: " + lastEventId);
+        }
+    }
+    
+    /**
+     * Resolves the price conversion for a request once, so every product of the response uses the same rates.
+     *
+     * @throws IllegalArgumentException If there is no FX rate for the target currency
+     */
+    private UnaryOperator<ProductResponseDTO> priceConversion(String targetCurrency) {
+        return conversion(priceConverter(targetCurrency));
+    }
+    
+    /**
+     * @return The converter into the target currency, {@code null} if prices are not converted
+     * @throws IllegalArgumentException If there is no FX rate for the target currency
+     */
+    private PriceConverter priceConverter(String targetCurrency) {
+        return targetCurrency == null ? null : fxRateTable.converter(targetCurrency);
+    }
+    
+    private static UnaryOperator<ProductResponseDTO> conversion(PriceConverter converter) {
+        return converter == null ? UnaryOperator.identity() : converter::convert;
+    }
+    
+    /**
+     * Builds the weak entity tag of a response from the catalog version and, for converted prices, the version of
+     * the FX rates, so that reloading the rates invalidates converted responses as well. The tag is weak because it
+     * is shared by the JSON, NDJSON and event stream representations and by the gzip and identity codings.
+     */
+    private static String eTag(CatalogVersion.Stamp stamp, PriceConverter converter) {
+        return converter == null
+                ? "W/\"" + stamp.version() + "\""
+                : "W/\"" + stamp.version() + "-" + converter.getTargetCurrency() + "-" + converter.getRatesVersion() + "\"";
+    }
+    
+    /**
+     * Keeps a list that a circuit breaker fallback emptied or cut short from being revalidated as the catalog of its
+     * version: the {@code ETag} is dropped if the fallback ran before the headers were sent, and the response is
+     * aborted if it ran after.
+     */
+    private static Flux<ProductResponseDTO> withoutFallbackValidator(Flux<ProductResponseDTO> products,
+                                                                     ServerHttpResponse response) {
+        FallbackMarker fallbackMarker = new FallbackMarker();
+        response.beforeCommit(() -> Mono.fromRunnable(() -> {
+            if (fallbackMarker.isMarked()) {
+                response.getHeaders().remove(HttpHeaders.ETAG);
+            }
+        }));
+        return products
+                .concatWith(Mono.defer(() -> fallbackMarker.isMarked() && response.isCommitted()
+                        ? Mono.error(new IllegalStateException("Product list was cut short by a fallback"))
+                        : Mono.empty()))
+                .contextWrite(fallbackMarker::watch);
+    }
+    
+    private static ProductBatchResultDTO convertToDto(ProductBatchService.ItemResult result) {
+        ProductResponseDTO product = result.product() == null ? null : convertToDto(result.product());
+        return new ProductBatchResultDTO(result.index(), result.status(), product, result.message());
+    }
+    
+    static ProductResponseDTO convertToDto(Product product) {
         ProductResponseDTO dto = new ProductResponseDTO();
         dto.setId(product.getId());
         dto.setMaterialId(product.getMaterialId());
@@ -0,0 +1,267 @@
+package com.covestro.controller;
+
+import com.covestro.config.ProductResponseCacheProperties;
+import com.covestro.service.CatalogVersion;
+import com.covestro.service.FallbackMarker;
+import com.covestro.service.FxRateTable;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the serialized JSON bodies of {@code GET /api/v1/products}, so that repeated list requests are answered
+ * without reading the database or running Jackson.
+ * <p>
+ * Entries are keyed by the {@link CatalogVersion}, the FX rate version for {@code targetCurrency}, the query string
+ * and the {@code Accept} header, so a write makes every older entry unreachable; they are dropped as soon as a newer
+ * version is cached. On a miss the response is streamed as usual and its bytes are copied aside while they are
+ * written; once it completed, a gzipped copy is made on the parallel scheduler and both are cached. Hits are written
+ * as one buffer wrapping the cached array, gzipped if the client accepts it, and answer conditional requests
+ * with 304 like the controller does. Responses above {@link ProductResponseCacheProperties#getMaximumEntrySize()} and
+ * NDJSON or event streams are not cached; uncached responses are compressed by the server when negotiated. Responses
+ * that a {@link com.covestro.service.ProductService} fallback cut short or emptied, seen through a
+ * {@link FallbackMarker}, are not cached either, so a database outage is not served on once it is over.
+ * <p>
+ * Exported through Micrometer as the {@code cache.*} meters tagged {@code cache=product-list-response}.
+ */
+@Component
+@Slf4j
+public class ProductListResponseCache implements WebFilter {
+    static final String CACHE_NAME = "product-list-response";
+    static final String PATH = "/api/v1/products";
+    private static final String GZIP = "gzip";
+    
+    private final CatalogVersion catalogVersion;
+    private final FxRateTable fxRateTable;
+    private final Scheduler compressionScheduler;
+    private final long maximumEntrySize;
+    private final Cache<Key, Body> cache;
+    private final AtomicLong newestVersion = new AtomicLong(Long.MIN_VALUE);
+    
+    @Autowired
+    public ProductListResponseCache(CatalogVersion catalogVersion,
+                                    FxRateTable fxRateTable,
+                                    ProductResponseCacheProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this(catalogVersion, fxRateTable, properties, meterRegistry, Schedulers.parallel());
+    }
+    
+    ProductListResponseCache(CatalogVersion catalogVersion,
+                             FxRateTable fxRateTable,
+                             ProductResponseCacheProperties properties,
+                             MeterRegistry meterRegistry,
+                             Scheduler compressionScheduler) {
+        this.catalogVersion = catalogVersion;
+        this.fxRateTable = fxRateTable;
+        this.compressionScheduler = compressionScheduler;
+        this.maximumEntrySize = properties.getMaximumEntrySize().toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher((Key key, Body body) -> body.identity().length + body.gzip().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || !PATH.equals(request.getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        Key key = key(request);
+        if (key == null) {
+            return chain.filter(exchange);
+        }
+        Body body = cache.getIfPresent(key);
+        if (body != null) {
+            return write(exchange, body);
+        }
+        FallbackMarker fallbackMarker = new FallbackMarker();
+        return chain.filter(exchange.mutate()
+                        .response(new CapturingResponse(exchange.getResponse(), key, fallbackMarker))
+                        .build())
+                .contextWrite(fallbackMarker::watch);
+    }
+    
+    /**
+     * @return The cache key of the request, {@code null} if the target currency is unknown and the controller
+     * answers with an error
+     */
+    private Key key(ServerHttpRequest request) {
+        long ratesVersion = 0;
+        String targetCurrency = request.getQueryParams().getFirst("targetCurrency");
+        if (targetCurrency != null) {
+            try {
+                ratesVersion = fxRateTable.converter(targetCurrency).getRatesVersion();
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        String query = request.getURI().getRawQuery();
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        return new Key(catalogVersion.current().version(), ratesVersion, query == null ? "" : query,
+                accept == null ? "" : accept);
+    }
+    
+    private Mono<Void> write(ServerWebExchange exchange, Body body) {
+        ServerHttpResponse response = exchange.getResponse();
+        body.headers().forEach((name, values) -> response.getHeaders().put(name, new ArrayList<>(values)));
+        if (exchange.checkNotModified(body.headers().getETag())) {
+            return response.setComplete();
+        }
+        byte[] bytes = body.identity();
+        if (acceptsGzip(exchange.getRequest())) {
+            bytes = body.gzip();
+            response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.getHeaders().setContentLength(bytes.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+    
+    private void store(Key key, byte[] identity, HttpHeaders headers) {
+        Mono.fromCallable(() -> new Body(identity, gzip(identity), headers))
+                .subscribeOn(compressionScheduler)
+                .subscribe(body -> {
+                    long newest = newestVersion.getAndAccumulate(key.catalogVersion(), Math::max);
+                    if (key.catalogVersion() > newest) {
+                        cache.invalidateAll();
+                    } else if (key.catalogVersion() < newest) {
+                        return;
+                    }
+                    cache.put(key, body);
+                }, e -> log.warn("Error caching product list response", e));
+    }
+    
+    static boolean acceptsGzip(ServerHttpRequest request) {
+        for (String value : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parameters = coding.split(";");
+                String name = parameters[0].trim();
+                if ((GZIP.equalsIgnoreCase(name) || "*".equals(name)) && !rejected(parameters)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static boolean rejected(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static byte[] gzip(byte[] identity) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(identity.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    record Key(long catalogVersion, long ratesVersion, String query, String accept) {
+    }
+    
+    /**
+     * A cached response body in both encodings with the headers it was sent with.
+     */
+    record Body(byte[] identity, byte[] gzip, HttpHeaders headers) {
+    }
+    
+    /**
+     * Copies the body of a successful JSON response aside while it is written and caches it once it is complete,
+     * unless a circuit breaker fallback ended it early or answered it with an empty list.
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+        private final Key key;
+        private final FallbackMarker fallbackMarker;
+        
+        CapturingResponse(ServerHttpResponse delegate, Key key, FallbackMarker fallbackMarker) {
+            super(delegate);
+            this.key = key;
+            this.fallbackMarker = fallbackMarker;
+        }
+        
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            MediaType contentType = getHeaders().getContentType();
+            boolean ok = getStatusCode() == null || getStatusCode().value() == HttpStatus.OK.value();
+            if (!ok || contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                return super.writeWith(body);
+            }
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] oversized = new boolean[1];
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(buffer -> {
+                        if (oversized[0]) {
+                            return;
+                        }
+                        if (copy.size() + buffer.readableByteCount() > maximumEntrySize) {
+                            oversized[0] = true;
+                            copy.reset();
+                            return;
+                        }
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, bytes.length);
+                        copy.writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        if (!oversized[0] && !fallbackMarker.isMarked()) {
+                            store(key, copy.toByteArray(), cachedHeaders());
+                        }
+                    }));
+        }
+        
+        private HttpHeaders cachedHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            for (String name : List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.VARY)) {
+                List<String> values = getHeaders().get(name);
+                if (values != null) {
+                    headers.put(name, List.copyOf(values));
+                }
+            }
+            return HttpHeaders.readOnlyHttpHeaders(headers);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.covestro.dto;
+
+/**
+ * Outcome of one item of a batch create or update request.
+ */
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    /**
+     * The item failed validation or references an unknown category.
+     */
+    INVALID,
+    /**
+     * No product with the item's material ID exists (update only).
+     */
+    NOT_FOUND,
+    /**
+     * A product with the item's material ID already exists, or the material ID occurs twice in the same batch.
+     */
+    CONFLICT,
+    /**
+     * The item could not be written for another reason; it may be retried.
+     */
+    FAILED
+}
@@ -0,0 +1,21 @@
+package com.covestro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO representing the number of products in one category and their price aggregates per currency.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStatsDTO {
+    private String categoryName;
+    private long count;
+    private List<PriceStatsDTO> prices;
+}
@@ -0,0 +1,21 @@
+package com.covestro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO representing the result of one item of a batch create or update request.
+ * Results are returned in request order; {@code index} is the zero-based position of the item in the request.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResultDTO {
+    private long index;
+    private BatchItemStatus status;
+    private ProductResponseDTO product;
+    private String message;
+}
@@ -1,6 +1,8 @@
 package com.covestro.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -8,9 +10,12 @@ import java.time.LocalDateTime;
 /**
  * DTO representing a product response.
  * This class is used to transfer product information from the server to the client.
+ * The all-args constructor is also the target of the JPQL constructor expression in {@code ProductViewRepository}.
  */
 @Getter
 @Setter
+@NoArgsConstructor
+@AllArgsConstructor
 public class ProductResponseDTO {
     private Long id;
     private String materialId;
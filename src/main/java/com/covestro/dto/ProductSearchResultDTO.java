@@ -0,0 +1,21 @@
+package com.covestro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO representing one page of a product search.
+ * {@code nextCursor} is passed as {@code cursor} to get the next page and is {@code null} on the last page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+    private List<ProductResponseDTO> products;
+    private String nextCursor;
+}
@@ -0,0 +1,25 @@
+package com.covestro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO representing catalog aggregates: product counts per category and price aggregates per category and currency
+ * and per currency. {@code snapshotTime} is when the underlying snapshot was read from the database,
+ * {@code null} if it has not been built yet.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStatsDTO {
+    private long count;
+    private LocalDateTime snapshotTime;
+    private List<CategoryStatsDTO> categories;
+    private List<PriceStatsDTO> currencies;
+}
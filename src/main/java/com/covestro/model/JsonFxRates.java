@@ -0,0 +1,18 @@
+package com.covestro.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Represents an FX rate file from a JSON source.
+ * {@code rates} holds the units of each currency per one unit of the {@code base} currency.
+ */
+@Getter
+@Setter
+public class JsonFxRates {
+    private String base;
+    private Map<String, BigDecimal> rates;
+}
@@ -0,0 +1,109 @@
+package com.covestro.repository;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * {@link ProductStore} backed by the blocking JPA repositories. Every call is moved to the {@link BlockingTaskExecutor},
+ * so each in-flight query holds one platform thread of the bounded elastic pool, or one virtual thread.
+ * List pages are read from the {@code product_view} read model; saves refresh it in the same transaction.
+ */
+@Repository
+@Profile("!r2dbc")
+@RequiredArgsConstructor
+public class JpaProductStore implements ProductStore {
+    private final ProductRepository productRepository;
+    private final ProductViewRepository productViewRepository;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ProductSearchRepository productSearchRepository;
+    private final CurrencyRepository currencyRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingTaskExecutor blockingTaskExecutor;
+    
+    @Override
+    public Mono<Product> findById(Long id) {
+        return asyncBlockingTask(() -> productRepository.findById(id).orElse(null));
+    }
+    
+    @Override
+    public Mono<List<ProductResponseDTO>> findResponsePage(long after, int limit) {
+        return asyncBlockingTask(() -> productViewRepository.findResponsePage(after, Limit.of(limit)));
+    }
+    
+    @Override
+    public Mono<List<ProductResponseDTO>> findChangesPage(LocalDateTime since, long afterId, int limit) {
+        return asyncBlockingTask(() -> productViewRepository.findChangedResponsePage(since, afterId, Limit.of(limit)));
+    }
+    
+    @Override
+    public Mono<List<ProductResponseDTO>> search(ProductSearchCriteria criteria) {
+        return asyncBlockingTask(() -> productSearchRepository.search(criteria));
+    }
+    
+    @Override
+    public Mono<Product> findByMaterialId(String materialId) {
+        return asyncBlockingTask(() -> productRepository.findByMaterialId(materialId).orElse(null));
+    }
+    
+    @Override
+    public Flux<Product> findByMaterialIdIn(Collection<String> materialIds) {
+        return asyncBlockingTask(() -> productRepository.findByMaterialIdIn(materialIds))
+                .flatMapIterable(products -> products);
+    }
+    
+    @Override
+    public Mono<Product> save(Product product) {
+        return asyncBlockingTask(() -> transactionTemplate.execute(status -> {
+            Product saved = productRepository.saveAndFlush(product);
+            productJdbcRepository.refreshView(List.of(saved.getId()));
+            return saved;
+        }));
+    }
+    
+    @Override
+    public Mono<Currency> findOrCreateCurrency(String code) {
+        return asyncBlockingTask(() -> currencyRepository.findByCode(code)
+                .orElseGet(() -> {
+                    Currency newCurrency = new Currency();
+                    newCurrency.setCode(code);
+                    try {
+                        return currencyRepository.save(newCurrency);
+                    } catch (DataIntegrityViolationException e) {
+                        return currencyRepository.findByCode(code).orElseThrow(() -> e);
+                    }
+                }));
+    }
+    
+    @Override
+    public Mono<Category> findCategoryByName(String name) {
+        return asyncBlockingTask(() -> categoryRepository.findByName(name).orElse(null));
+    }
+    
+    /**
+     * Wraps blocking operations in reactive context.
+     *
+     * @param <T> Return type
+     * @param task Supplier of blocking operation
+     * @return Mono executing on the configured blocking scheduler
+     */
+    private <T> Mono<T> asyncBlockingTask(Supplier<T> task) {
+        return blockingTaskExecutor.execute(task);
+    }
+}
@@ -0,0 +1,186 @@
+package com.covestro.repository;
+
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to the {@code products} table for bulk operations where per-entity
+ * persistence through JPA would cost one statement and one round trip per row.
+ * With {@code rewriteBatchedStatements=true} on the MySQL URL each batch is sent as a single multi-row insert.
+ * <p>
+ * Every write also refreshes the affected rows of the denormalized {@code product_view} read model
+ * in the same transaction, with one {@code INSERT ... SELECT} per batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductJdbcRepository {
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO products (material_id, name, price, currency_id, category_id, last_update) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_PRODUCT_SQL =
+            "UPDATE products SET material_id = ?, name = ?, price = ?, currency_id = ?, category_id = ?, last_update = ? WHERE id = ?";
+    private static final String DELETE_PRODUCT_SQL = "DELETE FROM products WHERE id = ?";
+    private static final String REFRESH_VIEW_SQL =
+            "INSERT INTO product_view (id, material_id, name, price, currency_code, category_name, last_update) "
+                    + "SELECT p.id, p.material_id, p.name, p.price, c.code, g.name, p.last_update "
+                    + "FROM products p JOIN currency c ON c.id = p.currency_id JOIN category g ON g.id = p.category_id ";
+    private static final String REFRESH_VIEW_ON_DUPLICATE_SQL =
+            " ON DUPLICATE KEY UPDATE material_id = p.material_id, name = p.name, price = p.price, "
+                    + "currency_code = c.code, category_name = g.name, last_update = p.last_update";
+    private static final String DELETE_VIEW_SQL = "DELETE FROM product_view WHERE id = ?";
+    private static final String SELECT_PRODUCT_ROWS_SQL =
+            "SELECT id, material_id, name, price, currency_id, category_id FROM products";
+    /**
+     * Makes MySQL Connector/J stream the result set row by row instead of buffering it completely.
+     */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Inserts the given products in one JDBC batch within a single transaction.
+     * Currency and category must already be persisted. The entities are not updated with generated IDs.
+     *
+     * @param products Products to insert
+     * @return Number of inserted rows
+     */
+    @Transactional
+    public int batchInsert(List<Product> products) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, products, products.size(), (ps, product) -> {
+            ps.setString(1, product.getMaterialId());
+            ps.setString(2, product.getName());
+            ps.setBigDecimal(3, product.getPrice());
+            ps.setLong(4, product.getCurrency().getId());
+            ps.setLong(5, product.getCategory().getId());
+            ps.setTimestamp(6, product.getLastUpdate() != null ? Timestamp.valueOf(product.getLastUpdate()) : now);
+        });
+        refreshView("p.material_id", products.stream().map(Product::getMaterialId).toList());
+        return products.size();
+    }
+    
+    /**
+     * Updates the given products by ID in one JDBC batch within a single transaction.
+     * Products without a last update time are stamped with the current time.
+     *
+     * @param products Products to update, with ID, currency and category set
+     * @return Number of updated rows
+     */
+    @Transactional
+    public int batchUpdate(List<Product> products) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_PRODUCT_SQL, products, products.size(), (ps, product) -> {
+            ps.setString(1, product.getMaterialId());
+            ps.setString(2, product.getName());
+            ps.setBigDecimal(3, product.getPrice());
+            ps.setLong(4, product.getCurrency().getId());
+            ps.setLong(5, product.getCategory().getId());
+            ps.setTimestamp(6, product.getLastUpdate() != null ? Timestamp.valueOf(product.getLastUpdate()) : now);
+            ps.setLong(7, product.getId());
+        });
+        refreshView("p.id", products.stream().map(Product::getId).toList());
+        return products.size();
+    }
+    
+    /**
+     * Deletes the products with the given IDs in one JDBC batch within a single transaction.
+     *
+     * @param ids Product IDs to delete
+     * @return Number of deleted rows
+     */
+    @Transactional
+    public int batchDelete(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(DELETE_PRODUCT_SQL, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+        jdbcTemplate.batchUpdate(DELETE_VIEW_SQL, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+        return ids.size();
+    }
+    
+    /**
+     * Refreshes the read model rows of the products with the given IDs from the {@code products} table.
+     * Used after products were written through JPA; joins the caller's transaction.
+     *
+     * @param ids Product IDs to refresh
+     */
+    @Transactional
+    public void refreshView(Collection<Long> ids) {
+        refreshView("p.id", ids);
+    }
+    
+    /**
+     * Rebuilds the whole read model from the {@code products} table, e.g. when the schema was created
+     * next to an existing catalog.
+     *
+     * @return Number of rows in the read model
+     */
+    @Transactional
+    public int rebuildView() {
+        jdbcTemplate.update("DELETE FROM product_view");
+        return jdbcTemplate.update(REFRESH_VIEW_SQL);
+    }
+    
+    /**
+     * Checks whether the read model has exactly one row per product.
+     *
+     * @return {@code true} if the row counts of {@code products} and {@code product_view} match
+     */
+    public boolean isViewComplete() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM products) = (SELECT COUNT(*) FROM product_view)", Boolean.class));
+    }
+    
+    /**
+     * Streams all product rows to the given consumer without loading the table into memory.
+     * The products passed on carry only the IDs of their currency and category.
+     *
+     * @param consumer Receives one product per row
+     */
+    public void forEachProduct(Consumer<Product> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_PRODUCT_ROWS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAMING_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Product product = new Product();
+            product.setId(rs.getLong(1));
+            product.setMaterialId(rs.getString(2));
+            product.setName(rs.getString(3));
+            product.setPrice(rs.getBigDecimal(4));
+            product.setCurrency(new Currency(rs.getLong(5), null));
+            product.setCategory(new Category(rs.getLong(6), null));
+            consumer.accept(product);
+        });
+    }
+    
+    private void refreshView(String keyColumn, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(keys.size(), "?"));
+        jdbcTemplate.update(REFRESH_VIEW_SQL + "WHERE " + keyColumn + " IN (" + placeholders + ")"
+                + REFRESH_VIEW_ON_DUPLICATE_SQL, keys.toArray());
+    }
+}
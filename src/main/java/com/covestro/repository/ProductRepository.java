@@ -1,8 +1,19 @@
 package com.covestro.repository;
 
 import com.covestro.repository.entity.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> { }
+public interface ProductRepository extends JpaRepository<Product, Long> {
+    @EntityGraph(attributePaths = {"currency", "category"})
+    Optional<Product> findByMaterialId(String materialId);
+    
+    @EntityGraph(attributePaths = {"currency", "category"})
+    List<Product> findByMaterialIdIn(Collection<String> materialIds);
+}
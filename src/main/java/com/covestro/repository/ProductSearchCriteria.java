@@ -0,0 +1,23 @@
+package com.covestro.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters, sort and keyset position of one product search page. {@code null} filters are not applied.
+ *
+ * @param categoryName Exact category name
+ * @param currencyCode Exact currency code
+ * @param minPrice     Inclusive lower price bound
+ * @param maxPrice     Inclusive upper price bound
+ * @param namePrefix   Case-sensitive prefix of the product name, matched literally
+ * @param sortField    Sort key, ties are broken by ID in the same direction
+ * @param direction    Sort direction
+ * @param after        Position after which the page starts, {@code null} for the first page
+ * @param limit        Maximum number of products in the page
+ */
+public record ProductSearchCriteria(String categoryName, String currencyCode, BigDecimal minPrice,
+                                    BigDecimal maxPrice, String namePrefix, ProductSortField sortField,
+                                    Sort.Direction direction, ProductSearchCursor after, int limit) {
+}
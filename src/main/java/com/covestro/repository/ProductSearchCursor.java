@@ -0,0 +1,57 @@
+package com.covestro.repository;
+
+import com.covestro.dto.ProductResponseDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position of the product search: the sort value and ID of the last product of the previous page.
+ * Handed to clients as an opaque URL-safe string.
+ *
+ * @param sortField Sort key the cursor was created for
+ * @param sortValue Value of the sort key of the last product, {@code null} if it has none
+ * @param id        ID of the last product
+ */
+public record ProductSearchCursor(ProductSortField sortField, Object sortValue, long id) {
+    
+    /**
+     * Creates the cursor pointing after the given product.
+     *
+     * @param sortField Sort key of the search
+     * @param product   Last product of the page
+     * @return Cursor for the next page
+     */
+    public static ProductSearchCursor after(ProductSortField sortField, ProductResponseDTO product) {
+        return new ProductSearchCursor(sortField, sortField.getExtractor().apply(product), product.getId());
+    }
+    
+    /**
+     * Parses a cursor returned by {@link #encode()}.
+     *
+     * @param cursor Encoded cursor
+     * @return The decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static ProductSearchCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            ProductSortField sortField = ProductSortField.valueOf(parts[0]);
+            Object sortValue = parts.length == 2 ? null : sortField.getParser().apply(parts[2]);
+            return new ProductSearchCursor(sortField, sortValue, Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+    
+    /**
+     * Encodes the cursor as {@code sortField:id:sortValue}, or {@code sortField:id} without a sort value, so that a
+     * {@code null} cannot be confused with a name spelled "null".
+     *
+     * @return The encoded cursor
+     */
+    public String encode() {
+        String value = sortField.name() + ":" + id + (sortValue == null ? "" : ":" + sortValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
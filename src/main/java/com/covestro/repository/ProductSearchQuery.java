@@ -0,0 +1,93 @@
+package com.covestro.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL with named parameters for one product search page, shared by the JDBC and the R2DBC data path.
+ * <p>
+ * Filters on category and currency go through the unique names of the joined tables, so MySQL resolves them
+ * to constants and can range-scan {@code idx_products_category_currency_price}; the name prefix is a
+ * range on {@code idx_products_name}. Pages are addressed by keyset on (sort column, ID) and one row more
+ * than the limit is read to tell whether a next page exists. Rows without a sort value are ordered as MySQL sorts
+ * {@code NULL}: first when ascending, last when descending; the keyset predicate places them there explicitly, since
+ * comparisons with {@code NULL} never match.
+ */
+record ProductSearchQuery(String sql, Map<String, Object> parameters) {
+    private static final String SELECT_SQL =
+            "SELECT p.id, p.material_id, p.name, p.price, c.code AS currency_code, g.name AS category_name, "
+                    + "p.last_update FROM products p "
+                    + "JOIN currency c ON c.id = p.currency_id JOIN category g ON g.id = p.category_id WHERE 1 = 1";
+    
+    static ProductSearchQuery from(ProductSearchCriteria criteria) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        Map<String, Object> parameters = new HashMap<>();
+        if (criteria.categoryName() != null) {
+            sql.append(" AND g.name = :categoryName");
+            parameters.put("categoryName", criteria.categoryName());
+        }
+        if (criteria.currencyCode() != null) {
+            sql.append(" AND c.code = :currencyCode");
+            parameters.put("currencyCode", criteria.currencyCode());
+        }
+        if (criteria.minPrice() != null) {
+            sql.append(" AND p.price >= :minPrice");
+            parameters.put("minPrice", criteria.minPrice());
+        }
+        if (criteria.maxPrice() != null) {
+            sql.append(" AND p.price <= :maxPrice");
+            parameters.put("maxPrice", criteria.maxPrice());
+        }
+        if (criteria.namePrefix() != null) {
+            sql.append(" AND p.name LIKE :namePrefix");
+            parameters.put("namePrefix", escapeLike(criteria.namePrefix()) + "%");
+        }
+        String column = criteria.sortField().getColumn();
+        String operator = criteria.direction().isAscending() ? ">" : "<";
+        if (criteria.after() != null) {
+            if (criteria.sortField() == ProductSortField.ID) {
+                sql.append(" AND p.id ").append(operator).append(" :afterId");
+            } else {
+                appendKeyset(sql, column, operator, criteria.direction().isAscending(), criteria.after().sortValue());
+                if (criteria.after().sortValue() != null) {
+                    parameters.put("afterValue", criteria.after().sortValue());
+                }
+            }
+            parameters.put("afterId", criteria.after().id());
+        }
+        String direction = criteria.direction().name();
+        sql.append(" ORDER BY ");
+        if (criteria.sortField() != ProductSortField.ID) {
+            sql.append(column).append(' ').append(direction).append(", ");
+        }
+        sql.append("p.id ").append(direction).append(" LIMIT :limit");
+        parameters.put("limit", criteria.limit() + 1);
+        return new ProductSearchQuery(sql.toString(), parameters);
+    }
+    
+    /**
+     * Appends the rows after {@code (afterValue, afterId)} in sort order, with {@code NULL} before every value when
+     * ascending and after every value when descending.
+     */
+    private static void appendKeyset(StringBuilder sql, String column, String operator, boolean ascending,
+                                     Object afterValue) {
+        if (afterValue == null) {
+            sql.append(" AND (").append(column).append(" IS NULL AND p.id ").append(operator).append(" :afterId");
+            if (ascending) {
+                sql.append(" OR ").append(column).append(" IS NOT NULL");
+            }
+            sql.append(')');
+            return;
+        }
+        sql.append(" AND (").append(column).append(' ').append(operator).append(" :afterValue OR (")
+                .append(column).append(" = :afterValue AND p.id ").append(operator).append(" :afterId)");
+        if (!ascending) {
+            sql.append(" OR ").append(column).append(" IS NULL");
+        }
+        sql.append(')');
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
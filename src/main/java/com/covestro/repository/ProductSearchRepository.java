@@ -0,0 +1,34 @@
+package com.covestro.repository;
+
+import com.covestro.dto.ProductResponseDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC execution of the product search, mapping rows straight to response DTOs.
+ *
+ * @see ProductSearchQuery
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductSearchRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    /**
+     * Reads one search page.
+     *
+     * @param criteria Filters, sort and keyset position
+     * @return At most {@code limit + 1} products; the extra one only signals that a next page exists
+     */
+    public List<ProductResponseDTO> search(ProductSearchCriteria criteria) {
+        ProductSearchQuery query = ProductSearchQuery.from(criteria);
+        return jdbcTemplate.query(query.sql(), query.parameters(), (rs, rowNum) -> new ProductResponseDTO(
+                rs.getLong("id"), rs.getString("material_id"), rs.getString("name"), rs.getBigDecimal("price"),
+                rs.getString("currency_code"), rs.getString("category_name"),
+                rs.getObject("last_update", LocalDateTime.class)));
+    }
+}
@@ -0,0 +1,27 @@
+package com.covestro.repository;
+
+import com.covestro.dto.ProductResponseDTO;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sort keys of the product search. Every sort is made unique by the product ID as tie-breaker,
+ * which is what allows keyset pagination on non-unique columns.
+ */
+@Getter(AccessLevel.PACKAGE)
+@RequiredArgsConstructor
+public enum ProductSortField {
+    ID("p.id", Long::valueOf, ProductResponseDTO::getId),
+    PRICE("p.price", BigDecimal::new, ProductResponseDTO::getPrice),
+    NAME("p.name", value -> value, ProductResponseDTO::getName),
+    LAST_UPDATE("p.last_update", LocalDateTime::parse, ProductResponseDTO::getLastUpdate);
+    
+    private final String column;
+    private final Function<String, Object> parser;
+    private final Function<ProductResponseDTO, Object> extractor;
+}
@@ -0,0 +1,74 @@
+package com.covestro.repository;
+
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reactive data access for the request path of {@code ProductService}.
+ * <p>
+ * {@link JpaProductStore} is the default and runs the JPA repositories on a blocking scheduler.
+ * {@link R2dbcProductStore} is active with the {@code r2dbc} profile and talks to MySQL without blocking a thread
+ * per query. Products are always returned with currency and category populated.
+ */
+public interface ProductStore {
+    
+    Mono<Product> findById(Long id);
+    
+    /**
+     * Reads one keyset page of products ordered by ID as flat response DTOs, in a single joined query.
+     *
+     * @param after ID after which the page starts
+     * @param limit Maximum number of products
+     * @return Mono containing the page, empty list if there are no more products
+     */
+    Mono<List<ProductResponseDTO>> findResponsePage(long after, int limit);
+    
+    /**
+     * Reads one keyset page of the products changed at or after a point in time as flat response DTOs,
+     * ordered by last update and ID.
+     *
+     * @param since   Last update at which the page starts
+     * @param afterId ID after which the page starts among the products last updated at {@code since}
+     * @param limit   Maximum number of products
+     * @return Mono containing the page, empty list if there are no more changes
+     */
+    Mono<List<ProductResponseDTO>> findChangesPage(LocalDateTime since, long afterId, int limit);
+    
+    /**
+     * Reads one page of the filtered and sorted product search.
+     *
+     * @param criteria Filters, sort and keyset position
+     * @return Mono containing at most {@code limit + 1} products; the extra one only signals a next page
+     */
+    Mono<List<ProductResponseDTO>> search(ProductSearchCriteria criteria);
+    
+    Mono<Product> findByMaterialId(String materialId);
+    
+    Flux<Product> findByMaterialIdIn(Collection<String> materialIds);
+    
+    /**
+     * Inserts a product without ID or updates the product with the given ID.
+     *
+     * @param product Product with currency and category persisted
+     * @return Mono containing the saved product with its ID set
+     */
+    Mono<Product> save(Product product);
+    
+    /**
+     * Finds a currency by code, creating it if it does not exist. Tolerates concurrent creation of the same code.
+     *
+     * @param code Currency code
+     * @return Mono containing the existing or newly created currency
+     */
+    Mono<Currency> findOrCreateCurrency(String code);
+    
+    Mono<Category> findCategoryByName(String name);
+}
@@ -0,0 +1,46 @@
+package com.covestro.repository;
+
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.repository.entity.ProductView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductViewRepository extends JpaRepository<ProductView, Long> {
+    
+    /**
+     * Reads one keyset page of the product read model as response DTOs. A single statement on one table,
+     * in a read-only transaction and without managed entities, so there is no hydration or dirty checking.
+     *
+     * @param after ID after which the page starts
+     * @param limit Maximum number of products
+     * @return The page ordered by ID
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.covestro.dto.ProductResponseDTO(v.id, v.materialId, v.name, v.price, v.currencyCode, "
+            + "v.categoryName, v.lastUpdate) FROM ProductView v WHERE v.id > :after ORDER BY v.id")
+    List<ProductResponseDTO> findResponsePage(@Param("after") Long after, Limit limit);
+    
+    /**
+     * Reads one keyset page of the products changed at or after a point in time, as response DTOs.
+     * A range scan on {@code idx_product_view_last_update_id}.
+     *
+     * @param since   Last update of the previous page's last product, or the start of the feed
+     * @param afterId ID of the previous page's last product, 0 for the first page
+     * @param limit   Maximum number of products
+     * @return The page ordered by last update and ID
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.covestro.dto.ProductResponseDTO(v.id, v.materialId, v.name, v.price, v.currencyCode, "
+            + "v.categoryName, v.lastUpdate) FROM ProductView v "
+            + "WHERE v.lastUpdate > :since OR (v.lastUpdate = :since AND v.id > :afterId) ORDER BY v.lastUpdate, v.id")
+    List<ProductResponseDTO> findChangedResponsePage(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                                                     Limit limit);
+}
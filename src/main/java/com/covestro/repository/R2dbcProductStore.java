@@ -0,0 +1,210 @@
+package com.covestro.repository;
+
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ProductStore} on the non-blocking R2DBC MySQL driver, active with the {@code r2dbc} profile.
+ * Queries run on the driver's event loop, so in-flight queries are bounded by the connection pool
+ * and not by a thread pool. Products are read with currency and category in one joined statement,
+ * list pages from the {@code product_view} read model, which is refreshed in the same transaction as every save.
+ */
+@Repository
+@Profile("r2dbc")
+@RequiredArgsConstructor
+public class R2dbcProductStore implements ProductStore {
+    private static final String SELECT_PRODUCTS_SQL =
+            "SELECT p.id, p.material_id, p.name, p.price, p.last_update, c.id AS currency_id, c.code AS currency_code, "
+                    + "g.id AS category_id, g.name AS category_name "
+                    + "FROM products p JOIN currency c ON c.id = p.currency_id JOIN category g ON g.id = p.category_id ";
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO products (material_id, name, price, currency_id, category_id, last_update) "
+                    + "VALUES (:materialId, :name, :price, :currencyId, :categoryId, :lastUpdate)";
+    private static final String UPDATE_PRODUCT_SQL =
+            "UPDATE products SET material_id = :materialId, name = :name, price = :price, currency_id = :currencyId, "
+                    + "category_id = :categoryId, last_update = :lastUpdate WHERE id = :id";
+    
+    private static final String SELECT_VIEW_SQL =
+            "SELECT id, material_id, name, price, currency_code, category_name, last_update FROM product_view ";
+    private static final String REFRESH_VIEW_SQL =
+            "INSERT INTO product_view (id, material_id, name, price, currency_code, category_name, last_update) "
+                    + "SELECT p.id, p.material_id, p.name, p.price, c.code, g.name, p.last_update "
+                    + "FROM products p JOIN currency c ON c.id = p.currency_id JOIN category g ON g.id = p.category_id "
+                    + "WHERE p.id = :id ON DUPLICATE KEY UPDATE material_id = p.material_id, name = p.name, "
+                    + "price = p.price, currency_code = c.code, category_name = g.name, last_update = p.last_update";
+    
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    
+    @Override
+    public Mono<Product> findById(Long id) {
+        return databaseClient.sql(SELECT_PRODUCTS_SQL + "WHERE p.id = :id")
+                .bind("id", id)
+                .map(this::toProduct)
+                .one();
+    }
+    
+    @Override
+    public Mono<List<ProductResponseDTO>> findResponsePage(long after, int limit) {
+        return databaseClient.sql(SELECT_VIEW_SQL + "WHERE id > :after ORDER BY id LIMIT :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(this::toResponse)
+                .all()
+                .collectList();
+    }
+    
+    @Override
+    public Mono<List<ProductResponseDTO>> findChangesPage(LocalDateTime since, long afterId, int limit) {
+        return databaseClient.sql(SELECT_VIEW_SQL + "WHERE last_update > :since OR (last_update = :since AND id > :afterId) "
+                        + "ORDER BY last_update, id LIMIT :limit")
+                .bind("since", since)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(this::toResponse)
+                .all()
+                .collectList();
+    }
+    
+    @Override
+    public Mono<List<ProductResponseDTO>> search(ProductSearchCriteria criteria) {
+        ProductSearchQuery query = ProductSearchQuery.from(criteria);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(query.sql());
+        for (Map.Entry<String, Object> parameter : query.parameters().entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map(this::toResponse)
+                .all()
+                .collectList();
+    }
+    
+    @Override
+    public Mono<Product> findByMaterialId(String materialId) {
+        return databaseClient.sql(SELECT_PRODUCTS_SQL + "WHERE p.material_id = :materialId")
+                .bind("materialId", materialId)
+                .map(this::toProduct)
+                .one();
+    }
+    
+    @Override
+    public Flux<Product> findByMaterialIdIn(Collection<String> materialIds) {
+        if (materialIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(SELECT_PRODUCTS_SQL + "WHERE p.material_id IN (:materialIds)")
+                .bind("materialIds", materialIds)
+                .map(this::toProduct)
+                .all();
+    }
+    
+    /**
+     * Writes the product and its {@code product_view} row in one transaction, so a failed refresh rolls the
+     * write back instead of leaving the read model behind.
+     */
+    @Override
+    public Mono<Product> save(Product product) {
+        return Mono.defer(() -> write(product)).as(transactionalOperator::transactional);
+    }
+    
+    private Mono<Product> write(Product product) {
+        if (product.getLastUpdate() == null) {
+            product.setLastUpdate(LocalDateTime.now());
+        }
+        if (product.getId() == null) {
+            return bindProduct(databaseClient.sql(INSERT_PRODUCT_SQL), product)
+                    .filter(statement -> statement.returnGeneratedValues("id"))
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .flatMap(id -> {
+                        product.setId(id);
+                        return refreshView(product);
+                    });
+        }
+        return bindProduct(databaseClient.sql(UPDATE_PRODUCT_SQL), product)
+                .bind("id", product.getId())
+                .fetch()
+                .rowsUpdated()
+                .then(refreshView(product));
+    }
+    
+    @Override
+    public Mono<Currency> findOrCreateCurrency(String code) {
+        return findCurrencyByCode(code)
+                .switchIfEmpty(Mono.defer(() -> databaseClient.sql("INSERT INTO currency (code) VALUES (:code)")
+                        .bind("code", code)
+                        .filter(statement -> statement.returnGeneratedValues("id"))
+                        .map(row -> new Currency(row.get(0, Long.class), code))
+                        .one()))
+                // created concurrently by another request, the unique code makes this safe to re-read
+                .onErrorResume(DataIntegrityViolationException.class, e -> findCurrencyByCode(code));
+    }
+    
+    @Override
+    public Mono<Category> findCategoryByName(String name) {
+        return databaseClient.sql("SELECT id, name FROM category WHERE name = :name")
+                .bind("name", name)
+                .map(row -> new Category(row.get("id", Long.class), row.get("name", String.class)))
+                .one();
+    }
+    
+    private Mono<Currency> findCurrencyByCode(String code) {
+        return databaseClient.sql("SELECT id, code FROM currency WHERE code = :code")
+                .bind("code", code)
+                .map(row -> new Currency(row.get("id", Long.class), row.get("code", String.class)))
+                .one();
+    }
+    
+    private Mono<Product> refreshView(Product product) {
+        return databaseClient.sql(REFRESH_VIEW_SQL)
+                .bind("id", product.getId())
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(product);
+    }
+    
+    private DatabaseClient.GenericExecuteSpec bindProduct(DatabaseClient.GenericExecuteSpec spec, Product product) {
+        return spec.bind("materialId", product.getMaterialId())
+                .bind("name", product.getName())
+                .bind("price", product.getPrice())
+                .bind("currencyId", product.getCurrency().getId())
+                .bind("categoryId", product.getCategory().getId())
+                .bind("lastUpdate", product.getLastUpdate());
+    }
+    
+    private Product toProduct(Row row, RowMetadata metadata) {
+        Product product = new Product();
+        product.setId(row.get("id", Long.class));
+        product.setMaterialId(row.get("material_id", String.class));
+        product.setName(row.get("name", String.class));
+        product.setPrice(row.get("price", BigDecimal.class));
+        product.setLastUpdate(row.get("last_update", LocalDateTime.class));
+        product.setCurrency(new Currency(row.get("currency_id", Long.class), row.get("currency_code", String.class)));
+        product.setCategory(new Category(row.get("category_id", Long.class), row.get("category_name", String.class)));
+        return product;
+    }
+    
+    private ProductResponseDTO toResponse(Row row, RowMetadata metadata) {
+        return new ProductResponseDTO(row.get("id", Long.class), row.get("material_id", String.class),
+                row.get("name", String.class), row.get("price", BigDecimal.class),
+                row.get("currency_code", String.class), row.get("category_name", String.class),
+                row.get("last_update", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,112 @@
+package com.covestro.repository;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the calls of the repositories that Spring Data's {@code spring.data.repository.invocations} does not see, the
+ * plain JDBC {@link ProductJdbcRepository} and {@link ProductSearchRepository} and the {@link R2dbcProductStore}, as
+ * {@code product.repository.invocations}, a timer with a percentile histogram tagged {@code repository},
+ * {@code method}, {@code outcome} ({@code success}, {@code error} or, for R2DBC, {@code cancelled}) and
+ * {@code exception}.
+ * <p>
+ * JDBC calls are timed while they block; R2DBC calls from subscription to termination. Calls a repository makes to its
+ * own methods are not timed separately.
+ */
+@Aspect
+@Component
+public class RepositoryMetrics {
+    static final String METER_NAME = "product.repository.invocations";
+    
+    private final Meter.MeterProvider<Timer> timers;
+    
+    public RepositoryMetrics(MeterRegistry meterRegistry) {
+        this.timers = Timer.builder(METER_NAME)
+                .description("Time of calls to the JDBC and R2DBC product repositories")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+    
+    @Around("execution(public * com.covestro.repository.ProductJdbcRepository.*(..))"
+            + " || execution(public * com.covestro.repository.ProductSearchRepository.*(..))")
+    public Object timeJdbc(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            record(repository, method, "success", null, start);
+            return result;
+        } catch (Throwable e) {
+            record(repository, method, "error", e, start);
+            throw e;
+        }
+    }
+    
+    @Around("execution(public reactor.core.publisher.Mono com.covestro.repository.R2dbcProductStore.*(..))")
+    public Object timeR2dbcMono(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(R2dbcProductStore.class.getSimpleName(), joinPoint.getSignature().getName(),
+                (Mono<?>) joinPoint.proceed());
+    }
+    
+    @Around("execution(public reactor.core.publisher.Flux com.covestro.repository.R2dbcProductStore.*(..))")
+    public Object timeR2dbcFlux(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(R2dbcProductStore.class.getSimpleName(), joinPoint.getSignature().getName(),
+                (Flux<?>) joinPoint.proceed());
+    }
+    
+    <T> Mono<T> time(String repository, String method, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Call call = new Call();
+            return mono
+                    .doOnError(call::failed)
+                    .doFinally(signal -> record(repository, method, call, signal));
+        });
+    }
+    
+    <T> Flux<T> time(String repository, String method, Flux<T> flux) {
+        return Flux.defer(() -> {
+            Call call = new Call();
+            return flux
+                    .doOnError(call::failed)
+                    .doFinally(signal -> record(repository, method, call, signal));
+        });
+    }
+    
+    private void record(String repository, String method, Call call, SignalType signal) {
+        String outcome = switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "success";
+        };
+        record(repository, method, outcome, call.error, call.start);
+    }
+    
+    private void record(String repository, String method, String outcome, Throwable error, long start) {
+        timers.withTags("repository", repository, "method", method, "outcome", outcome,
+                        "exception", error == null ? "none" : error.getClass().getSimpleName())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * State of one subscription to a timed R2DBC call.
+     */
+    private static final class Call {
+        private final long start = System.nanoTime();
+        private volatile Throwable error;
+    
+        private void failed(Throwable error) {
+            this.error = error;
+        }
+    }
+}
@@ -12,7 +12,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products",
+        uniqueConstraints = @UniqueConstraint(name = "uk_products_material_id", columnNames = "material_id"),
+        indexes = {
+                @Index(name = "idx_products_category_currency_price", columnList = "category_id, currency_id, price"),
+                @Index(name = "idx_products_name", columnList = "name")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,7 +27,6 @@ public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @Column(unique = true)
     private String materialId;
     private String name;
     private BigDecimal price;
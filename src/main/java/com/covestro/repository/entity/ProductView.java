@@ -0,0 +1,37 @@
+package com.covestro.repository.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized read model of a product with currency code and category name inlined, keyed by the product ID.
+ * Rows are written only by {@code ProductJdbcRepository}, in the same transaction as the product rows.
+ * The index on (last update, ID) serves the change feed.
+ */
+@Entity
+@Table(name = "product_view",
+        indexes = @Index(name = "idx_product_view_last_update_id", columnList = "last_update, id"))
+@Immutable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ProductView {
+    @Id
+    private Long id;
+    private String materialId;
+    private String name;
+    private BigDecimal price;
+    private String currencyCode;
+    private String categoryName;
+    private LocalDateTime lastUpdate;
+}
@@ -0,0 +1,65 @@
+package com.covestro.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Monotonically increasing version of the product catalog, the validator behind the {@code ETag} header of the
+ * product read endpoints.
+ * <p>
+ * Every write through {@link ProductService} or {@link ProductBatchService} bumps the version after the database
+ * write and the cache updates, and readers take the {@link #current()} stamp before they read. A response can
+ * therefore carry an older stamp than its data, which only costs the client one more full response, but never a
+ * newer one, which would let it keep stale data. Conditional requests are answered by comparing stamps alone,
+ * without touching the database.
+ * <p>
+ * No {@code Last-Modified} is derived from it: HTTP dates have a resolution of one second, so a client revalidating
+ * with {@code If-Modified-Since} would get 304 for data changed later within the same second.
+ * <p>
+ * The version starts at the startup time in milliseconds so that it keeps growing across restarts, and it is bumped
+ * once more when the application is ready to cover the writes of {@link com.covestro.config.ProductLoader}.
+ * Writes made to the database by other service instances are not seen.
+ */
+@Component
+public class CatalogVersion {
+    
+    private final AtomicReference<Stamp> current;
+    
+    public CatalogVersion() {
+        current = new AtomicReference<>(new Stamp(System.currentTimeMillis()));
+    }
+    
+    /**
+     * Returns the stamp of the catalog as it is now. Take it before reading the data it validates.
+     *
+     * @return Current version
+     */
+    public Stamp current() {
+        return current.get();
+    }
+    
+    /**
+     * Records a write to the catalog. Call it after the write is visible to readers.
+     *
+     * @return The new stamp
+     */
+    public Stamp bump() {
+        return current.updateAndGet(stamp -> new Stamp(stamp.version() + 1));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        bump();
+    }
+    
+    /**
+     * One version of the catalog.
+     *
+     * @param version Strictly increasing version number
+     */
+    public record Stamp(long version) {
+    }
+}
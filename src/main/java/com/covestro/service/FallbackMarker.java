@@ -0,0 +1,64 @@
+package com.covestro.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Tells a caller that a {@link ProductService} operation was answered by a circuit breaker fallback, so an empty or
+ * truncated answer can be told apart from a complete one.
+ * <p>
+ * The caller puts a marker into the Reactor context of its subscription with {@link #watch(Context)}; the fallbacks
+ * of {@link ProductService} mark the marker they find in their context and every marker it was nested in, e.g. the
+ * one of a response filter around the one of the controller.
+ */
+public final class FallbackMarker {
+    private volatile boolean marked;
+    private volatile FallbackMarker outer;
+    
+    /**
+     * @param context Context of the subscription to watch
+     * @return The context with this marker, nested in the marker the context already had
+     */
+    public Context watch(Context context) {
+        outer = context.getOrDefault(FallbackMarker.class, null);
+        return context.put(FallbackMarker.class, this);
+    }
+    
+    /**
+     * @return {@code true} if a fallback ran in a subscription that carries this marker
+     */
+    public boolean isMarked() {
+        return marked;
+    }
+    
+    /**
+     * Marks the marker in the context of the subscription to the returned Mono, if there is one.
+     *
+     * @param result The fallback result
+     */
+    public static <T> Mono<T> mark(Mono<T> result) {
+        return Mono.deferContextual(context -> {
+            context.<FallbackMarker>getOrEmpty(FallbackMarker.class).ifPresent(FallbackMarker::markAll);
+            return result;
+        });
+    }
+    
+    /**
+     * Marks the marker in the context of the subscription to the returned Flux, if there is one.
+     *
+     * @param result The fallback result
+     */
+    public static <T> Flux<T> mark(Flux<T> result) {
+        return Flux.deferContextual(context -> {
+            context.<FallbackMarker>getOrEmpty(FallbackMarker.class).ifPresent(FallbackMarker::markAll);
+            return result;
+        });
+    }
+    
+    private void markAll() {
+        for (FallbackMarker marker = this; marker != null; marker = marker.outer) {
+            marker.marked = true;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.covestro.service;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.FxRateProperties;
+import com.covestro.model.JsonFxRates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory table of FX rates used to convert product prices into a requested {@code targetCurrency}.
+ * <p>
+ * The rates are read from the file at {@link FxRateProperties#getLocation()} into an immutable snapshot holding one
+ * {@link PriceConverter} per target currency, with all cross rates precomputed. A refresh builds a new snapshot and
+ * swaps it in atomically, so a request converts all its products with the same rates. The file is read once the
+ * application is ready and again in the background when the snapshot is older than
+ * {@link FxRateProperties#getRefreshInterval()} on access. A file that cannot be read keeps the previous rates. The
+ * version of the rates, which converted responses are validated with, is derived from the file content, so
+ * re-reading an unchanged file does not invalidate them.
+ */
+@Component
+@Slf4j
+public class FxRateTable {
+    /**
+     * Precision of the precomputed cross rates. Ten significant digits are well beyond quoted FX precision and keep
+     * the product of a rate and a price below about 90 million in the compact {@code long} arithmetic of
+     * {@link BigDecimal}; longer rates would push every conversion onto {@link java.math.BigInteger}.
+     */
+    private static final MathContext RATE_PRECISION = new MathContext(10, RoundingMode.HALF_EVEN);
+    
+    /**
+     * Scale of converted prices in currencies unknown to {@link java.util.Currency}.
+     */
+    private static final int DEFAULT_SCALE = 2;
+    
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final BlockingTaskExecutor blockingTaskExecutor;
+    private final FxRateProperties properties;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    
+    public FxRateTable(ResourceLoader resourceLoader,
+                       ObjectMapper objectMapper,
+                       BlockingTaskExecutor blockingTaskExecutor,
+                       FxRateProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.blockingTaskExecutor = blockingTaskExecutor;
+        this.properties = properties;
+        Gauge.builder("fx.rates.size", this, table -> table.snapshot.converters.size())
+                .description("Currencies in the FX rate table")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Reads the rate file and swaps in the new rates.
+     *
+     * @throws UncheckedIOException If the file cannot be read
+     * @throws IllegalArgumentException If the file has no base currency or a rate that is not positive
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        Resource resource = resourceLoader.getResource(properties.getLocation());
+        try (InputStream inputStream = resource.getInputStream()) {
+            JsonFxRates rates = objectMapper.readValue(inputStream, JsonFxRates.class);
+            snapshot = Snapshot.of(rates, System.nanoTime());
+            log.info("FX rates loaded for {} currencies with base {}", snapshot.converters.size(), rates.getBase());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading FX rates from " + properties.getLocation(), e);
+        }
+    }
+    
+    /**
+     * Returns the converter into the given currency from the current snapshot.
+     * Triggers a background reload if the snapshot is older than the refresh interval.
+     *
+     * @param targetCurrency Currency code, case-insensitive
+     * @return Converter into the target currency
+     * @throws IllegalArgumentException If there is no rate for the target currency
+     */
+    public PriceConverter converter(String targetCurrency) {
+        Snapshot current = snapshot;
+        refreshIfStale(current);
+        PriceConverter converter = current.converters.get(targetCurrency.trim().toUpperCase(Locale.ROOT));
+        if (converter == null) {
+            throw new IllegalArgumentException("No FX rate for target currency: " + targetCurrency);
+        }
+        return converter;
+    }
+    
+    private void refreshIfStale(Snapshot current) {
+        Duration refreshInterval = properties.getRefreshInterval();
+        boolean stale = current == Snapshot.EMPTY || System.nanoTime() - current.loadedAt > refreshInterval.toNanos();
+        if (!stale || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        blockingTaskExecutor.execute(() -> {
+                    reload();
+                    return true;
+                })
+                .doFinally(signal -> refreshing.set(false))
+                .subscribe(reloaded -> { }, e -> log.error("Error refreshing FX rates", e));
+    }
+    
+    private static int scale(String currencyCode) {
+        try {
+            int digits = java.util.Currency.getInstance(currencyCode).getDefaultFractionDigits();
+            return digits < 0 ? DEFAULT_SCALE : digits;
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_SCALE;
+        }
+    }
+    
+    /**
+     * The converters into every currency of one rate file.
+     */
+    private record Snapshot(Map<String, PriceConverter> converters, long loadedAt) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), 0);
+        
+        static Snapshot of(JsonFxRates file, long loadedAt) {
+            Map<String, BigDecimal> perBase = validRates(file);
+            long version = version(file.getBase(), perBase);
+            Map<String, PriceConverter> converters = new HashMap<>();
+            perBase.forEach((target, targetRate) -> {
+                Map<String, BigDecimal> crossRates = new HashMap<>();
+                perBase.forEach((source, sourceRate) -> crossRates.put(source, targetRate.divide(sourceRate, RATE_PRECISION)));
+                converters.put(target, new PriceConverter(target, version, Map.copyOf(crossRates), scale(target)));
+            });
+            return new Snapshot(Map.copyOf(converters), loadedAt);
+        }
+        
+        private static Map<String, BigDecimal> validRates(JsonFxRates file) {
+            if (file.getBase() == null || file.getRates() == null) {
+                throw new IllegalArgumentException("FX rate file needs a base currency and rates");
+            }
+            Map<String, BigDecimal> perBase = new HashMap<>(file.getRates());
+            perBase.putIfAbsent(file.getBase(), BigDecimal.ONE);
+            perBase.forEach((code, rate) -> {
+                if (rate == null || rate.signum() <= 0) {
+                    throw new IllegalArgumentException("FX rate must be positive: " + code);
+                }
+            });
+            return perBase;
+        }
+        
+        /**
+         * Derives the version of the rates from their content, so that it stays the same across reloads of an
+         * unchanged file, restarts and service instances: the first 63 bits of the SHA-256 of the base currency and
+         * the rates in code order, without trailing zeros.
+         */
+        private static long version(String base, Map<String, BigDecimal> perBase) {
+            StringBuilder content = new StringBuilder(base);
+            new TreeMap<>(perBase).forEach((code, rate) ->
+                    content.append(';').append(code).append('=').append(rate.stripTrailingZeros().toPlainString()));
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+                return ByteBuffer.wrap(hash).getLong() & Long.MAX_VALUE;
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.covestro.service;
+
+import com.covestro.dto.ProductResponseDTO;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Converts product prices into one target currency with the rates of one {@link FxRateTable} snapshot.
+ * <p>
+ * The cross rate from every known currency and the scale of the target currency are computed once per snapshot,
+ * so a conversion is one map lookup, one multiplication and one rounding. Rates are kept without trailing zeros to keep
+ * the product small; prices already in the target currency are not multiplied, and results already at the target
+ * scale are not rounded. Instances are immutable and thread-safe.
+ */
+public final class PriceConverter {
+    private static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+    
+    @Getter
+    private final String targetCurrency;
+    /**
+     * Identifies the rates the converter uses. Derived from the rate file, so it only changes with the rates.
+     */
+    @Getter
+    private final long ratesVersion;
+    private final Map<String, BigDecimal> rates;
+    private final int scale;
+    
+    PriceConverter(String targetCurrency, long ratesVersion, Map<String, BigDecimal> rates, int scale) {
+        this.targetCurrency = targetCurrency;
+        this.ratesVersion = ratesVersion;
+        this.rates = rates.entrySet().stream().collect(Collectors.toUnmodifiableMap(Map.Entry::getKey,
+                entry -> entry.getValue().compareTo(BigDecimal.ONE) == 0 ? BigDecimal.ONE : entry.getValue().stripTrailingZeros()));
+        this.scale = scale;
+    }
+    
+    /**
+     * Replaces the price and currency code of the DTO with the converted ones, rounded to the minor unit of the target
+     * currency. Products in a currency without a rate, or without a price, are left unchanged.
+     *
+     * @param product Product DTO, modified in place
+     * @return The same DTO
+     */
+    public ProductResponseDTO convert(ProductResponseDTO product) {
+        BigDecimal rate = product.getCurrencyCode() == null ? null : rates.get(product.getCurrencyCode());
+        if (rate != null && product.getPrice() != null) {
+            BigDecimal price = rate == BigDecimal.ONE ? product.getPrice() : product.getPrice().multiply(rate);
+            product.setPrice(price.scale() == scale ? price : price.setScale(scale, ROUNDING));
+            product.setCurrencyCode(targetCurrency);
+        }
+        return product;
+    }
+}
@@ -0,0 +1,282 @@
+package com.covestro.service;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.dto.BatchItemStatus;
+import com.covestro.dto.ProductRequestDTO;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.ProductRepository;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Product;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class handling bulk creation and update of products.
+ * <p>
+ * Requests are consumed as a stream and processed in chunks of {@value #WRITE_BATCH_SIZE} items: every item is
+ * validated, currencies and categories are resolved through {@link ReferenceDataCache}, existing material IDs are
+ * looked up with one {@code IN} query and all rows are written in one JDBC batch. A failing batch is retried row by
+ * row so that a single bad item does not fail the chunk. Every item yields exactly one result, in request order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBatchService {
+    
+    /**
+     * Items validated, looked up and written per JDBC batch.
+     */
+    public static final int WRITE_BATCH_SIZE = 500;
+    
+    private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final ProductCache productCache;
+    private final ProductNameIndex productNameIndex;
+    private final CatalogVersion catalogVersion;
+    private final ProductChangeFeed productChangeFeed;
+    private final Validator validator;
+    private final BlockingTaskExecutor blockingTaskExecutor;
+    
+    /**
+     * Creates products in JDBC batches. Items whose material ID already exists are rejected as conflicts.
+     *
+     * @param requests Stream of product creation DTOs
+     * @return Flux of one result per request item, in request order
+     */
+    public Flux<ItemResult> createProducts(Flux<ProductRequestDTO> requests) {
+        log.debug("Creating products in batches of {}", WRITE_BATCH_SIZE);
+        return writeInBatches(requests, this::createBatch);
+    }
+    
+    /**
+     * Updates the products identified by the material IDs of the items in JDBC batches.
+     *
+     * @param requests Stream of product update DTOs
+     * @return Flux of one result per request item, in request order
+     */
+    public Flux<ItemResult> updateProducts(Flux<ProductRequestDTO> requests) {
+        log.debug("Updating products in batches of {}", WRITE_BATCH_SIZE);
+        return writeInBatches(requests, this::updateBatch);
+    }
+    
+    private Flux<ItemResult> writeInBatches(Flux<ProductRequestDTO> requests,
+                                            Function<List<BatchItem>, ItemResult[]> batchWriter) {
+        return requests.index(BatchItem::new)
+                .buffer(WRITE_BATCH_SIZE)
+                .concatMap(batch -> blockingTaskExecutor.execute(() -> writeBatch(batch, batchWriter))
+                        .flatMapIterable(Arrays::asList));
+    }
+    
+    private ItemResult[] writeBatch(List<BatchItem> batch, Function<List<BatchItem>, ItemResult[]> batchWriter) {
+        try {
+            return batchWriter.apply(batch);
+        } catch (RuntimeException e) {
+            log.error("Error writing product batch of size {}", batch.size(), e);
+            return batch.stream()
+                    .map(item -> ItemResult.of(item.index(), BatchItemStatus.FAILED, e.getMessage()))
+                    .toArray(ItemResult[]::new);
+        }
+    }
+    
+    private ItemResult[] createBatch(List<BatchItem> batch) {
+        ItemResult[] results = new ItemResult[batch.size()];
+        List<PendingWrite> pending = resolve(batch, results);
+        Set<String> existing = findByMaterialIds(pending).keySet();
+        List<PendingWrite> inserts = new ArrayList<>(pending.size());
+        for (PendingWrite write : pending) {
+            if (existing.contains(write.product().getMaterialId())) {
+                results[write.position()] = ItemResult.of(write.index(), BatchItemStatus.CONFLICT,
+                        "Product with material ID already exists: " + write.product().getMaterialId());
+            } else {
+                inserts.add(write);
+            }
+        }
+        List<PendingWrite> inserted = write(inserts, productJdbcRepository::batchInsert, results);
+        Map<String, Product> created = findByMaterialIds(inserted);
+        for (PendingWrite write : inserted) {
+            Product product = created.getOrDefault(write.product().getMaterialId(), write.product());
+            if (product.getId() != null) {
+                written(product);
+            }
+            results[write.position()] = new ItemResult(write.index(), BatchItemStatus.CREATED, product, null);
+        }
+        if (!inserted.isEmpty()) {
+            catalogVersion.bump();
+        }
+        return results;
+    }
+    
+    private ItemResult[] updateBatch(List<BatchItem> batch) {
+        ItemResult[] results = new ItemResult[batch.size()];
+        List<PendingWrite> pending = resolve(batch, results);
+        Map<String, Product> existing = findByMaterialIds(pending);
+        List<PendingWrite> updates = new ArrayList<>(pending.size());
+        for (PendingWrite write : pending) {
+            Product current = existing.get(write.product().getMaterialId());
+            if (current == null) {
+                results[write.position()] = ItemResult.of(write.index(), BatchItemStatus.NOT_FOUND,
+                        "Product not found: " + write.product().getMaterialId());
+            } else {
+                write.product().setId(current.getId());
+                updates.add(write);
+            }
+        }
+        List<PendingWrite> updated = write(updates, productJdbcRepository::batchUpdate, results);
+        for (PendingWrite write : updated) {
+            written(write.product());
+            results[write.position()] = new ItemResult(write.index(), BatchItemStatus.UPDATED, write.product(), null);
+        }
+        if (!updated.isEmpty()) {
+            catalogVersion.bump();
+        }
+        return results;
+    }
+    
+    /**
+     * Updates the cache, the name index and the change feed for a committed product. A failure there must not turn
+     * the result of a row that is already written into FAILED, so it is logged instead.
+     */
+    private void written(Product product) {
+        try {
+            productCache.put(product);
+            productNameIndex.put(product);
+            productChangeFeed.publish(product);
+        } catch (RuntimeException e) {
+            log.error("Error updating caches for written product {}", product.getId(), e);
+        }
+    }
+    
+    /**
+     * Validates the items and builds product entities with resolved currency and category.
+     * Rejected items get their result set; the others are returned for writing.
+     */
+    private List<PendingWrite> resolve(List<BatchItem> batch, ItemResult[] results) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> materialIds = new HashSet<>();
+        List<PendingWrite> pending = new ArrayList<>(batch.size());
+        for (int position = 0; position < batch.size(); position++) {
+            BatchItem item = batch.get(position);
+            String violations = validate(item.request());
+            if (violations != null) {
+                results[position] = ItemResult.of(item.index(), BatchItemStatus.INVALID, violations);
+                continue;
+            }
+            ProductRequestDTO request = item.request();
+            if (!materialIds.add(request.getMaterialId())) {
+                results[position] = ItemResult.of(item.index(), BatchItemStatus.CONFLICT,
+                        "Material ID occurs more than once in the batch: " + request.getMaterialId());
+                continue;
+            }
+            Optional<Category> category = referenceDataCache.findCategory(request.getCategoryName());
+            if (category.isEmpty()) {
+                results[position] = ItemResult.of(item.index(), BatchItemStatus.INVALID,
+                        "Category not found: " + request.getCategoryName());
+                continue;
+            }
+            Product product = new Product();
+            product.setMaterialId(request.getMaterialId());
+            product.setName(request.getName());
+            product.setPrice(request.getPrice());
+            product.setCurrency(referenceDataCache.findOrCreateCurrency(request.getCurrencyCode()));
+            product.setCategory(category.get());
+            product.setLastUpdate(now);
+            pending.add(new PendingWrite(position, item.index(), product));
+        }
+        return pending;
+    }
+    
+    private String validate(ProductRequestDTO request) {
+        if (request == null) {
+            return "Item is empty";
+        }
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+    
+    /**
+     * Writes the products in one batch. If the batch fails as a whole, the rows are retried one by one.
+     *
+     * @return The writes that succeeded; failed rows get their result set
+     */
+    private List<PendingWrite> write(List<PendingWrite> writes, Consumer<List<Product>> batchWriter,
+                                     ItemResult[] results) {
+        if (writes.isEmpty()) {
+            return writes;
+        }
+        try {
+            batchWriter.accept(writes.stream().map(PendingWrite::product).toList());
+            return writes;
+        } catch (RuntimeException batchException) {
+            log.warn("Error writing product batch of size {}, retrying products one by one", writes.size(), batchException);
+        }
+        List<PendingWrite> written = new ArrayList<>(writes.size());
+        for (PendingWrite write : writes) {
+            try {
+                batchWriter.accept(List.of(write.product()));
+                written.add(write);
+            } catch (DataIntegrityViolationException e) {
+                results[write.position()] = ItemResult.of(write.index(), BatchItemStatus.CONFLICT,
+                        "Duplicate entry or data integrity violation - materialId.");
+            } catch (RuntimeException e) {
+                results[write.position()] = ItemResult.of(write.index(), BatchItemStatus.FAILED, e.getMessage());
+            }
+        }
+        return written;
+    }
+    
+    private Map<String, Product> findByMaterialIds(List<PendingWrite> writes) {
+        if (writes.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> materialIds = writes.stream()
+                .map(write -> write.product().getMaterialId())
+                .collect(Collectors.toSet());
+        return productRepository.findByMaterialIdIn(materialIds).stream()
+                .collect(Collectors.toMap(Product::getMaterialId, Function.identity()));
+    }
+    
+    /**
+     * The result of one request item.
+     *
+     * @param index   Zero-based position of the item in the request
+     * @param status  Outcome of the item
+     * @param product The written product, {@code null} unless created or updated
+     * @param message Reason why the item was not written, {@code null} if it was
+     */
+    public record ItemResult(long index, BatchItemStatus status, Product product, String message) {
+        static ItemResult of(long index, BatchItemStatus status, String message) {
+            return new ItemResult(index, status, null, message);
+        }
+    }
+    
+    private record BatchItem(long index, ProductRequestDTO request) { }
+    
+    /**
+     * A validated item ready to be written; {@code position} is its offset within the current batch.
+     */
+    private record PendingWrite(int position, long index, Product product) { }
+}
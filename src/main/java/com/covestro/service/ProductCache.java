@@ -0,0 +1,132 @@
+package com.covestro.service;
+
+import com.covestro.config.ProductCacheProperties;
+import com.covestro.repository.entity.Product;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of products by ID, in front of the database lookup of {@code GET /products/{id}}.
+ * <p>
+ * Backed by a Caffeine {@link AsyncCache} whose entries are evicted by size (W-TinyLFU) and by time to live.
+ * Concurrent misses for the same ID share one load, which is kept outside the cache until it completed, so that
+ * missing products are never cached. Writes done through {@link ProductService} are written through with
+ * {@link #put(Product)}.
+ * <p>
+ * Exported through Micrometer as the {@code cache.*} meters tagged {@code cache=product}, including
+ * {@code cache.gets}, {@code cache.evictions} and {@code cache.hit.ratio}, and the load latency as
+ * {@code product.cache.loads}, a timer with a percentile histogram tagged {@code result} ({@code found},
+ * {@code missing} or {@code error}).
+ */
+@Component
+public class ProductCache {
+    static final String CACHE_NAME = "product";
+    
+    private final AsyncCache<Long, Product> cache;
+    private final Map<Long, CompletableFuture<Product>> loads = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Meter.MeterProvider<Timer> loadTimers;
+    
+    public ProductCache(ProductCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .tag("cache", CACHE_NAME)
+                .description("Ratio of cache lookups that were hits since startup")
+                .register(meterRegistry);
+        this.loadTimers = Timer.builder("product.cache.loads")
+                .tag("cache", CACHE_NAME)
+                .description("Time of database loads on product cache misses")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+    
+    /**
+     * Returns the cached product, loading it on a miss. Concurrent misses for the same ID share one load. Only
+     * products that exist are put into the cache, so a lookup of a missing product always reaches the database. A
+     * load that overlaps a write or an invalidation does not replace what they left in the cache. Cancelling the
+     * returned Mono does not cancel a load that other subscribers may be waiting on.
+     *
+     * @param id     Product ID
+     * @param loader Loads the product from the database, empty if it does not exist
+     * @return Mono containing the product or empty if not found
+     */
+    public Mono<Product> get(Long id, Function<Long, Mono<Product>> loader) {
+        return Mono.fromFuture(() -> {
+            CompletableFuture<Product> cached = cache.getIfPresent(id);
+            if (cached != null) {
+                return cached;
+            }
+            CompletableFuture<Product> created = new CompletableFuture<>();
+            CompletableFuture<Product> running = loads.putIfAbsent(id, created);
+            if (running != null) {
+                return running;
+            }
+            load(id, loader, created);
+            return created;
+        }, true);
+    }
+    
+    private void load(Long id, Function<Long, Mono<Product>> loader, CompletableFuture<Product> result) {
+        long generation = invalidations.get();
+        Timer.Sample sample = Timer.start();
+        Mono.defer(() -> loader.apply(id)).toFuture().whenComplete((product, error) -> {
+            String outcome = error != null ? "error" : product != null ? "found" : "missing";
+            sample.stop(loadTimers.withTag("result", outcome));
+            if (product != null && invalidations.get() == generation) {
+                cache.asMap().putIfAbsent(id, CompletableFuture.completedFuture(product));
+            }
+            // removed after the product was cached, so a concurrent lookup finds one or the other
+            loads.remove(id, result);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(product);
+            }
+        });
+    }
+    
+    /**
+     * Replaces the cached entry with a product that was just written.
+     *
+     * @param product Saved product with its ID set
+     */
+    public void put(Product product) {
+        cache.put(product.getId(), CompletableFuture.completedFuture(product));
+    }
+    
+    /**
+     * Removes a product from the cache, e.g. after it was deleted.
+     *
+     * @param id Product ID
+     */
+    public void invalidate(Long id) {
+        invalidations.incrementAndGet();
+        cache.synchronous().invalidate(id);
+    }
+    
+    /**
+     * Removes all products from the cache, e.g. after a bulk change of the catalog.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.synchronous().invalidateAll();
+    }
+}
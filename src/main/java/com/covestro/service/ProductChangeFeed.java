@@ -0,0 +1,61 @@
+package com.covestro.service;
+
+import com.covestro.config.ProductChangeFeedProperties;
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Pushes every product written through {@link ProductService} or {@link ProductBatchService} to the subscribers of
+ * the live change stream, after the write is committed.
+ * <p>
+ * Changes are multicast as they happen and are not retained: a subscriber only sees the writes made while it is
+ * subscribed and catches up on earlier ones from the {@code product_view} read model. Every subscriber gets its own
+ * buffer of {@link ProductChangeFeedProperties#getBufferSize()} changes, so a slow one never holds back writers or
+ * other subscribers; when it overflows, that subscriber's stream fails and it has to resume from its last change.
+ * <p>
+ * The number of subscribers is exported as the {@code product.changes.subscribers} gauge.
+ */
+@Component
+public class ProductChangeFeed {
+    
+    private final Sinks.Many<ProductResponseDTO> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+    
+    public ProductChangeFeed(ProductChangeFeedProperties properties, MeterRegistry meterRegistry) {
+        this.bufferSize = properties.getBufferSize();
+        Gauge.builder("product.changes.subscribers", sink, Sinks.Many::currentSubscriberCount)
+                .description("Subscribers of the live product change stream")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Publishes a committed write without waiting for subscribers; without subscribers the change is dropped.
+     *
+     * @param product Saved product with currency and category populated
+     */
+    public void publish(Product product) {
+        // the write is already committed, so nothing here may fail it
+        ProductResponseDTO change = new ProductResponseDTO(product.getId(), product.getMaterialId(), product.getName(),
+                product.getPrice(), product.getCurrency() == null ? null : product.getCurrency().getCode(),
+                product.getCategory() == null ? null : product.getCategory().getName(), product.getLastUpdate());
+        // writers publish concurrently, and a sink must not be signalled from two threads at once
+        synchronized (sink) {
+            sink.tryEmitNext(change);
+        }
+    }
+    
+    /**
+     * Subscribes to the writes published from now on.
+     *
+     * @return Endless Flux of changes, failing with an overflow error if the subscriber falls too far behind
+     */
+    public Flux<ProductResponseDTO> subscribe() {
+        return sink.asFlux()
+                .onBackpressureBuffer(bufferSize);
+    }
+}
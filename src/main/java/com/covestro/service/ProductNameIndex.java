@@ -0,0 +1,377 @@
+package com.covestro.service;
+
+import com.covestro.dto.ProductSuggestionDTO;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-process inverted index of trigrams over product names and material IDs, answering substring typeahead
+ * queries without touching the database.
+ * <p>
+ * Every product gets a dense internal slot, and every case-folded trigram maps to an {@code int[]} posting list of
+ * slots kept sorted by product ID. A query is split into its trigrams, the posting lists are intersected starting
+ * with the shortest one, and each candidate is verified against the stored name and material ID, so results are
+ * exact substring matches in ID order. Memory is about four bytes per distinct trigram of a product plus the two
+ * strings and one ID-to-slot entry per product, independent of how large the IDs are.
+ * <p>
+ * The index is built from the {@code products} table once the application is ready and kept up to date with
+ * {@link #put(Product)} on every product write done through the services and {@link #remove(Long)} on every
+ * delete of the catalog sync.
+ */
+@Component
+@Slf4j
+public class ProductNameIndex {
+    /**
+     * Length of the indexed n-grams and therefore the minimum query length.
+     */
+    public static final int GRAM_LENGTH = 3;
+    
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings postings = new Postings();
+    private List<Consumer<Postings>> writesDuringRebuild;
+    
+    public ProductNameIndex(ProductJdbcRepository productJdbcRepository, MeterRegistry meterRegistry) {
+        this.productJdbcRepository = productJdbcRepository;
+        Gauge.builder("product.name.index.size", this, index -> index.read(Postings::size))
+                .description("Products in the typeahead index")
+                .register(meterRegistry);
+        Gauge.builder("product.name.index.grams", this, index -> index.read(current -> current.lists.size()))
+                .description("Distinct trigrams in the typeahead index")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Builds the index from all products, replacing the current content. Queries keep being answered from the
+     * previous index during the build; products written meanwhile are applied on top of the new one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Postings rebuilt = new Postings();
+        try {
+            productJdbcRepository.forEachProduct(rebuilt::put);
+            rebuilt.trim();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild.forEach(write -> write.accept(rebuilt));
+            writesDuringRebuild = null;
+            postings = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product name index built with {} products and {} trigrams in {} ms", rebuilt.size(),
+                rebuilt.lists.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * Adds a product or replaces the indexed name and material ID of an existing one.
+     *
+     * @param product Saved product with its ID set
+     */
+    public void put(Product product) {
+        write(current -> current.put(product));
+    }
+    
+    /**
+     * Removes a deleted product from the index. Unknown IDs are ignored.
+     *
+     * @param id ID of the deleted product
+     */
+    public void remove(Long id) {
+        write(current -> current.remove(id));
+    }
+    
+    /**
+     * Finds products whose name or material ID contains the query, ignoring case.
+     *
+     * @param query Substring to search for, at least {@value #GRAM_LENGTH} characters
+     * @param limit Maximum number of suggestions
+     * @return Matching products in ID order, empty if the query is shorter than {@value #GRAM_LENGTH} characters
+     */
+    public List<ProductSuggestionDTO> suggest(String query, int limit) {
+        Set<Long> grams = grams(query);
+        if (grams.isEmpty()) {
+            return List.of();
+        }
+        return read(current -> current.suggest(grams, query, limit));
+    }
+    
+    private void write(Consumer<Postings> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(postings);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private <T> T read(Function<Postings, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(postings);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the distinct case-folded trigrams of the text, each packed into a long of three 16-bit chars.
+     */
+    static Set<Long> grams(String text) {
+        Set<Long> grams = new LinkedHashSet<>();
+        if (text == null) {
+            return grams;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add((long) Character.toLowerCase(text.charAt(i)) << 32
+                    | (long) Character.toLowerCase(text.charAt(i + 1)) << 16
+                    | Character.toLowerCase(text.charAt(i + 2)));
+        }
+        return grams;
+    }
+    
+    private static boolean containsIgnoreCase(String text, String query) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i + query.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * The posting lists together with the indexed texts. Every product occupies a dense slot, so the arrays grow with
+     * the number of products rather than with the largest ID; slots of removed products are reused.
+     */
+    private static final class Postings {
+        private final Map<Long, PostingList> lists = new HashMap<>();
+        private final Map<Long, Integer> slots = new HashMap<>();
+        private final Deque<Integer> freeSlots = new ArrayDeque<>();
+        private long[] ids = new long[0];
+        private String[] names = new String[0];
+        private String[] materialIds = new String[0];
+        private int slotCount;
+        
+        int size() {
+            return slots.size();
+        }
+        
+        void put(Product product) {
+            Integer slot = slots.get(product.getId());
+            if (slot == null) {
+                slot = allocate(product.getId());
+            }
+            Set<Long> oldGrams = grams(names[slot]);
+            oldGrams.addAll(grams(materialIds[slot]));
+            Set<Long> newGrams = grams(product.getName());
+            newGrams.addAll(grams(product.getMaterialId()));
+            for (Long gram : oldGrams) {
+                if (!newGrams.contains(gram)) {
+                    removePosting(gram, slot);
+                }
+            }
+            for (Long gram : newGrams) {
+                if (!oldGrams.contains(gram)) {
+                    lists.computeIfAbsent(gram, key -> new PostingList()).add(slot, ids);
+                }
+            }
+            names[slot] = product.getName();
+            materialIds[slot] = product.getMaterialId();
+        }
+        
+        void remove(Long id) {
+            Integer slot = slots.remove(id);
+            if (slot == null) {
+                return;
+            }
+            Set<Long> oldGrams = grams(names[slot]);
+            oldGrams.addAll(grams(materialIds[slot]));
+            for (Long gram : oldGrams) {
+                removePosting(gram, slot);
+            }
+            names[slot] = null;
+            materialIds[slot] = null;
+            freeSlots.push(slot);
+        }
+        
+        private int allocate(long id) {
+            Integer slot = freeSlots.poll();
+            if (slot == null) {
+                slot = slotCount++;
+                if (slot == ids.length) {
+                    int capacity = Math.max(16, ids.length + (ids.length >> 1));
+                    ids = Arrays.copyOf(ids, capacity);
+                    names = Arrays.copyOf(names, capacity);
+                    materialIds = Arrays.copyOf(materialIds, capacity);
+                }
+            }
+            ids[slot] = id;
+            slots.put(id, slot);
+            return slot;
+        }
+        
+        private void removePosting(Long gram, int slot) {
+            PostingList list = lists.get(gram);
+            list.remove(slot, ids);
+            if (list.size == 0) {
+                lists.remove(gram);
+            }
+        }
+        
+        List<ProductSuggestionDTO> suggest(Set<Long> grams, String query, int limit) {
+            List<PostingList> candidates = new ArrayList<>(grams.size());
+            for (Long gram : grams) {
+                PostingList list = lists.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                candidates.add(list);
+            }
+            candidates.sort(Comparator.comparingInt(list -> list.size));
+            PostingList shortest = candidates.get(0);
+            int[] positions = new int[candidates.size()];
+            List<ProductSuggestionDTO> suggestions = new ArrayList<>(Math.min(limit, shortest.size));
+            for (int i = 0; i < shortest.size && suggestions.size() < limit; i++) {
+                int slot = shortest.slots[i];
+                if (inAll(candidates, positions, slot)
+                        && (containsIgnoreCase(names[slot], query) || containsIgnoreCase(materialIds[slot], query))) {
+                    suggestions.add(new ProductSuggestionDTO(ids[slot], materialIds[slot], names[slot]));
+                }
+            }
+            return suggestions;
+        }
+        
+        /**
+         * Checks whether the slot is in all other posting lists. Slots are probed in ascending order of their
+         * product IDs, so each list is searched from the position reached for the previous one.
+         */
+        private boolean inAll(List<PostingList> candidates, int[] positions, int slot) {
+            for (int j = 1; j < candidates.size(); j++) {
+                PostingList list = candidates.get(j);
+                int position = list.ceiling(positions[j], ids[slot], ids);
+                positions[j] = position;
+                if (position == list.size || list.slots[position] != slot) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        void trim() {
+            lists.values().forEach(PostingList::trim);
+        }
+    }
+    
+    /**
+     * Duplicate-free list of slots, sorted by the product IDs they hold.
+     */
+    private static final class PostingList {
+        private int[] slots = new int[2];
+        private int size;
+        
+        void add(int slot, long[] ids) {
+            if (size > 0 && ids[slot] <= ids[slots[size - 1]]) {
+                int position = search(0, ids[slot], ids);
+                if (position >= 0) {
+                    return;
+                }
+                insert(-position - 1, slot);
+                return;
+            }
+            insert(size, slot);
+        }
+        
+        void remove(int slot, long[] ids) {
+            int position = search(0, ids[slot], ids);
+            if (position >= 0) {
+                System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+                size--;
+            }
+        }
+        
+        /**
+         * Returns the position of the first slot whose product ID is not less than {@code id}, searching from
+         * {@code from}.
+         */
+        int ceiling(int from, long id, long[] ids) {
+            int position = search(from, id, ids);
+            return position >= 0 ? position : -position - 1;
+        }
+        
+        void trim() {
+            slots = Arrays.copyOf(slots, size);
+        }
+        
+        /**
+         * Binary search by product ID with the contract of {@link Arrays#binarySearch(int[], int, int, int)}.
+         */
+        private int search(int from, long id, long[] ids) {
+            int low = from;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long middleId = ids[slots[middle]];
+                if (middleId < id) {
+                    low = middle + 1;
+                } else if (middleId > id) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+        
+        private void insert(int position, int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(2, size + (size >> 1)));
+            }
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            slots[position] = slot;
+            size++;
+        }
+    }
+}
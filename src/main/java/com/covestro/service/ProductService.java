@@ -1,9 +1,13 @@
 package com.covestro.service;
 
 import com.covestro.dto.ProductRequestDTO;
-import com.covestro.repository.CategoryRepository;
-import com.covestro.repository.CurrencyRepository;
-import com.covestro.repository.ProductRepository;
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.dto.ProductSearchResultDTO;
+import com.covestro.dto.ProductStatsDTO;
+import com.covestro.dto.ProductSuggestionDTO;
+import com.covestro.repository.ProductSearchCriteria;
+import com.covestro.repository.ProductSearchCursor;
+import com.covestro.repository.ProductStore;
 import com.covestro.repository.entity.Category;
 import com.covestro.repository.entity.Currency;
 import com.covestro.repository.entity.Product;
@@ -17,40 +21,167 @@ import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
-import java.util.function.Supplier;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class handling product-related business logic including CRUD operations,
  * currency/category management, and circuit breaker-protected data access.
  * <p>
  * This service integrates with Resilience4j Circuit Breaker to handle failures gracefully
- * and uses reactive programming patterns for non-blocking I/O operations.
+ * and uses reactive programming patterns for non-blocking I/O operations. Data access goes through
+ * a {@link ProductStore}, JPA on a blocking scheduler by default or R2DBC with the {@code r2dbc} profile.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
     
-    private final ProductRepository productRepository;
-    private final CurrencyRepository currencyRepository;
-    private final CategoryRepository categoryRepository;
+    /**
+     * Rows fetched per round trip when streaming the whole catalog.
+     */
+    static final int STREAM_CHUNK_SIZE = 500;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    /**
+     * Material IDs accepted per batch lookup. Bounds the {@code IN} list and, for GET requests, the URL length.
+     */
+    public static final int MAX_MATERIAL_IDS = 200;
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 50;
+    
+    private final ProductStore productStore;
+    private final ReferenceDataCache referenceDataCache;
+    private final ProductCache productCache;
+    private final ProductNameIndex productNameIndex;
+    private final ProductStatsStore productStatsStore;
+    private final CatalogVersion catalogVersion;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductUpdateCoalescer productUpdateCoalescer;
     
     /**
-     * Retrieves all products from the database with circuit breaker protection.
+     * Streams all products ordered by ID with circuit breaker protection.
+     * Rows are read in keyset-paginated chunks of {@value #STREAM_CHUNK_SIZE} driven by subscriber demand,
+     * with at most one chunk read ahead, so memory use does not grow with the catalog.
+     * Chunks are read from the {@code product_view} read model, one single-table query each, without loading entities.
      *
      * @return Flux of all products
      * @see #genericFluxFallback(Throwable)
      */
     @CircuitBreaker(name = "productService", fallbackMethod = "genericFluxFallback")
-    public Flux<Product> getAllProducts() {
-        log.info("Fetching all products");
-        return asyncBlockingTask(productRepository::findAll)
-                .flatMapMany(Flux::fromIterable);
+    public Flux<ProductResponseDTO> getAllProducts() {
+        log.debug("Fetching all products");
+        return fetchPage(0L, STREAM_CHUNK_SIZE)
+                .expand(page -> page.size() < STREAM_CHUNK_SIZE
+                        ? Mono.empty()
+                        : fetchPage(page.get(page.size() - 1).getId(), STREAM_CHUNK_SIZE))
+                .flatMapIterable(Function.identity(), 1);
+    }
+    
+    /**
+     * Retrieves one page of products ordered by ID with circuit breaker protection.
+     * Pages are addressed by keyset rather than offset: pass the ID of the last product of the previous page.
+     * The page is read from the {@code product_view} read model with one single-table query.
+     *
+     * @param after ID after which the page starts, {@code null} for the first page
+     * @param limit Maximum number of products in the page
+     * @return Flux of at most {@code limit} products
+     * @see #genericFluxFallback(Throwable)
+     */
+    @CircuitBreaker(name = "productService", fallbackMethod = "genericFluxFallback")
+    public Flux<ProductResponseDTO> getProductsPage(Long after, int limit) {
+        log.debug("Fetching products page after ID: {}, limit: {}", after, limit);
+        return fetchPage(after == null ? 0L : after, limit)
+                .flatMapIterable(Function.identity());
+    }
+    
+    /**
+     * Streams the products changed at or after a point in time, ordered by last update and ID, with circuit breaker
+     * protection. Rows are read from the {@code product_view} read model in keyset-paginated chunks of
+     * {@value #STREAM_CHUNK_SIZE} on its (last update, ID) index, so the cost grows with the number of changes and
+     * not with the catalog.
+     *
+     * @param since Earliest last update to return
+     * @return Flux of the changed products
+     * @see #genericFluxFallback(Throwable)
+     */
+    @CircuitBreaker(name = "productService", fallbackMethod = "genericFluxFallback")
+    public Flux<ProductResponseDTO> getProductChanges(LocalDateTime since) {
+        log.debug("Fetching products changed since: {}", since);
+        return fetchChanges(since);
+    }
+    
+    /**
+     * Streams the products written from now on and, if {@code since} is given, the products changed since then.
+     * The live stream is subscribed before the stored changes are read, so no write falls in between; the two are
+     * interleaved, and a product can arrive twice. Consumers keep the version with the latest last update.
+     * <p>
+     * Not protected by the circuit breaker: an empty fallback would silently skip changes, so read errors end the
+     * stream instead and the consumer resumes.
+     *
+     * @param since Earliest last update to replay, {@code null} for live changes only
+     * @return Endless Flux of changed products
+     */
+    public Flux<ProductResponseDTO> streamProductChanges(LocalDateTime since) {
+        return since == null
+                ? productChangeFeed.subscribe()
+                : Flux.merge(productChangeFeed.subscribe(), fetchChanges(since));
+    }
+    
+    /**
+     * Searches products by category, currency, price range and name prefix with circuit breaker protection.
+     * Pages are addressed by keyset on the sort key and ID, so deep pages cost the same as the first one.
+     *
+     * @param criteria Filters, sort and position of the page
+     * @return Mono containing the page and the cursor of the next page, if any
+     * @see #genericFallback(Throwable)
+     */
+    @CircuitBreaker(name = "productService", fallbackMethod = "genericFallback")
+    public Mono<ProductSearchResultDTO> searchProducts(ProductSearchCriteria criteria) {
+        log.debug("Searching products: {}", criteria);
+        return productStore.search(criteria)
+                .map(products -> {
+                    if (products.size() <= criteria.limit()) {
+                        return new ProductSearchResultDTO(products, null);
+                    }
+                    List<ProductResponseDTO> page = products.subList(0, criteria.limit());
+                    String nextCursor = ProductSearchCursor.after(criteria.sortField(), page.get(page.size() - 1)).encode();
+                    return new ProductSearchResultDTO(page, nextCursor);
+                });
+    }
+    
+    /**
+     * Suggests products whose name or material ID contains the query, for typeahead.
+     * Answered from the in-process {@link ProductNameIndex}, so there is no database call to protect.
+     *
+     * @param query Substring to search for, at least {@value ProductNameIndex#GRAM_LENGTH} characters
+     * @param limit Maximum number of suggestions
+     * @return Flux of matching products in ID order
+     */
+    public Flux<ProductSuggestionDTO> suggestProducts(String query, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(productNameIndex.suggest(query, limit)));
+    }
+    
+    /**
+     * Aggregates product counts and prices per category and currency.
+     * Answered from the in-process {@link ProductStatsStore} snapshot, so there is no database call to protect.
+     * The aggregation scans the whole snapshot, so it runs on the parallel scheduler rather than the event loop.
+     *
+     * @return Mono containing the aggregates
+     */
+    public Mono<ProductStatsDTO> getProductStats() {
+        return Mono.fromSupplier(productStatsStore::getStats).subscribeOn(Schedulers.parallel());
     }
     
     /**
      * Finds a product by its ID with circuit breaker protection.
+     * Served from {@link ProductCache}, the database is only queried on a miss.
      *
      * @param id Product ID to search for
      * @return Mono containing the found product or empty if not found
@@ -58,14 +189,54 @@ public class ProductService {
      */
     @CircuitBreaker(name = "productService", fallbackMethod = "genericFallback")
     public Mono<Product> getProductById(Long id) {
-        log.info("Fetching product by ID: {}", id);
-        return asyncBlockingTask(() ->
-                productRepository.findById(id).orElse(null)
-        );
+        log.debug("Fetching product by ID: {}", id);
+        return productCache.get(id, productStore::findById);
+    }
+    
+    /**
+     * Finds a product by its material ID with circuit breaker protection.
+     *
+     * @param materialId Material ID to search for
+     * @return Mono containing the found product or empty if not found
+     * @see #genericFallback(Throwable)
+     */
+    @CircuitBreaker(name = "productService", fallbackMethod = "genericFallback")
+    public Mono<Product> getProductByMaterialId(String materialId) {
+        log.debug("Fetching product by material ID: {}", materialId);
+        return productStore.findByMaterialId(materialId);
+    }
+    
+    /**
+     * Finds the products for many material IDs in a single query with circuit breaker protection.
+     * Products are returned in the order of the given material IDs; unknown and repeated IDs are skipped.
+     *
+     * @param materialIds Material IDs to search for, at most {@value #MAX_MATERIAL_IDS}
+     * @return Flux of the found products
+     * @see #genericFluxFallback(Throwable)
+     */
+    @CircuitBreaker(name = "productService", fallbackMethod = "genericFluxFallback")
+    public Flux<Product> getProductsByMaterialIds(Collection<String> materialIds) {
+        Set<String> distinctIds = new LinkedHashSet<>(materialIds);
+        log.debug("Fetching {} products by material ID", distinctIds.size());
+        return productStore.findByMaterialIdIn(distinctIds)
+                .collectList()
+                .flatMapIterable(products -> {
+                    Map<String, Product> byMaterialId = products.stream()
+                            .collect(Collectors.toMap(Product::getMaterialId, Function.identity()));
+                    return distinctIds.stream()
+                            .map(byMaterialId::get)
+                            .filter(Objects::nonNull)
+                            .toList();
+                });
     }
     
     /**
      * Updates an existing product with circuit breaker protection.
+     * The category is resolved before the update is queued, so an unknown category fails only this update. The
+     * currency is found or created only in the write, once the product is known to exist, so an update of a missing
+     * product has no side effects.
+     * With {@code product-update-coalescing.enabled}, concurrent valid updates to the same product are merged into one
+     * write of the last one, and all of them complete with the product in that state (see {@link ProductUpdateCoalescer}).
      *
      * @param id ID of product to update
      * @param request DTO containing update information
@@ -76,16 +247,17 @@ public class ProductService {
     @Transactional
     @CircuitBreaker(name = "productService", fallbackMethod = "genericFallback")
     public Mono<Product> updateProduct(Long id, ProductRequestDTO request) {
-        log.info("Updating product with ID: {}", id);
-        return asyncBlockingTask(() -> productRepository.findById(id).orElse(null))
-                .flatMap(existingProduct -> {
-                    if (existingProduct != null) {
-                        return updateExistingProduct(existingProduct, request);
-                    } else {
-                        log.warn("Product with ID {} not found", id);
-                        return Mono.empty();
-                    }
-                });
+        log.debug("Updating product with ID: {}", id);
+        Mono<ResolvedUpdate> update = findCategory(request.getCategoryName())
+                .map(category -> new ResolvedUpdate(request, category));
+        return productUpdateCoalescer.update(id, update, this::writeUpdate);
+    }
+    
+    private Mono<Product> writeUpdate(Long id, ResolvedUpdate update) {
+        return productStore.findById(id)
+                .switchIfEmpty(Mono.fromRunnable(() -> log.debug("Product with ID {} not found", id)))
+                .flatMap(existingProduct -> findOrCreateCurrency(update.request().getCurrencyCode())
+                        .flatMap(currency -> updateExistingProduct(existingProduct, update, currency)));
     }
     
     /**
@@ -99,74 +271,87 @@ public class ProductService {
     @Transactional
     @CircuitBreaker(name = "productService", fallbackMethod = "genericFallback")
     public Mono<Product> createProduct(ProductRequestDTO request) {
-        log.info("Creating new product");
-        return asyncBlockingTask(() -> {
-            Optional<Category> optionalCategory = categoryRepository.findByName(request.getCategoryName());
-            return optionalCategory.orElseThrow(() ->
-                    new IllegalArgumentException("Category not found: " + request.getCategoryName()));
-        }).flatMap(category ->
-                asyncBlockingTask(() -> buildAndSaveProduct(request, category))
-        );
+        log.debug("Creating new product");
+        return findCategory(request.getCategoryName())
+                .flatMap(category -> findOrCreateCurrency(request.getCurrencyCode())
+                        .flatMap(currency -> saveProduct(buildProduct(request, currency, category))));
     }
     
     /**
      * Updates existing product entity with new values from DTO.
      *
      * @param existingProduct Product entity to update
-     * @param request DTO containing new values
+     * @param update New values with their resolved category
+     * @param currency Currency of the new values
      * @return Mono containing updated product
      */
-    private Mono<Product> updateExistingProduct(Product existingProduct, ProductRequestDTO request) {
-        return Mono.zip(
-                asyncBlockingTask(() -> findOrCreateCurrency(request.getCurrencyCode())),
-                asyncBlockingTask(() -> categoryRepository.findByName(request.getCategoryName())
-                        .orElseThrow(() -> new IllegalArgumentException("Category not found: " + request.getCategoryName())))
-        ).flatMap(tuple -> {
-            Currency currency = tuple.getT1();
-            Category category = tuple.getT2();
-            updateProductFields(existingProduct, request, currency, category);
-            existingProduct.setLastUpdate(LocalDateTime.now());
-            return saveProduct(existingProduct);
-        });
+    private Mono<Product> updateExistingProduct(Product existingProduct, ResolvedUpdate update, Currency currency) {
+        updateProductFields(existingProduct, update.request(), currency, update.category());
+        existingProduct.setLastUpdate(LocalDateTime.now());
+        return saveProduct(existingProduct);
     }
     
     /**
-     * Finds or creates a currency entity by code.
+     * Finds or creates a currency entity by code. Cache hits complete without a database call.
      *
      * @param currencyCode Currency code to find/create
-     * @return Existing or newly created currency entity
-     */
-    private Currency findOrCreateCurrency(String currencyCode) {
-        return currencyRepository.findByCode(currencyCode)
-                .orElseGet(() -> {
-                    Currency newCurrency = new Currency();
-                    newCurrency.setCode(currencyCode);
-                    return currencyRepository.save(newCurrency);
-                });
+     * @return Mono containing the existing or newly created currency entity
+     */
+    private Mono<Currency> findOrCreateCurrency(String currencyCode) {
+        return Mono.defer(() -> {
+            Currency cached = referenceDataCache.getCurrency(currencyCode);
+            return cached != null
+                    ? Mono.just(cached)
+                    : productStore.findOrCreateCurrency(currencyCode).doOnNext(referenceDataCache::putCurrency);
+        });
     }
     
     /**
-     * Saves a product entity using async blocking task.
+     * Finds a category entity by name. Cache hits complete without a database call.
+     *
+     * @param categoryName Category name to find
+     * @return Mono containing the category entity
+     * @throws IllegalArgumentException if category doesn't exist
+     */
+    private Mono<Category> findCategory(String categoryName) {
+        return Mono.defer(() -> {
+            Category cached = referenceDataCache.getCategory(categoryName);
+            return cached != null
+                    ? Mono.just(cached)
+                    : productStore.findCategoryByName(categoryName)
+                            .doOnNext(referenceDataCache::putCategory)
+                            .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Category not found: " + categoryName)));
+        });
+    }
+    
+    /**
+     * Saves a product entity, writes it through to the product cache and the name index, bumps the
+     * {@link CatalogVersion} and publishes the change to the {@link ProductChangeFeed}.
      *
      * @param product Product entity to save
      * @return Mono containing saved product
      */
     private Mono<Product> saveProduct(Product product) {
-        return asyncBlockingTask(() -> productRepository.save(product));
+        return productStore.save(product)
+                .doOnNext(productCache::put)
+                .doOnNext(productNameIndex::put)
+                .doOnNext(saved -> catalogVersion.bump())
+                .doOnNext(productChangeFeed::publish);
     }
     
     /**
-     * Builds and persists a new product entity from DTO.
+     * Builds a new, not yet persisted product entity from DTO.
      *
      * @param request Product creation DTO
+     * @param currency Associated currency entity
      * @param category Associated category entity
-     * @return Created product entity
+     * @return New product entity
      */
-    private Product buildAndSaveProduct(ProductRequestDTO request, Category category) {
+    private Product buildProduct(ProductRequestDTO request, Currency currency, Category category) {
         Product product = new Product();
-        updateProductFields(product, request, findOrCreateCurrency(request.getCurrencyCode()), category);
+        updateProductFields(product, request, currency, category);
         product.setLastUpdate(LocalDateTime.now());
-        return productRepository.save(product);
+        return product;
     }
     
     private void updateProductFields(Product product, ProductRequestDTO request,
@@ -178,20 +363,25 @@ public class ProductService {
         product.setCategory(category);
     }
     
-    /**
-     * Wraps blocking operations in reactive context.
-     *
-     * @param <T> Return type
-     * @param task Supplier of blocking operation
-     * @return Mono executing on bounded elastic scheduler
-     */
-    private <T> Mono<T> asyncBlockingTask(Supplier<T> task) {
-        return Mono.fromSupplier(task)
-                .subscribeOn(Schedulers.boundedElastic());
+    private Mono<List<ProductResponseDTO>> fetchPage(long after, int limit) {
+        return productStore.findResponsePage(after, limit);
+    }
+    
+    private Flux<ProductResponseDTO> fetchChanges(LocalDateTime since) {
+        return productStore.findChangesPage(since, 0L, STREAM_CHUNK_SIZE)
+                .expand(page -> {
+                    if (page.size() < STREAM_CHUNK_SIZE) {
+                        return Mono.empty();
+                    }
+                    ProductResponseDTO last = page.get(page.size() - 1);
+                    return productStore.findChangesPage(last.getLastUpdate(), last.getId(), STREAM_CHUNK_SIZE);
+                })
+                .flatMapIterable(Function.identity(), 1);
     }
     
     /**
-     * Generic circuit breaker fallback for Mono return types.
+     * Generic circuit breaker fallback for Mono return types, timed with outcome {@code fallback} by
+     * {@link ProductServiceMetrics} and reported to the caller's {@link FallbackMarker}.
      *
      * @param <T> Fallback type
      * @param throwable Exception that triggered fallback
@@ -200,11 +390,12 @@ public class ProductService {
     @SuppressWarnings("unused")
     private <T> Mono<T> genericFallback(Throwable throwable) {
         log.error("Generic fallback method called. Returning empty Mono.", throwable);
-        return Mono.empty();
+        return ProductServiceMetrics.fallback(throwable, FallbackMarker.mark(Mono.<T>empty()));
     }
     
     /**
-     * Generic circuit breaker fallback for Flux return types.
+     * Generic circuit breaker fallback for Flux return types, timed with outcome {@code fallback} by
+     * {@link ProductServiceMetrics} and reported to the caller's {@link FallbackMarker}.
      *
      * @param <T> Fallback type
      * @param throwable Exception that triggered fallback
@@ -213,6 +404,12 @@ public class ProductService {
     @SuppressWarnings("unused")
     private <T> Flux<T> genericFluxFallback(Throwable throwable){
         log.error("Generic fallback method called. Returning empty Flux.", throwable);
-        return Flux.empty();
+        return ProductServiceMetrics.fallback(throwable, FallbackMarker.mark(Flux.<T>empty()));
+    }
+    
+    /**
+     * An update request with the category it names.
+     */
+    private record ResolvedUpdate(ProductRequestDTO request, Category category) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package com.covestro.service;
+
+import com.covestro.config.BlockingTaskExecutor;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the reactive operations of {@link ProductService} from subscription to termination as
+ * {@code product.service.operations}, a timer with a percentile histogram tagged {@code operation} (the method name),
+ * {@code outcome} and {@code exception}. The outcome is one of
+ * <ul>
+ *     <li>{@code success}: completed, or a {@link Mono} emitted its value</li>
+ *     <li>{@code error}: failed with an error the caller sees</li>
+ *     <li>{@code fallback}: answered by a circuit breaker fallback, including calls rejected by an open circuit</li>
+ *     <li>{@code cancelled}: cancelled by the caller, e.g. a client that disconnected</li>
+ * </ul>
+ * The aspect is ordered outside the circuit breaker aspect, so fallbacks and rejected calls are timed as well. The
+ * operation name is put into the subscriber context for {@link BlockingTaskExecutor}, which splits the time of each
+ * operation into queue wait and execution. The endless {@link ProductService#streamProductChanges} is not timed.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 4)
+public class ProductServiceMetrics {
+    static final String METER_NAME = "product.service.operations";
+    private static final Class<Outcome> OUTCOME_CONTEXT_KEY = Outcome.class;
+    
+    private final Meter.MeterProvider<Timer> timers;
+    
+    public ProductServiceMetrics(MeterRegistry meterRegistry) {
+        this.timers = Timer.builder(METER_NAME)
+                .description("Time from subscription to termination of ProductService operations")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+    
+    @Around("execution(public reactor.core.publisher.Mono com.covestro.service.ProductService.*(..))")
+    public Object timeMono(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint.getSignature().getName(), (Mono<?>) joinPoint.proceed());
+    }
+    
+    @Around("execution(public reactor.core.publisher.Flux com.covestro.service.ProductService.*(..))"
+            + " && !execution(* com.covestro.service.ProductService.streamProductChanges(..))")
+    public Object timeFlux(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint.getSignature().getName(), (Flux<?>) joinPoint.proceed());
+    }
+    
+    <T> Mono<T> time(String operation, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Outcome outcome = new Outcome();
+            return mono
+                    .doOnNext(value -> outcome.emitted = true)
+                    .doOnError(outcome::failed)
+                    .doFinally(signal -> record(operation, outcome, signal))
+                    .contextWrite(context -> context.put(OUTCOME_CONTEXT_KEY, outcome)
+                            .put(BlockingTaskExecutor.OPERATION_CONTEXT_KEY, operation));
+        });
+    }
+    
+    <T> Flux<T> time(String operation, Flux<T> flux) {
+        return Flux.defer(() -> {
+            Outcome outcome = new Outcome();
+            return flux
+                    .doOnError(outcome::failed)
+                    .doFinally(signal -> record(operation, outcome, signal))
+                    .contextWrite(context -> context.put(OUTCOME_CONTEXT_KEY, outcome)
+                            .put(BlockingTaskExecutor.OPERATION_CONTEXT_KEY, operation));
+        });
+    }
+    
+    /**
+     * Marks the timed operation that subscribes to the returned Mono as answered by a fallback.
+     *
+     * @param cause  The error that triggered the fallback
+     * @param result The fallback result
+     */
+    static <T> Mono<T> fallback(Throwable cause, Mono<T> result) {
+        return Mono.deferContextual(context -> {
+            context.<Outcome>getOrEmpty(OUTCOME_CONTEXT_KEY).ifPresent(outcome -> outcome.fellBack(cause));
+            return result;
+        });
+    }
+    
+    /**
+     * Marks the timed operation that subscribes to the returned Flux as answered by a fallback.
+     *
+     * @param cause  The error that triggered the fallback
+     * @param result The fallback result
+     */
+    static <T> Flux<T> fallback(Throwable cause, Flux<T> result) {
+        return Flux.deferContextual(context -> {
+            context.<Outcome>getOrEmpty(OUTCOME_CONTEXT_KEY).ifPresent(outcome -> outcome.fellBack(cause));
+            return result;
+        });
+    }
+    
+    private void record(String operation, Outcome outcome, SignalType signal) {
+        String result;
+        if (outcome.fallback) {
+            result = "fallback";
+        } else if (signal == SignalType.ON_ERROR) {
+            result = "error";
+        } else if (signal == SignalType.ON_COMPLETE || outcome.emitted) {
+            result = "success";
+        } else {
+            result = "cancelled";
+        }
+        String exception = outcome.error == null ? "none" : outcome.error.getClass().getSimpleName();
+        timers.withTags("operation", operation, "outcome", result, "exception", exception)
+                .record(System.nanoTime() - outcome.start, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * State of one subscription to a timed operation.
+     */
+    private static final class Outcome {
+        private final long start = System.nanoTime();
+        private volatile boolean emitted;
+        private volatile boolean fallback;
+        private volatile Throwable error;
+        
+        private void failed(Throwable error) {
+            this.error = error;
+        }
+        
+        private void fellBack(Throwable cause) {
+            this.fallback = true;
+            this.error = cause;
+        }
+    }
+}
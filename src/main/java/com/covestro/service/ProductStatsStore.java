@@ -0,0 +1,398 @@
+package com.covestro.service;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.ProductStatsProperties;
+import com.covestro.dto.CategoryStatsDTO;
+import com.covestro.dto.PriceStatsDTO;
+import com.covestro.dto.ProductStatsDTO;
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.ProductRepository;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Columnar, off-heap snapshot of product prices that answers the aggregates of {@code GET /products/stats}
+ * without a SQL {@code GROUP BY}.
+ * <p>
+ * Prices are stored in a direct buffer as longs scaled by {@value #PRICE_SCALE} decimal places, clustered by category
+ * and currency ordinals, with the group boundaries and product counts kept in small arrays. Aggregation is a
+ * sequential, branch-free min/max/sum pass over each group in slices of at most {@value #CHUNK_SIZE} rows, run in
+ * parallel; nothing is allocated per row and the prices are not on the Java heap. The snapshot costs 8 bytes of native
+ * memory per priced product, the build stages 16 bytes per product on top.
+ * <p>
+ * The snapshot is read from the {@code products} table once the application is ready and rebuilt in the background
+ * when it is older than {@link ProductStatsProperties#getRefreshInterval()} on access. Requests are answered from the
+ * previous snapshot until the new one is swapped in.
+ */
+@Component
+@Slf4j
+public class ProductStatsStore {
+    /**
+     * Decimal places of the stored prices, the scale of the {@code price} column.
+     */
+    static final int PRICE_SCALE = 2;
+    
+    /**
+     * Rows aggregated per parallel task.
+     */
+    static final int CHUNK_SIZE = 1 << 20;
+    
+    private static final long NO_PRICE = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final CategoryRepository categoryRepository;
+    private final CurrencyRepository currencyRepository;
+    private final BlockingTaskExecutor blockingTaskExecutor;
+    private final Duration refreshInterval;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Columns columns = Columns.EMPTY;
+    
+    public ProductStatsStore(ProductRepository productRepository,
+                             ProductJdbcRepository productJdbcRepository,
+                             CategoryRepository categoryRepository,
+                             CurrencyRepository currencyRepository,
+                             BlockingTaskExecutor blockingTaskExecutor,
+                             ProductStatsProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productJdbcRepository = productJdbcRepository;
+        this.categoryRepository = categoryRepository;
+        this.currencyRepository = currencyRepository;
+        this.blockingTaskExecutor = blockingTaskExecutor;
+        this.refreshInterval = properties.getRefreshInterval();
+        Gauge.builder("product.stats.snapshot.size", this, store -> store.columns.size)
+                .description("Products in the price statistics snapshot")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Reads all product prices into a new snapshot and swaps it in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        LocalDateTime snapshotTime = LocalDateTime.now();
+        Dictionary categories = new Dictionary(categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName)),
+                id -> categoryRepository.findById(id).map(Category::getName).orElse(String.valueOf(id)));
+        Dictionary currencies = new Dictionary(currencyRepository.findAll().stream()
+                .collect(Collectors.toMap(Currency::getId, Currency::getCode)),
+                id -> currencyRepository.findById(id).map(Currency::getCode).orElse(String.valueOf(id)));
+        ColumnsBuilder builder = new ColumnsBuilder((int) Math.min(Integer.MAX_VALUE, productRepository.count()));
+        productJdbcRepository.forEachProduct((Product product) -> builder.add(scaledPrice(product.getPrice()),
+                categories.ordinal(product.getCategory().getId()), currencies.ordinal(product.getCurrency().getId())));
+        Columns rebuilt = builder.build(categories.names, currencies.names, snapshotTime, System.nanoTime());
+        columns = rebuilt;
+        log.info("Product stats snapshot built with {} products in {} ms", rebuilt.size,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * Aggregates the current snapshot. Triggers a background rebuild if the snapshot is older than the refresh interval.
+     *
+     * @return Counts per category and price aggregates per category and currency and per currency
+     */
+    public ProductStatsDTO getStats() {
+        Columns snapshot = columns;
+        refreshIfStale(snapshot);
+        return aggregate(snapshot);
+    }
+    
+    private void refreshIfStale(Columns snapshot) {
+        boolean stale = snapshot == Columns.EMPTY || System.nanoTime() - snapshot.builtAt > refreshInterval.toNanos();
+        if (!stale || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        blockingTaskExecutor.execute(() -> {
+                    rebuild();
+                    return true;
+                })
+                .doFinally(signal -> refreshing.set(false))
+                .subscribe(rebuilt -> { }, e -> log.error("Error refreshing product stats snapshot", e));
+    }
+    
+    static ProductStatsDTO aggregate(Columns snapshot) {
+        int groups = snapshot.groups();
+        List<Slice> slices = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            int end = snapshot.offsets[group + 1];
+            for (int from = snapshot.offsets[group]; from < end; from += CHUNK_SIZE) {
+                slices.add(new Slice(group, from, Math.min(end, from + CHUNK_SIZE)));
+            }
+        }
+        Accumulator total = slices.parallelStream()
+                .collect(() -> new Accumulator(groups), (accumulator, slice) -> accumulator.add(snapshot.prices, slice),
+                        Accumulator::merge);
+        int currencyCount = snapshot.currencyCodes.size();
+        List<CategoryStatsDTO> categories = new ArrayList<>(snapshot.categoryNames.size());
+        for (int category = 0; category < snapshot.categoryNames.size(); category++) {
+            long count = 0;
+            List<PriceStatsDTO> prices = new ArrayList<>();
+            for (int currency = 0; currency < currencyCount; currency++) {
+                int group = category * currencyCount + currency;
+                count += snapshot.counts[group];
+                if (total.priced[group] > 0) {
+                    prices.add(total.toDto(snapshot.currencyCodes.get(currency), group));
+                }
+            }
+            if (count > 0) {
+                prices.sort(Comparator.comparing(PriceStatsDTO::getCurrencyCode));
+                categories.add(new CategoryStatsDTO(snapshot.categoryNames.get(category), count, prices));
+            }
+        }
+        categories.sort(Comparator.comparing(CategoryStatsDTO::getCategoryName));
+        Accumulator perCurrency = total.byCurrency(currencyCount);
+        List<PriceStatsDTO> currencies = new ArrayList<>(currencyCount);
+        for (int currency = 0; currency < currencyCount; currency++) {
+            if (perCurrency.priced[currency] > 0) {
+                currencies.add(perCurrency.toDto(snapshot.currencyCodes.get(currency), currency));
+            }
+        }
+        currencies.sort(Comparator.comparing(PriceStatsDTO::getCurrencyCode));
+        return new ProductStatsDTO(snapshot.size, snapshot.snapshotTime, categories, currencies);
+    }
+    
+    private static long scaledPrice(BigDecimal price) {
+        return price == null ? NO_PRICE : price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    private static BigDecimal unscaled(long price) {
+        return BigDecimal.valueOf(price, PRICE_SCALE);
+    }
+    
+    /**
+     * Assigns dense ordinals to the category or currency IDs met while reading the products.
+     */
+    private static final class Dictionary {
+        private final Map<Long, String> namesById;
+        private final LongFunction<String> resolver;
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        
+        Dictionary(Map<Long, String> namesById, LongFunction<String> resolver) {
+            this.namesById = namesById;
+            this.resolver = resolver;
+        }
+        
+        int ordinal(long id) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal == null) {
+                ordinal = names.size();
+                String name = namesById.get(id);
+                names.add(name != null ? name : resolver.apply(id));
+                ordinals.put(id, ordinal);
+            }
+            return ordinal;
+        }
+    }
+    
+    /**
+     * An immutable snapshot. The prices are clustered by group, a group being a category and currency pair:
+     * the prices of group {@code g} occupy {@code [offsets[g], offsets[g + 1])} of the direct buffer, so every group
+     * is aggregated by a branch-free pass over contiguous memory. Products without a price are only counted.
+     */
+    static final class Columns {
+        static final Columns EMPTY = new ColumnsBuilder(0).build(List.of(), List.of(), null, 0);
+        
+        private final int size;
+        private final LongBuffer prices;
+        private final int[] offsets;
+        private final long[] counts;
+        private final List<String> categoryNames;
+        private final List<String> currencyCodes;
+        private final LocalDateTime snapshotTime;
+        private final long builtAt;
+        
+        private Columns(int size, LongBuffer prices, int[] offsets, long[] counts, List<String> categoryNames,
+                        List<String> currencyCodes, LocalDateTime snapshotTime, long builtAt) {
+            this.size = size;
+            this.prices = prices;
+            this.offsets = offsets;
+            this.counts = counts;
+            this.categoryNames = categoryNames;
+            this.currencyCodes = currencyCodes;
+            this.snapshotTime = snapshotTime;
+            this.builtAt = builtAt;
+        }
+        
+        int groups() {
+            return categoryNames.size() * currencyCodes.size();
+        }
+    }
+    
+    /**
+     * Stages rows in direct buffers in read order, growing them by half when full, and clusters the prices by group
+     * on {@link #build}. The staging buffers are released with the builder.
+     */
+    static final class ColumnsBuilder {
+        private LongBuffer prices;
+        private IntBuffer categories;
+        private IntBuffer currencies;
+        private int size;
+        
+        ColumnsBuilder(int expectedSize) {
+            allocate(Math.max(INITIAL_CAPACITY, expectedSize));
+        }
+        
+        void add(long price, int category, int currency) {
+            if (size == prices.capacity()) {
+                grow();
+            }
+            prices.put(size, price);
+            categories.put(size, category);
+            currencies.put(size, currency);
+            size++;
+        }
+        
+        Columns build(List<String> categoryNames, List<String> currencyCodes, LocalDateTime snapshotTime, long builtAt) {
+            int currencyCount = currencyCodes.size();
+            int groups = categoryNames.size() * currencyCount;
+            long[] counts = new long[groups];
+            int[] offsets = new int[groups + 1];
+            for (int i = 0; i < size; i++) {
+                int group = categories.get(i) * currencyCount + currencies.get(i);
+                counts[group]++;
+                if (prices.get(i) != NO_PRICE) {
+                    offsets[group + 1]++;
+                }
+            }
+            for (int group = 0; group < groups; group++) {
+                offsets[group + 1] += offsets[group];
+            }
+            LongBuffer clustered = longBuffer(Math.max(1, offsets[groups]));
+            int[] positions = Arrays.copyOf(offsets, groups);
+            for (int i = 0; i < size; i++) {
+                long price = prices.get(i);
+                if (price != NO_PRICE) {
+                    clustered.put(positions[categories.get(i) * currencyCount + currencies.get(i)]++, price);
+                }
+            }
+            return new Columns(size, clustered.asReadOnlyBuffer(), offsets, counts, List.copyOf(categoryNames),
+                    List.copyOf(currencyCodes), snapshotTime, builtAt);
+        }
+        
+        private void grow() {
+            LongBuffer oldPrices = prices;
+            IntBuffer oldCategories = categories;
+            IntBuffer oldCurrencies = currencies;
+            allocate(Math.addExact(size, Math.max(INITIAL_CAPACITY, size >> 1)));
+            prices.put(0, oldPrices, 0, size);
+            categories.put(0, oldCategories, 0, size);
+            currencies.put(0, oldCurrencies, 0, size);
+        }
+        
+        private void allocate(int capacity) {
+            prices = longBuffer(capacity);
+            categories = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, Integer.BYTES)).order(ByteOrder.nativeOrder()).asIntBuffer();
+            currencies = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, Integer.BYTES)).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        
+        private static LongBuffer longBuffer(int capacity) {
+            return ByteBuffer.allocateDirect(Math.multiplyExact(capacity, Long.BYTES)).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+    
+    /**
+     * A range of the prices of one group, aggregated by one parallel task.
+     */
+    private record Slice(int group, int from, int to) { }
+    
+    /**
+     * Per group counts, sums and bounds of the scaled prices.
+     */
+    private static final class Accumulator {
+        private final long[] priced;
+        private final long[] sums;
+        private final long[] mins;
+        private final long[] maxs;
+        
+        Accumulator(int groups) {
+            priced = new long[groups];
+            sums = new long[groups];
+            mins = new long[groups];
+            maxs = new long[groups];
+            Arrays.fill(mins, Long.MAX_VALUE);
+            Arrays.fill(maxs, Long.MIN_VALUE);
+        }
+        
+        /**
+         * Aggregates one slice. The loop has no branches and reads the prices sequentially.
+         */
+        void add(LongBuffer prices, Slice slice) {
+            long sum = 0;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = slice.from(); i < slice.to(); i++) {
+                long price = prices.get(i);
+                sum += price;
+                min = Math.min(min, price);
+                max = Math.max(max, price);
+            }
+            int group = slice.group();
+            priced[group] += slice.to() - slice.from();
+            sums[group] += sum;
+            mins[group] = Math.min(mins[group], min);
+            maxs[group] = Math.max(maxs[group], max);
+        }
+        
+        Accumulator merge(Accumulator other) {
+            for (int group = 0; group < priced.length; group++) {
+                add(group, other, group);
+            }
+            return this;
+        }
+        
+        /**
+         * Folds the category and currency groups into one group per currency.
+         */
+        Accumulator byCurrency(int currencyCount) {
+            Accumulator perCurrency = new Accumulator(currencyCount);
+            for (int group = 0; group < priced.length; group++) {
+                perCurrency.add(group % currencyCount, this, group);
+            }
+            return perCurrency;
+        }
+        
+        PriceStatsDTO toDto(String currencyCode, int group) {
+            BigDecimal average = BigDecimal.valueOf(sums[group], PRICE_SCALE)
+                    .divide(BigDecimal.valueOf(priced[group]), PRICE_SCALE, RoundingMode.HALF_UP);
+            return new PriceStatsDTO(currencyCode, priced[group], unscaled(mins[group]), unscaled(maxs[group]), average);
+        }
+        
+        private void add(int group, Accumulator other, int otherGroup) {
+            priced[group] += other.priced[otherGroup];
+            sums[group] += other.sums[otherGroup];
+            mins[group] = Math.min(mins[group], other.mins[otherGroup]);
+            maxs[group] = Math.max(maxs[group], other.maxs[otherGroup]);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.covestro.service;
+
+import com.covestro.config.ProductUpdateCoalescingProperties;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Merges concurrent updates to the same product into one database write.
+ * <p>
+ * Each update is resolved on its own first, e.g. its category is looked up, so an invalid update fails
+ * only its caller and never joins a batch. A resolved update to a product without a pending batch opens one and
+ * schedules its write after {@link ProductUpdateCoalescingProperties#getWindow()}. Updates resolved before the write
+ * starts join the batch, and since every update replaces all fields, the batch is written with the last one. Updates
+ * resolved while the write is running open the next batch, which is written as soon as the running write completes,
+ * so writes to one product never overlap and are applied in the order their updates were resolved. All callers of a
+ * batch get the result of its write: the product in its final state, empty if it does not exist, or the error.
+ * <p>
+ * The write is subscribed to with the Reactor context of the caller that opened its batch, so blocking tasks of the
+ * write are attributed to that caller's operation, e.g. by {@link com.covestro.config.BlockingTaskExecutor}.
+ * <p>
+ * The queue state per product is guarded by one of {@link ProductUpdateCoalescingProperties#getStripes()} locks.
+ * Updates that did not need a write of their own are counted in {@code product.updates.coalesced}.
+ */
+@Component
+@Slf4j
+public class ProductUpdateCoalescer {
+    
+    private final boolean enabled;
+    private final Duration window;
+    private final Object[] locks;
+    private final Map<Long, Queue> queues = new ConcurrentHashMap<>();
+    private final Scheduler scheduler;
+    private final Counter coalescedCounter;
+    
+    @Autowired
+    public ProductUpdateCoalescer(ProductUpdateCoalescingProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Schedulers.parallel());
+    }
+    
+    ProductUpdateCoalescer(ProductUpdateCoalescingProperties properties, MeterRegistry meterRegistry,
+                           Scheduler scheduler) {
+        if (properties.getStripes() < 1) {
+            throw new IllegalArgumentException("stripes must be positive: " + properties.getStripes());
+        }
+        this.enabled = properties.isEnabled();
+        this.window = properties.getWindow();
+        this.locks = new Object[properties.getStripes()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        this.scheduler = scheduler;
+        this.coalescedCounter = Counter.builder("product.updates.coalesced")
+                .description("Product updates merged into the database write of another update")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Resolves an update and queues it, or writes it right away if coalescing is disabled.
+     *
+     * @param id ID of the product to update
+     * @param update Resolves the update to apply. An error fails only this caller, nothing is queued
+     * @param writer Writes a resolved update, emitting the saved product or nothing if the product does not exist
+     * @param <U> Type of the resolved update
+     * @return Mono with the result of the write the update was merged into. Cancelling it does not cancel the write
+     */
+    public <U> Mono<Product> update(Long id, Mono<U> update, BiFunction<Long, U, Mono<Product>> writer) {
+        if (!enabled) {
+            return update.flatMap(resolved -> writer.apply(id, resolved));
+        }
+        // queued on subscription, so an update rejected by an open circuit breaker is never written
+        return update.flatMap(resolved -> Mono.deferContextual(context -> enqueue(id, resolved, writer, context)));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <U> Mono<Product> enqueue(Long id, U update, BiFunction<Long, U, Mono<Product>> writer,
+                                      ContextView context) {
+        Batch batch;
+        boolean schedule = false;
+        synchronized (lock(id)) {
+            Queue queue = queues.computeIfAbsent(id, key -> new Queue());
+            if (queue.pending == null) {
+                queue.pending = new Batch((BiFunction<Long, Object, Mono<Product>>) writer, context);
+                // while a write is running, its completion starts the next one
+                schedule = !queue.writing;
+            } else {
+                coalescedCounter.increment();
+            }
+            batch = queue.pending;
+            batch.update = update;
+        }
+        if (schedule) {
+            Mono.delay(window, scheduler).subscribe(tick -> write(id));
+        }
+        return batch.result.asMono();
+    }
+    
+    private void write(Long id) {
+        Batch batch;
+        synchronized (lock(id)) {
+            Queue queue = queues.get(id);
+            batch = queue.pending;
+            queue.pending = null;
+            queue.writing = true;
+        }
+        Mono.defer(() -> batch.writer.apply(id, batch.update))
+                .doFinally(signal -> next(id))
+                .contextWrite(batch.context)
+                .subscribe(
+                        product -> batch.result.tryEmitValue(product),
+                        error -> batch.result.tryEmitError(error),
+                        () -> batch.result.tryEmitEmpty());
+    }
+    
+    private void next(Long id) {
+        boolean pending;
+        synchronized (lock(id)) {
+            Queue queue = queues.get(id);
+            queue.writing = false;
+            pending = queue.pending != null;
+            if (!pending) {
+                queues.remove(id);
+            }
+        }
+        if (pending) {
+            write(id);
+        }
+    }
+    
+    private Object lock(Long id) {
+        return locks[Math.floorMod(id.hashCode(), locks.length)];
+    }
+    
+    /**
+     * Number of products with a pending or running write.
+     */
+    int size() {
+        return queues.size();
+    }
+    
+    private static final class Queue {
+        private Batch pending;
+        private boolean writing;
+    }
+    
+    private static final class Batch {
+        private final Sinks.One<Product> result = Sinks.one();
+        private final BiFunction<Long, Object, Mono<Product>> writer;
+        private final ContextView context;
+        private Object update;
+        
+        private Batch(BiFunction<Long, Object, Mono<Product>> writer, ContextView context) {
+            this.writer = writer;
+            this.context = context;
+        }
+    }
+}
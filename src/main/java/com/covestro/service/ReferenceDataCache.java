@@ -0,0 +1,174 @@
+package com.covestro.service;
+
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process cache of the {@link Currency} and {@link Category} reference data, keyed by code and name.
+ * <p>
+ * Both tables hold a few dozen rows that almost never change, so they are preloaded completely once the
+ * application is ready and read through on a miss. Lookups that hit the cache never touch the database.
+ * Hits and misses are exported as {@code cache.gets} with the tags {@code cache} and {@code result}.
+ */
+@Component
+@Slf4j
+public class ReferenceDataCache {
+    static final String CURRENCY_CACHE = "currency";
+    static final String CATEGORY_CACHE = "category";
+    
+    private final CurrencyRepository currencyRepository;
+    private final CategoryRepository categoryRepository;
+    private final Map<String, Currency> currencies = new ConcurrentHashMap<>();
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+    private final Counter currencyHits;
+    private final Counter currencyMisses;
+    private final Counter categoryHits;
+    private final Counter categoryMisses;
+    
+    public ReferenceDataCache(CurrencyRepository currencyRepository,
+                              CategoryRepository categoryRepository,
+                              MeterRegistry meterRegistry) {
+        this.currencyRepository = currencyRepository;
+        this.categoryRepository = categoryRepository;
+        this.currencyHits = getsCounter(meterRegistry, CURRENCY_CACHE, "hit");
+        this.currencyMisses = getsCounter(meterRegistry, CURRENCY_CACHE, "miss");
+        this.categoryHits = getsCounter(meterRegistry, CATEGORY_CACHE, "hit");
+        this.categoryMisses = getsCounter(meterRegistry, CATEGORY_CACHE, "miss");
+        Gauge.builder("cache.size", currencies, Map::size).tag("cache", CURRENCY_CACHE).register(meterRegistry);
+        Gauge.builder("cache.size", categories, Map::size).tag("cache", CATEGORY_CACHE).register(meterRegistry);
+    }
+    
+    /**
+     * Loads all currencies and categories, replacing the current cache content.
+     * Runs once the application is ready, i.e. after the startup catalog import.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        Map<String, Currency> loadedCurrencies = new ConcurrentHashMap<>();
+        Map<String, Category> loadedCategories = new ConcurrentHashMap<>();
+        currencyRepository.findAll().forEach(currency -> loadedCurrencies.put(currency.getCode(), currency));
+        categoryRepository.findAll().forEach(category -> loadedCategories.put(category.getName(), category));
+        currencies.keySet().retainAll(loadedCurrencies.keySet());
+        currencies.putAll(loadedCurrencies);
+        categories.keySet().retainAll(loadedCategories.keySet());
+        categories.putAll(loadedCategories);
+        log.info("Reference data cache loaded with {} currencies and {} categories", currencies.size(), categories.size());
+    }
+    
+    /**
+     * Returns the cached currency for the given code without accessing the database.
+     *
+     * @param code Currency code
+     * @return Cached currency or {@code null} on a miss
+     */
+    public Currency getCurrency(String code) {
+        Currency currency = currencies.get(code);
+        (currency != null ? currencyHits : currencyMisses).increment();
+        return currency;
+    }
+    
+    /**
+     * Returns the cached category for the given name without accessing the database.
+     *
+     * @param name Category name
+     * @return Cached category or {@code null} on a miss
+     */
+    public Category getCategory(String name) {
+        Category category = categories.get(name);
+        (category != null ? categoryHits : categoryMisses).increment();
+        return category;
+    }
+    
+    /**
+     * Reads a currency through the cache, creating it if it does not exist. A newly created currency
+     * replaces any previous cache state for its code. Blocking.
+     *
+     * @param code Currency code to find/create
+     * @return Existing or newly created currency entity
+     */
+    public Currency findOrCreateCurrency(String code) {
+        Currency cached = currencies.get(code);
+        if (cached != null) {
+            return cached;
+        }
+        Currency currency = currencyRepository.findByCode(code)
+                .orElseGet(() -> createCurrency(code));
+        currencies.put(code, currency);
+        return currency;
+    }
+    
+    /**
+     * Reads a category through the cache. Unknown names are not cached. Blocking.
+     *
+     * @param name Category name
+     * @return The category, or empty if it does not exist
+     */
+    public Optional<Category> findCategory(String name) {
+        Category cached = categories.get(name);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Category> category = categoryRepository.findByName(name);
+        category.ifPresent(found -> categories.put(name, found));
+        return category;
+    }
+    
+    /**
+     * Caches a currency that was read or created elsewhere, e.g. through a non-blocking data path.
+     *
+     * @param currency Persisted currency
+     */
+    public void putCurrency(Currency currency) {
+        currencies.put(currency.getCode(), currency);
+    }
+    
+    /**
+     * Caches a category that was read elsewhere, e.g. through a non-blocking data path.
+     *
+     * @param category Persisted category
+     */
+    public void putCategory(Category category) {
+        categories.put(category.getName(), category);
+    }
+    
+    /**
+     * Drops all cached entries. The next lookups read through to the database.
+     */
+    public void invalidate() {
+        currencies.clear();
+        categories.clear();
+    }
+    
+    private Currency createCurrency(String code) {
+        Currency newCurrency = new Currency();
+        newCurrency.setCode(code);
+        try {
+            return currencyRepository.save(newCurrency);
+        } catch (DataIntegrityViolationException e) {
+            // created concurrently by another request, the unique code makes this safe to re-read
+            return currencyRepository.findByCode(code).orElseThrow(() -> e);
+        }
+    }
+    
+    private static Counter getsCounter(MeterRegistry meterRegistry, String cache, String result) {
+        return Counter.builder("cache.gets")
+                .tag("cache", cache)
+                .tag("result", result)
+                .description("Reference data cache lookups")
+                .register(meterRegistry);
+    }
+}
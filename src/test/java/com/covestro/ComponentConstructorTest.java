@@ -0,0 +1,51 @@
+package com.covestro;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks without a database that Spring can pick a constructor for every scanned bean, which the integration tests
+ * only notice when the whole application context fails to start.
+ */
+class ComponentConstructorTest {
+    
+    @Test
+    void testEveryComponentShouldHaveAConstructorSpringCanUse() throws Exception {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(true);
+        AutowiredAnnotationBeanPostProcessor processor = new AutowiredAnnotationBeanPostProcessor();
+        List<String> components = new ArrayList<>();
+        List<String> unusable = new ArrayList<>();
+        
+        for (BeanDefinition definition : scanner.findCandidateComponents(ProductServiceApplication.class.getPackageName())) {
+            Class<?> type = ClassUtils.forName(definition.getBeanClassName(), getClass().getClassLoader());
+            components.add(type.getSimpleName());
+            Constructor<?>[] candidates = processor.determineCandidateConstructors(type, type.getName());
+            if (candidates == null && !hasNoArgConstructor(type)) {
+                unusable.add(type.getName());
+            }
+        }
+        
+        assertFalse(components.isEmpty());
+        assertTrue(components.contains(ProductServiceApplication.class.getSimpleName()));
+        assertTrue(unusable.isEmpty(), "No autowirable constructor: " + unusable);
+    }
+    
+    private static boolean hasNoArgConstructor(Class<?> type) {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (constructor.getParameterCount() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+package com.covestro.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingTaskExecutorTest {
+    
+    @Test
+    void testBoundedElasticModeShouldRunOnBoundedElasticThreads() {
+        BlockingTaskExecutor executor = new BlockingTaskExecutor(new BlockingTaskProperties(), new SimpleMeterRegistry());
+        
+        StepVerifier.create(executor.execute(() -> Thread.currentThread().getName()))
+                .assertNext(threadName -> assertTrue(threadName.startsWith("boundedElastic")))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testVirtualThreadModeShouldRunOnVirtualThreads() throws Exception {
+        BlockingTaskExecutor executor = new BlockingTaskExecutor(virtualThreadProperties(), new SimpleMeterRegistry());
+        
+        StepVerifier.create(executor.execute(() -> Thread.currentThread().isVirtual()))
+                .expectNext(true)
+                .verifyComplete();
+        
+        executor.destroy();
+    }
+    
+    @Test
+    void testShouldExposePendingActiveAndTimers() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BlockingTaskExecutor executor = new BlockingTaskExecutor(virtualThreadProperties(), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        Mono<Long> tasks = Flux.range(0, 3)
+                .flatMap(i -> executor.execute(() -> await(release)))
+                .count()
+                .cache();
+        tasks.subscribe();
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge(meterRegistry, "blocking.tasks.active") < 3 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(3, gauge(meterRegistry, "blocking.tasks.active"));
+        release.countDown();
+        assertEquals(3L, tasks.block(Duration.ofSeconds(5)));
+        
+        assertEquals(0, gauge(meterRegistry, "blocking.tasks.active"));
+        assertEquals(0, gauge(meterRegistry, "blocking.tasks.pending"));
+        assertEquals(3, meterRegistry.get("blocking.tasks.execution").tag("mode", "virtual_threads").timer().count());
+        assertEquals(3, meterRegistry.get("blocking.tasks.wait").timer().count());
+        executor.destroy();
+    }
+    
+    private BlockingTaskProperties virtualThreadProperties() {
+        BlockingTaskProperties properties = new BlockingTaskProperties();
+        properties.setMode(BlockingTaskProperties.Mode.VIRTUAL_THREADS);
+        return properties;
+    }
+    
+    private boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private double gauge(SimpleMeterRegistry meterRegistry, String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,207 @@
+package com.covestro.config.IT;
+
+import com.covestro.config.ProductLoader;
+import com.covestro.config.ProductLoaderProperties;
+import com.covestro.model.JsonProduct;
+import com.covestro.model.JsonProductList;
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.ProductRepository;
+import com.covestro.repository.ProductViewRepository;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import com.covestro.service.ProductCache;
+import com.covestro.service.ProductNameIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the previous whole-file {@code readValue} + per-row {@code save} import with the streaming,
+ * batched {@link ProductLoader} in its sequential and pipelined modes. Disabled by default; run with
+ * {@code mvn test -Dtest=ProductLoaderBenchmarkTest -Dbenchmark=true [-Dbenchmark.rows=1000000]}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ProductLoaderBenchmarkTest {
+    
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final String[] CURRENCIES = {"EUR", "USD", "INR", "JPY", "GBP"};
+    private static final String[] CATEGORIES = {"Coatings", "Plastics", "PerformanceMaterials", "Adhesives",
+            "Elastomers", "Films", "Foams", "Fibers", "Resins", "Additives"};
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductViewRepository productViewRepository;
+    
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+    
+    @Autowired
+    private CurrencyRepository currencyRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private ProductNameIndex productNameIndex;
+    
+    @TempDir
+    private static Path tempDir;
+    
+    @Container
+    private static final MySQLContainer<?> MY_SQL_CONTAINER = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("testtest")
+            .withReuse(true);
+    
+    @DynamicPropertySource
+    private static void setDatasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> MY_SQL_CONTAINER.getJdbcUrl() + "?rewriteBatchedStatements=true");
+        registry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
+        registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+    
+    @BeforeEach
+    void setUp() {
+        productViewRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        currencyRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+    }
+    
+    @Test
+    void compareWholeFileLoaderWithStreamingLoader() throws IOException {
+        Path catalog = writeCatalog(tempDir.resolve("products-" + ROWS + ".json"), ROWS);
+        
+        resetPeakHeap();
+        long legacyStart = System.nanoTime();
+        loadWholeFileRowByRow(catalog);
+        report("whole-file + save per row", legacyStart);
+        assertEquals(ROWS, productRepository.count());
+        
+        setUp();
+        
+        ProductLoaderProperties properties = new ProductLoaderProperties();
+        properties.setLocation(catalog.toUri().toString());
+        ProductLoader streamingLoader = new ProductLoader(productRepository, productJdbcRepository,
+                currencyRepository, categoryRepository, objectMapper, new DefaultResourceLoader(), properties,
+                productCache, productNameIndex);
+        resetPeakHeap();
+        long streamingStart = System.nanoTime();
+        streamingLoader.loadProductsFromJson();
+        report("streaming + JDBC batches of " + properties.getBatchSize(), streamingStart);
+        assertEquals(ROWS, productRepository.count());
+        
+        setUp();
+        
+        properties.setMode(ProductLoaderProperties.ImportMode.PIPELINED);
+        resetPeakHeap();
+        long pipelinedStart = System.nanoTime();
+        streamingLoader.loadProductsFromJson();
+        report("pipelined with " + properties.getWriterThreads() + " writers", pipelinedStart);
+        assertEquals(ROWS, productRepository.count());
+    }
+    
+    /**
+     * The import as it was implemented before streaming: bind the whole file, then one INSERT per product.
+     */
+    private void loadWholeFileRowByRow(Path catalog) throws IOException {
+        JsonProductList jsonProductList;
+        try (InputStream inputStream = Files.newInputStream(catalog)) {
+            jsonProductList = objectMapper.readValue(inputStream, JsonProductList.class);
+        }
+        Map<String, Currency> currencyMap = new HashMap<>();
+        Map<String, Category> categoryMap = new HashMap<>();
+        for (JsonProduct productJson : jsonProductList.getProducts()) {
+            Currency currency = currencyMap.computeIfAbsent(productJson.getCurrency().getCode(),
+                    code -> currencyRepository.save(new Currency(null, code)));
+            Category category = categoryMap.computeIfAbsent(productJson.getCategory().getName(),
+                    name -> categoryRepository.save(new Category(null, name)));
+            Product product = new Product();
+            product.setMaterialId(productJson.getMaterialId());
+            product.setName(productJson.getName());
+            product.setPrice(productJson.getPrice());
+            product.setCurrency(currency);
+            product.setCategory(category);
+            productRepository.save(product);
+        }
+    }
+    
+    private Path writeCatalog(Path path, int rows) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(path);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("products");
+            for (int i = 0; i < rows; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("materialId", String.format("M%09d", i));
+                generator.writeStringField("name", "Material " + i);
+                generator.writeNumberField("price", BigDecimal.valueOf(100 + i % 10_000, 2));
+                generator.writeStringField("currency", CURRENCIES[i % CURRENCIES.length]);
+                generator.writeStringField("category", CATEGORIES[i % CATEGORIES.length]);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return path;
+    }
+    
+    private void resetPeakHeap() {
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+    
+    private void report(String mode, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        log.info("{}: {} rows in {} s ({} rows/s), peak heap {} MB", mode, ROWS, String.format("%.1f", seconds),
+                Math.round(ROWS / seconds), peakHeap / (1024 * 1024));
+    }
+}
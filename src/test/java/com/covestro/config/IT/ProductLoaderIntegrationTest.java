@@ -4,6 +4,7 @@ import com.covestro.config.ProductLoader;
 import com.covestro.repository.CategoryRepository;
 import com.covestro.repository.CurrencyRepository;
 import com.covestro.repository.ProductRepository;
+import com.covestro.repository.ProductViewRepository;
 import com.covestro.repository.entity.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +32,9 @@ class ProductLoaderIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductViewRepository productViewRepository;
+    
     @Autowired
     private CurrencyRepository currencyRepository;
     
@@ -56,6 +60,7 @@ class ProductLoaderIntegrationTest {
     
     @BeforeEach
     void setUp() {
+        productViewRepository.deleteAllInBatch();
         productRepository.deleteAll();
         currencyRepository.deleteAll();
         categoryRepository.deleteAll();
@@ -73,6 +78,8 @@ class ProductLoaderIntegrationTest {
         Product firstProduct = loadedProducts.get(0);
         assertEquals("379457HY", firstProduct.getMaterialId(),
                 "First product material ID mismatch");
+        assertEquals(loadedProducts.size(), productViewRepository.count(),
+                "Product view should have one row per loaded product");
     }
     
     @Test
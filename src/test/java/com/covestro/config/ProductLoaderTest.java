@@ -1,32 +1,40 @@
 package com.covestro.config;
 
-import com.covestro.model.JsonProduct;
-import com.covestro.model.JsonProductList;
 import com.covestro.repository.CategoryRepository;
 import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.ProductJdbcRepository;
 import com.covestro.repository.ProductRepository;
 import com.covestro.repository.entity.Category;
 import com.covestro.repository.entity.Currency;
 import com.covestro.repository.entity.Product;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.covestro.service.ProductCache;
+import com.covestro.service.ProductNameIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentMatchers;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +43,9 @@ class ProductLoaderTest {
     @Mock
     private ProductRepository productRepository;
     
+    @Mock
+    private ProductJdbcRepository productJdbcRepository;
+    
     @Mock
     private CurrencyRepository currencyRepository;
     
@@ -42,129 +53,325 @@ class ProductLoaderTest {
     private CategoryRepository categoryRepository;
     
     @Mock
-    private ObjectMapper objectMapper;
+    private ProductCache productCache;
     
-    @InjectMocks
-    private ProductLoader productLoader;
+    @Mock
+    private ProductNameIndex productNameIndex;
+    
+    @TempDir
+    private Path tempDir;
     
-    private JsonProductList jsonProductList;
+    private ProductLoaderProperties properties;
+    private ProductLoader productLoader;
     private Currency mockCurrency;
     private Category mockCategory;
     
     @BeforeEach
     void setUp() {
-        jsonProductList = new JsonProductList();
-        List<JsonProduct> products = new ArrayList<>();
-        
-        JsonProduct product = new JsonProduct();
-        product.setMaterialId("123");
-        product.setName("Test Product");
-        product.setPrice(BigDecimal.TEN);
+        properties = new ProductLoaderProperties();
+        productLoader = new ProductLoader(productRepository, productJdbcRepository, currencyRepository,
+                categoryRepository, new ObjectMapper(), new DefaultResourceLoader(), properties, productCache,
+                productNameIndex);
         
-        JsonProduct.Currency currency = new JsonProduct.Currency();
-        currency.setCode("USD");
-        product.setCurrency(currency);
+        mockCurrency = new Currency(1L, "EUR");
+        mockCategory = new Category(1L, "Plastics");
+    }
+    
+    private void mockReferenceData() {
+        when(currencyRepository.findAll()).thenReturn(List.of(mockCurrency));
+        when(categoryRepository.findAll()).thenReturn(List.of(mockCategory));
+        lenient().when(currencyRepository.save(any(Currency.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+    
+    @Test
+    void testLoadProductsFromJson() throws IOException {
+        mockReferenceData();
         
-        JsonProduct.Category category = new JsonProduct.Category();
-        category.setName("Test Category");
-        product.setCategory(category);
+        productLoader.loadProductsFromJson();
         
-        products.add(product);
-        jsonProductList.setProducts(products);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> captor = ArgumentCaptor.forClass(List.class);
+        verify(productJdbcRepository, times(1)).batchInsert(captor.capture());
+        assertEquals(6, captor.getValue().size());
+        assertEquals("379457HY", captor.getValue().get(0).getMaterialId());
+        verify(productRepository, never()).save(any(Product.class));
+    }
+    
+    @Test
+    void testLoadProductsFromJsonWritesConfiguredBatchSize() throws IOException {
+        mockReferenceData();
+        properties.setBatchSize(4);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(productJdbcRepository.batchInsert(anyList())).thenAnswer(invocation -> {
+            List<Product> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch.size();
+        });
         
-        mockCurrency = new Currency();
-        mockCurrency.setCode("USD");
+        productLoader.loadProductsFromJson();
         
-        mockCategory = new Category();
-        mockCategory.setName("Test Category");
+        assertEquals(List.of(4, 2), batchSizes);
     }
     
     @Test
-    void testLoadProductsFromJson() throws IOException {
-        when(currencyRepository.findAll()).thenReturn(List.of(mockCurrency));
-        when(categoryRepository.findAll()).thenReturn(List.of(mockCategory));
-        when(productRepository.save(any(Product.class))).thenReturn(new Product());
-        when(currencyRepository.saveAll(any())).thenReturn(new ArrayList<>());
-        when(categoryRepository.saveAll(any())).thenReturn(new ArrayList<>());
+    void testLoadProductsFromJsonRetriesFailedBatchOneByOne() throws IOException {
+        mockReferenceData();
+        when(productJdbcRepository.batchInsert(anyList())).thenAnswer(invocation -> {
+            List<Product> batch = invocation.getArgument(0);
+            if (batch.size() > 1) {
+                throw new DuplicateKeyException("Duplicate entry");
+            }
+            return 1;
+        });
+        
+        productLoader.loadProductsFromJson();
         
-        doReturn(jsonProductList)
-                .when(objectMapper)
-                .readValue(any(InputStream.class), ArgumentMatchers.<TypeReference<JsonProductList>>any());
+        verify(productJdbcRepository, times(7)).batchInsert(anyList());
+    }
+    
+    @Test
+    void testLoadProductsFromJsonPipelined() throws IOException {
+        mockReferenceData();
+        properties.setMode(ProductLoaderProperties.ImportMode.PIPELINED);
+        properties.setBatchSize(2);
+        properties.setWriterThreads(2);
+        properties.setQueueCapacity(1);
+        List<String> savedMaterialIds = Collections.synchronizedList(new ArrayList<>());
+        when(productJdbcRepository.batchInsert(anyList())).thenAnswer(invocation -> {
+            List<Product> batch = invocation.getArgument(0);
+            batch.forEach(product -> savedMaterialIds.add(product.getMaterialId()));
+            return batch.size();
+        });
         
         productLoader.loadProductsFromJson();
         
-        verify(productRepository, times(1)).save(any(Product.class));
-        verify(objectMapper, times(1)).readValue(any(InputStream.class), ArgumentMatchers.<TypeReference<JsonProductList>>any());
+        verify(productJdbcRepository, times(3)).batchInsert(anyList());
+        assertEquals(6, savedMaterialIds.size());
+        assertTrue(savedMaterialIds.containsAll(List.of("379457HY", "TT9898324")));
     }
     
     @Test
-    void testLoadProductsFromJsonThrowsException() throws IOException {
-        doThrow(new IOException()).when(objectMapper)
-                .readValue(any(InputStream.class), ArgumentMatchers.<TypeReference<JsonProductList>>any());
+    void testLoadProductsFromInvalidJsonPipelinedThrowsException() throws IOException {
+        Path catalog = Files.writeString(tempDir.resolve("products.json"), "{\"products\": [ {\"materialId\": ");
+        properties.setLocation(catalog.toUri().toString());
+        properties.setMode(ProductLoaderProperties.ImportMode.PIPELINED);
+        mockReferenceData();
         
         assertThrows(IOException.class, () -> productLoader.loadProductsFromJson());
         
-        verify(productRepository, never()).save(any(Product.class));
-        verify(objectMapper, times(1)).readValue(any(InputStream.class), ArgumentMatchers.<TypeReference<JsonProductList>>any());
+        verify(productJdbcRepository, never()).batchInsert(anyList());
     }
     
     @Test
-    void testLoadsProductsWhenDatabaseIsEmpty() throws IOException {
+    void testLoadProductsFromJsonThrowsException() {
+        properties.setLocation("classpath:missing-products.json");
+        
+        assertThrows(IOException.class, () -> productLoader.loadProductsFromJson());
+        
+        verify(productJdbcRepository, never()).batchInsert(anyList());
+    }
+    
+    @Test
+    void testLoadsProductsWhenDatabaseIsEmpty() {
         when(productRepository.count()).thenReturn(0L);
-        when(currencyRepository.findAll()).thenReturn(List.of(mockCurrency));
-        when(categoryRepository.findAll()).thenReturn(List.of(mockCategory));
-        when(productRepository.save(any(Product.class))).thenReturn(new Product());
-        when(currencyRepository.saveAll(any())).thenReturn(new ArrayList<>());
-        when(categoryRepository.saveAll(any())).thenReturn(new ArrayList<>());
+        mockReferenceData();
         
-        doReturn(jsonProductList)
-                .when(objectMapper)
-                .readValue(any(InputStream.class), ArgumentMatchers.<TypeReference<JsonProductList>>any());
+        productLoader.run();
+        
+        verify(productJdbcRepository, times(1)).batchInsert(anyList());
+    }
+    
+    @Test
+    void testDoesNotLoadProductsWhenDatabaseIsNotEmpty() {
+        when(productRepository.count()).thenReturn(1L);
         
         productLoader.run();
         
-        verify(productRepository, times(1)).save(any(Product.class));
-        verify(objectMapper, times(1)).readValue(any(InputStream.class), ArgumentMatchers.<TypeReference<JsonProductList>>any());
+        verify(productJdbcRepository, never()).batchInsert(anyList());
+        verify(currencyRepository, never()).findAll();
     }
     
     @Test
-    void testDoesNotLoadProductsWhenDatabaseIsNotEmpty() throws IOException {
+    void testRebuildsProductViewWhenDatabaseIsNotEmptyAndViewIsIncomplete() {
         when(productRepository.count()).thenReturn(1L);
+        when(productJdbcRepository.isViewComplete()).thenReturn(false);
         
         productLoader.run();
         
-        verify(productRepository, never()).save(any(Product.class));
-        verify(objectMapper, never()).readValue(any(InputStream.class), ArgumentMatchers.<TypeReference<JsonProductList>>any());
+        verify(productJdbcRepository, times(1)).rebuildView();
     }
     
     @Test
-    void testExtractAndSaveCurrenciesAndCategoriesOk() throws IOException {
-        when(currencyRepository.findAll()).thenReturn(List.of(mockCurrency));
-        when(categoryRepository.findAll()).thenReturn(List.of(mockCategory));
-        when(productRepository.save(any(Product.class))).thenReturn(new Product());
-        when(currencyRepository.saveAll(any())).thenReturn(new ArrayList<>());
-        when(categoryRepository.saveAll(any())).thenReturn(new ArrayList<>());
+    void testKeepsProductViewWhenItIsComplete() {
+        when(productRepository.count()).thenReturn(1L);
+        when(productJdbcRepository.isViewComplete()).thenReturn(true);
+        
+        productLoader.run();
         
-        doReturn(jsonProductList)
-                .when(objectMapper)
-                .readValue(any(InputStream.class), ArgumentMatchers.<TypeReference<JsonProductList>>any());
+        verify(productJdbcRepository, never()).rebuildView();
+    }
+    
+    @Test
+    void testResolvesMissingCurrenciesAndCategoriesOnce() throws IOException {
+        mockReferenceData();
         
         productLoader.loadProductsFromJson();
         
-        verify(currencyRepository, times(1)).saveAll(any());
-        verify(categoryRepository, times(1)).saveAll(any());
+        // EUR and Plastics exist already; USD, INR, JPY and PerformanceMaterials, Coatings are new
+        verify(currencyRepository, times(3)).save(any(Currency.class));
+        verify(categoryRepository, times(2)).save(any(Category.class));
     }
     
     @Test
-    void testExtractAndSaveCurrenciesAndCategoriesThrowsException() throws IOException {
-        when(objectMapper.readValue(any(InputStream.class), ArgumentMatchers.<TypeReference<JsonProductList>>any()))
-                .thenThrow(new IOException("JSON parsing failed"));
+    void testSyncsProductsWhenDatabaseIsNotEmptyAndSyncEnabled() {
+        properties.setSyncEnabled(true);
+        when(productRepository.count()).thenReturn(3L);
+        Currency eur = new Currency(1L, "EUR");
+        Category performanceMaterials = new Category(1L, "PerformanceMaterials");
+        Category coatings = new Category(2L, "Coatings");
+        when(currencyRepository.findAll()).thenReturn(List.of(eur));
+        when(categoryRepository.findAll()).thenReturn(List.of(performanceMaterials, coatings));
+        AtomicLong ids = new AtomicLong(100);
+        when(currencyRepository.save(any(Currency.class))).thenAnswer(invocation -> {
+            Currency currency = invocation.getArgument(0);
+            currency.setId(ids.incrementAndGet());
+            return currency;
+        });
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> {
+            Category category = invocation.getArgument(0);
+            category.setId(ids.incrementAndGet());
+            return category;
+        });
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(storedProduct(1L, "379457HY", "ATH50", "10.230", eur, performanceMaterials));
+            consumer.accept(storedProduct(2L, "3587KH987", "MX50", "6.00", eur, coatings));
+            consumer.accept(storedProduct(3L, "OBSOLETE1", "Old", "1.00", eur, coatings));
+            return null;
+        }).when(productJdbcRepository).forEachProduct(any());
+        
+        productLoader.run();
         
-        IOException exception = assertThrows(IOException.class, () -> productLoader.loadProductsFromJson());
-        assertEquals("JSON parsing failed", exception.getMessage());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(productJdbcRepository, times(1)).batchInsert(inserted.capture());
+        assertEquals(4, inserted.getValue().size());
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> updated = ArgumentCaptor.forClass(List.class);
+        verify(productJdbcRepository, times(1)).batchUpdate(updated.capture());
+        assertEquals(1, updated.getValue().size());
+        assertEquals(2L, updated.getValue().get(0).getId());
+        assertEquals(new BigDecimal("5.55"), updated.getValue().get(0).getPrice());
+        
+        verify(productJdbcRepository, times(1)).batchDelete(List.of(3L));
+        verify(productCache).invalidate(3L);
+        verify(productNameIndex).remove(3L);
+        verify(productNameIndex, never()).remove(1L);
+    }
+    
+    @Test
+    void testSyncWritesNothingWhenCatalogIsUnchanged() throws IOException {
+        Currency eur = new Currency(1L, "EUR");
+        Category performanceMaterials = new Category(1L, "PerformanceMaterials");
+        Path catalog = Files.writeString(tempDir.resolve("products.json"), """
+                {"products": [{"materialId": "379457HY", "name": "ATH50", "price": 10.23,
+                               "currency": "EUR", "category": "PerformanceMaterials"}]}
+                """);
+        properties.setLocation(catalog.toUri().toString());
+        when(currencyRepository.findAll()).thenReturn(List.of(eur));
+        when(categoryRepository.findAll()).thenReturn(List.of(performanceMaterials));
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(storedProduct(1L, "379457HY", "ATH50", "10.23", eur, performanceMaterials));
+            return null;
+        }).when(productJdbcRepository).forEachProduct(any());
+        
+        productLoader.syncProductsFromJson();
+        
+        verify(productJdbcRepository, never()).batchInsert(anyList());
+        verify(productJdbcRepository, never()).batchUpdate(anyList());
+        verify(productJdbcRepository, never()).batchDelete(anyList());
+    }
+    
+    @Test
+    void testSyncComparesPricesAtTheStoredScale() throws IOException {
+        Currency eur = new Currency(1L, "EUR");
+        Category performanceMaterials = new Category(1L, "PerformanceMaterials");
+        Path catalog = Files.writeString(tempDir.resolve("products.json"), """
+                {"products": [{"materialId": "379457HY", "name": "ATH50", "price": 4.567,
+                               "currency": "EUR", "category": "PerformanceMaterials"}]}
+                """);
+        properties.setLocation(catalog.toUri().toString());
+        when(currencyRepository.findAll()).thenReturn(List.of(eur));
+        when(categoryRepository.findAll()).thenReturn(List.of(performanceMaterials));
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(storedProduct(1L, "379457HY", "ATH50", "4.57", eur, performanceMaterials));
+            return null;
+        }).when(productJdbcRepository).forEachProduct(any());
+        
+        productLoader.syncProductsFromJson();
+        
+        verify(productJdbcRepository, never()).batchUpdate(anyList());
+    }
+    
+    @Test
+    void testSyncSkipsRepeatedMaterialIds() throws IOException {
+        Currency eur = new Currency(1L, "EUR");
+        Category performanceMaterials = new Category(1L, "PerformanceMaterials");
+        Path catalog = Files.writeString(tempDir.resolve("products.json"), """
+                {"products": [{"materialId": "NEW1", "name": "First", "price": 1.00,
+                               "currency": "EUR", "category": "PerformanceMaterials"},
+                              {"materialId": "NEW1", "name": "Second", "price": 2.00,
+                               "currency": "EUR", "category": "PerformanceMaterials"},
+                              {"materialId": "379457HY", "name": "ATH50", "price": 10.23,
+                               "currency": "EUR", "category": "PerformanceMaterials"},
+                              {"materialId": "379457HY", "name": "ATH51", "price": 10.23,
+                               "currency": "EUR", "category": "PerformanceMaterials"}]}
+                """);
+        properties.setLocation(catalog.toUri().toString());
+        when(currencyRepository.findAll()).thenReturn(List.of(eur));
+        when(categoryRepository.findAll()).thenReturn(List.of(performanceMaterials));
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(storedProduct(1L, "379457HY", "ATH50", "10.23", eur, performanceMaterials));
+            return null;
+        }).when(productJdbcRepository).forEachProduct(any());
+        
+        productLoader.syncProductsFromJson();
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(productJdbcRepository, times(1)).batchInsert(inserted.capture());
+        assertEquals(List.of("First"), inserted.getValue().stream().map(Product::getName).toList());
+        verify(productJdbcRepository, never()).batchUpdate(anyList());
+        verify(productJdbcRepository, never()).batchDelete(anyList());
+    }
+    
+    private Product storedProduct(Long id, String materialId, String name, String price,
+                                  Currency currency, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setMaterialId(materialId);
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setCurrency(new Currency(currency.getId(), null));
+        product.setCategory(new Category(category.getId(), null));
+        return product;
+    }
+    
+    @Test
+    void testLoadProductsFromInvalidJsonThrowsException() throws IOException {
+        Path catalog = Files.writeString(tempDir.resolve("products.json"), "{\"products\": [ {\"materialId\": ");
+        properties.setLocation(catalog.toUri().toString());
+        mockReferenceData();
+        
+        assertThrows(IOException.class, () -> productLoader.loadProductsFromJson());
         
-        verify(currencyRepository, never()).saveAll(any());
-        verify(categoryRepository, never()).saveAll(any());
-        verify(productRepository, never()).save(any());
+        verify(currencyRepository, never()).save(any(Currency.class));
+        verify(categoryRepository, never()).save(any(Category.class));
+        verify(productJdbcRepository, never()).batchInsert(anyList());
     }
 }
@@ -0,0 +1,148 @@
+package com.covestro.controller;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.covestro.config.AccessLogProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class AccessLogTest {
+    
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private AccessLogProperties properties;
+    private Logger accessLogger;
+    private SimpleMeterRegistry meterRegistry;
+    private AccessLog accessLog;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new AccessLogProperties();
+        accessLogger = mock(Logger.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        accessLog.destroy();
+    }
+    
+    @Test
+    void testSampledRequestShouldBeWrittenAsJsonRecord() throws Exception {
+        properties.setSampleRate(1);
+        accessLog = new AccessLog(properties, objectMapper, meterRegistry, accessLogger);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/products/42?targetCurrency=USD"));
+        
+        accessLog.filter(exchange, respondWith(HttpStatus.NOT_FOUND)).block();
+        
+        ArgumentCaptor<String> line = ArgumentCaptor.forClass(String.class);
+        verify(accessLogger, timeout(5000)).info(line.capture());
+        JsonNode entry = objectMapper.readTree(line.getValue());
+        assertEquals("GET", entry.get("method").asText());
+        assertEquals("/api/v1/products/42", entry.get("path").asText());
+        assertEquals("targetCurrency=USD", entry.get("query").asText());
+        assertEquals(404, entry.get("status").asInt());
+        assertEquals(exchange.getRequest().getId(), entry.get("requestId").asText());
+        assertTrue(entry.get("durationMs").asDouble() >= entry.get("commitMs").asDouble());
+        assertTrue(entry.get("timestamp").isTextual());
+    }
+    
+    @Test
+    void testUnsampledRequestShouldOnlyBeWrittenForServerErrors() {
+        properties.setSampleRate(0);
+        accessLog = new AccessLog(properties, objectMapper, meterRegistry, accessLogger);
+        
+        accessLog.filter(exchange(), respondWith(HttpStatus.OK)).block();
+        verify(accessLogger, after(100).never()).info(anyString());
+        
+        accessLog.filter(exchange(), respondWith(HttpStatus.SERVICE_UNAVAILABLE)).block();
+        verify(accessLogger, timeout(5000)).info(anyString());
+    }
+    
+    @Test
+    void testDisabledAccessLogShouldNotWrite() {
+        properties.setEnabled(false);
+        properties.setSampleRate(1);
+        accessLog = new AccessLog(properties, objectMapper, meterRegistry, accessLogger);
+        
+        accessLog.filter(exchange(), respondWith(HttpStatus.INTERNAL_SERVER_ERROR)).block();
+        
+        verify(accessLogger, after(100).never()).info(anyString());
+        assertEquals(0, meterRegistry.get("access.log.dropped").counter().count());
+    }
+    
+    @Test
+    void testWriterShouldFlushTheAppenderOnceTheBufferIsDrained() {
+        properties.setSampleRate(1);
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setImmediateFlush(false);
+        appender.setOutputStream(new BufferedOutputStream(file, 8192));
+        appender.start();
+        ch.qos.logback.classic.Logger logger = context.getLogger(AccessLogTest.class.getName() + ".flush");
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        accessLog = new AccessLog(properties, objectMapper, meterRegistry, logger);
+        
+        accessLog.filter(exchange(), respondWith(HttpStatus.OK)).block();
+        
+        await(() -> file.toString(StandardCharsets.UTF_8).contains("\"path\":\"/api/v1/products\""));
+        logger.detachAndStopAllAppenders();
+    }
+    
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+    
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/products"));
+    }
+    
+    private static WebFilterChain respondWith(HttpStatus status) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            return exchange.getResponse().setComplete();
+        };
+    }
+}
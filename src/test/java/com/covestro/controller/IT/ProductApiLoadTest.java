@@ -0,0 +1,303 @@
+package com.covestro.controller.IT;
+
+import com.covestro.config.BlockingTaskProperties;
+import com.covestro.dto.ProductRequestDTO;
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.repository.ProductRepository;
+import com.covestro.repository.entity.Product;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the product API over HTTP with a weighted mix of get-by-ID, list, create and update requests at a fixed
+ * arrival rate and records the latency of every request in an HdrHistogram per operation.
+ * <p>
+ * The load is an open model: request {@code n} is due at {@code start + n / rate}, regardless of how many earlier
+ * requests are still outstanding, and its latency is measured from that due time. A stalled server therefore shows up
+ * in the percentiles with the time requests waited to be sent (coordinated omission correction), instead of slowing the
+ * load generator down. After a warm-up at the same rate, the percentile distribution of each operation is written to
+ * {@code target/load-test/<operation>.hgrm} and a summary with the scheduler, connection pool and circuit breaker
+ * configuration to {@code target/load-test/summary.txt}. Disabled by default; run with
+ * {@code mvn test -Dtest=ProductApiLoadTest -Dbenchmark=true [-Dbenchmark.rate=500] [-Dbenchmark.seconds=60]
+ * [-Dbenchmark.warmup.seconds=10] [-Dbenchmark.mix=get:70,list:10,create:10,update:10]}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ProductApiLoadTest {
+    
+    private static final int RATE = Integer.getInteger("benchmark.rate", 200);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 30));
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup.seconds", 10));
+    private static final String MIX = System.getProperty("benchmark.mix", "get:70,list:10,create:10,update:10");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Path REPORT_DIRECTORY = Path.of("target", "load-test");
+    private static final int LIST_PAGE_SIZE = 100;
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    
+    @Autowired
+    private BlockingTaskProperties blockingTaskProperties;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Container
+    private static final MySQLContainer<?> MY_SQL_CONTAINER = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("testtest")
+            .withReuse(true);
+    
+    private final AtomicLong createdCount = new AtomicLong();
+    private List<Product> products;
+    private WebClient webClient;
+    
+    @DynamicPropertySource
+    private static void setDatasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> MY_SQL_CONTAINER.getJdbcUrl() + "?rewriteBatchedStatements=true");
+        registry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
+        registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+    
+    @Test
+    void driveProductApiAtFixedArrivalRate() throws IOException {
+        // the catalog of products.json loaded on startup
+        products = productRepository.findAll();
+        assertTrue(products.size() > 0, "the load test needs the startup catalog");
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port + "/api/v1/products")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(ConnectionProvider.builder("load-test")
+                        .maxConnections(4096)
+                        .pendingAcquireMaxCount(-1)
+                        .build())))
+                .build();
+        List<Operation> operations = operations(MIX);
+        
+        run(operations, WARMUP);
+        Map<String, Stats> results = run(operations, DURATION);
+        
+        writeReport(operations, results);
+        assertTrue(results.values().stream().anyMatch(stats -> stats.latencies().getTotalCount() > 0));
+    }
+    
+    /**
+     * Sends requests at {@link #RATE} per second for {@code duration} and waits for the outstanding ones.
+     *
+     * @return The latencies in microseconds and the error count per operation
+     */
+    private Map<String, Stats> run(List<Operation> operations, Duration duration) {
+        Map<String, Stats> results = new LinkedHashMap<>();
+        operations.forEach(operation -> results.put(operation.name(), new Stats(
+                new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3), new LongAdder())));
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        AtomicLong outstanding = new AtomicLong();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        
+        for (long due = start; due < end; due += intervalNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(operations, totalWeight);
+            Stats stats = results.get(operation.name());
+            long dueNanos = due;
+            outstanding.incrementAndGet();
+            operation.request().get()
+                    .timeout(REQUEST_TIMEOUT)
+                    .doOnError(e -> stats.errors().increment())
+                    .onErrorResume(e -> Mono.empty())
+                    .doFinally(signal -> {
+                        stats.latencies().recordValue(
+                                Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueNanos),
+                                        stats.latencies().getHighestTrackableValue()));
+                        outstanding.decrementAndGet();
+                    })
+                    .subscribe();
+        }
+        
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() * 2;
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return results;
+    }
+    
+    private static Operation pick(List<Operation> operations, int totalWeight) {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            value -= operation.weight();
+            if (value < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+    
+    /**
+     * Parses a mix like {@code get:70,list:10,create:10,update:10} into weighted operations.
+     */
+    private List<Operation> operations(String mix) {
+        List<Operation> operations = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                operations.add(new Operation(parts[0].trim(), weight, request(parts[0].trim())));
+            }
+        }
+        assertFalse(operations.isEmpty(), "benchmark.mix must contain at least one operation with weight > 0");
+        return operations;
+    }
+    
+    private Supplier<Mono<?>> request(String operation) {
+        return switch (operation) {
+            case "get" -> () -> webClient.get()
+                    .uri("/{id}", randomProduct().getId())
+                    .retrieve()
+                    .toBodilessEntity();
+            case "list" -> () -> webClient.get()
+                    .uri(uri -> uri.queryParam("after", randomProduct().getId() - 1)
+                            .queryParam("limit", LIST_PAGE_SIZE)
+                            .build())
+                    .retrieve()
+                    .bodyToFlux(ProductResponseDTO.class)
+                    .then();
+            case "create" -> () -> webClient.post()
+                    .bodyValue(requestBody(randomProduct(), "LT-" + port + "-" + createdCount.incrementAndGet()))
+                    .retrieve()
+                    .toBodilessEntity();
+            case "update" -> () -> {
+                Product product = randomProduct();
+                return webClient.put()
+                        .uri("/{id}", product.getId())
+                        .bodyValue(requestBody(product, product.getMaterialId()))
+                        .retrieve()
+                        .toBodilessEntity();
+            };
+            default -> throw new IllegalArgumentException("Unknown operation in benchmark.mix: " + operation);
+        };
+    }
+    
+    private static ProductRequestDTO requestBody(Product product, String materialId) {
+        ProductRequestDTO request = new ProductRequestDTO();
+        request.setMaterialId(materialId);
+        request.setName(product.getName());
+        request.setPrice(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(100, 100_000), 2));
+        request.setCurrencyCode(product.getCurrency().getCode());
+        request.setCategoryName(product.getCategory().getName());
+        return request;
+    }
+    
+    private Product randomProduct() {
+        return products.get(ThreadLocalRandom.current().nextInt(products.size()));
+    }
+    
+    private void writeReport(List<Operation> operations, Map<String, Stats> results) throws IOException {
+        Files.createDirectories(REPORT_DIRECTORY);
+        for (Map.Entry<String, Stats> result : results.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(REPORT_DIRECTORY.resolve(result.getKey() + ".hgrm")))) {
+                // microseconds scaled to milliseconds
+                result.getValue().latencies().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("target rate %d req/s for %s after %s warm-up, mix %s", RATE, DURATION, WARMUP, operations));
+        lines.add(String.format("blocking calls on %s, boundedElastic cap %d threads, queue %d tasks",
+                blockingTaskProperties.getMode(), Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE));
+        if (dataSource instanceof HikariDataSource hikari) {
+            lines.add(String.format("connection pool %d connections", hikari.getMaximumPoolSize()));
+        }
+        for (CircuitBreaker circuitBreaker : circuitBreakerRegistry.getAllCircuitBreakers()) {
+            CircuitBreakerConfig config = circuitBreaker.getCircuitBreakerConfig();
+            CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+            lines.add(String.format("circuit breaker %s: %s window %d, min calls %d, failure threshold %.0f%%, "
+                            + "slow call %s over %.0f%%, open for %d ms; ended %s, failure rate %.1f%%, not permitted %d",
+                    circuitBreaker.getName(), config.getSlidingWindowType(), config.getSlidingWindowSize(),
+                    config.getMinimumNumberOfCalls(), config.getFailureRateThreshold(),
+                    config.getSlowCallDurationThreshold(), config.getSlowCallRateThreshold(),
+                    config.getWaitIntervalFunctionInOpenState().apply(1), circuitBreaker.getState(),
+                    metrics.getFailureRate(), metrics.getNumberOfNotPermittedCalls()));
+        }
+        lines.add(String.format("%-8s %9s %7s %9s %9s %9s %9s %9s %9s", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        double seconds = DURATION.toNanos() / 1e9;
+        results.forEach((name, stats) -> {
+            Histogram latencies = stats.latencies();
+            lines.add(String.format("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f", name, latencies.getTotalCount(),
+                    stats.errors().sum(), latencies.getTotalCount() / seconds,
+                    latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(90) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0, latencies.getValueAtPercentile(99.9) / 1000.0,
+                    latencies.getMaxValue() / 1000.0));
+        });
+        Files.write(REPORT_DIRECTORY.resolve("summary.txt"), lines);
+        lines.forEach(log::info);
+    }
+    
+    private record Operation(String name, int weight, Supplier<Mono<?>> request) {
+        @Override
+        public String toString() {
+            return name + ":" + weight;
+        }
+    }
+    
+    private record Stats(Histogram latencies, LongAdder errors) {
+    }
+}
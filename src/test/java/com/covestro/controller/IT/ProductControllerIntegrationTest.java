@@ -2,11 +2,16 @@ package com.covestro.controller.IT;
 
 import com.covestro.dto.ProductRequestDTO;
 import com.covestro.dto.ProductResponseDTO;
+import com.covestro.dto.ProductSearchResultDTO;
 import com.covestro.repository.CategoryRepository;
 import com.covestro.repository.CurrencyRepository;
 import com.covestro.repository.ProductRepository;
+import com.covestro.repository.ProductViewRepository;
 import com.covestro.repository.entity.Category;
 import com.covestro.repository.entity.Currency;
+import com.covestro.service.ProductNameIndex;
+import com.covestro.service.ProductStatsStore;
+import com.covestro.service.ReferenceDataCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,8 +25,14 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
@@ -37,12 +48,24 @@ public class ProductControllerIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductViewRepository productViewRepository;
+    
     @Autowired
     private CurrencyRepository currencyRepository;
     
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private ProductNameIndex productNameIndex;
+    
+    @Autowired
+    private ProductStatsStore productStatsStore;
+    
     @Container
     private static final MySQLContainer<?> MY_SQL_CONTAINER = new MySQLContainer<>("mysql:8.0")
             .withDatabaseName("testdb")
@@ -60,9 +83,12 @@ public class ProductControllerIntegrationTest {
     
     @BeforeEach
     void setUp() {
+        productViewRepository.deleteAllInBatch();
         productRepository.deleteAll();
         currencyRepository.deleteAll();
         categoryRepository.deleteAll();
+        referenceDataCache.invalidate();
+        productNameIndex.rebuild();
         
         Currency currency = new Currency();
         currency.setCode("USD");
@@ -90,6 +116,43 @@ public class ProductControllerIntegrationTest {
                 .expectHeader().contentType(MediaType.APPLICATION_JSON);
     }
     
+    @Test
+    public void testStreamAllProductsAsNdjson() throws Exception {
+        ProductRequestDTO productRequestDTO = new ProductRequestDTO();
+        productRequestDTO.setMaterialId("12345");
+        productRequestDTO.setName("Test Product");
+        productRequestDTO.setPrice(new BigDecimal("100.00"));
+        productRequestDTO.setCurrencyCode("USD");
+        productRequestDTO.setCategoryName("TestCategory");
+        
+        webTestClient.post().uri("/api/v1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(productRequestDTO))
+                .exchange()
+                .expectStatus().isCreated();
+        
+        Flux<ProductResponseDTO> products = webTestClient.get().uri("/api/v1/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProductResponseDTO.class)
+                .getResponseBody();
+        
+        StepVerifier.create(products)
+                .expectNextMatches(product -> "12345".equals(product.getMaterialId()))
+                .verifyComplete();
+    }
+    
+    @Test
+    public void testStreamAllProductsAsServerSentEvents() {
+        webTestClient.get().uri("/api/v1/products")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM);
+    }
+    
     @Test
     public void testGetProductById() throws Exception {
         ProductRequestDTO productRequestDTO = new ProductRequestDTO();
@@ -117,6 +180,246 @@ public class ProductControllerIntegrationTest {
                 .expectHeader().contentType(MediaType.APPLICATION_JSON);
     }
     
+    @Test
+    public void testGetProductsByMaterialId() throws Exception {
+        ProductRequestDTO productRequestDTO = new ProductRequestDTO();
+        productRequestDTO.setMaterialId("12345");
+        productRequestDTO.setName("Test Product");
+        productRequestDTO.setPrice(new BigDecimal("100.00"));
+        productRequestDTO.setCurrencyCode("USD");
+        productRequestDTO.setCategoryName("TestCategory");
+        
+        webTestClient.post().uri("/api/v1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(productRequestDTO))
+                .exchange()
+                .expectStatus().isCreated();
+        
+        webTestClient.get().uri("/api/v1/products/by-material/12345")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.materialId").isEqualTo("12345");
+        
+        webTestClient.get().uri("/api/v1/products/by-material?materialIds=unknown,12345")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].materialId").isEqualTo("12345");
+        
+        webTestClient.get().uri("/api/v1/products/by-material/unknown")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+    
+    @Test
+    public void testSearchProductsWithFiltersAndCursor() {
+        List<ProductRequestDTO> requests = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            ProductRequestDTO productRequestDTO = new ProductRequestDTO();
+            productRequestDTO.setMaterialId("S" + i);
+            productRequestDTO.setName((i == 4 ? "Other " : "Resin ") + i);
+            productRequestDTO.setPrice(new BigDecimal(i * 10 + ".00"));
+            productRequestDTO.setCurrencyCode(i == 3 ? "EUR" : "USD");
+            productRequestDTO.setCategoryName("TestCategory");
+            requests.add(productRequestDTO);
+        }
+        webTestClient.post().uri("/api/v1/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus().isOk();
+        
+        ProductSearchResultDTO firstPage = webTestClient.get()
+                .uri("/api/v1/products/search?categoryName=TestCategory&currencyCode=USD&minPrice=10&namePrefix=Resin"
+                        + "&sort=PRICE&direction=DESC&limit=1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductSearchResultDTO.class)
+                .returnResult()
+                .getResponseBody();
+        assertEquals(List.of("S2"), firstPage.getProducts().stream().map(ProductResponseDTO::getMaterialId).toList());
+        
+        webTestClient.get()
+                .uri("/api/v1/products/search?categoryName=TestCategory&currencyCode=USD&minPrice=10&namePrefix=Resin"
+                        + "&sort=PRICE&direction=DESC&limit=1&cursor=" + firstPage.getNextCursor())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.products.length()").isEqualTo(1)
+                .jsonPath("$.products[0].materialId").isEqualTo("S1")
+                .jsonPath("$.nextCursor").doesNotExist();
+        
+        webTestClient.get().uri("/api/v1/products/search?minPrice=20&maxPrice=10")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+    
+    @Test
+    public void testSuggestProductsByNameFragment() throws Exception {
+        ProductRequestDTO productRequestDTO = new ProductRequestDTO();
+        productRequestDTO.setMaterialId("379457HY");
+        productRequestDTO.setName("Makrolon MX50 ATH");
+        productRequestDTO.setPrice(new BigDecimal("100.00"));
+        productRequestDTO.setCurrencyCode("USD");
+        productRequestDTO.setCategoryName("TestCategory");
+        
+        webTestClient.post().uri("/api/v1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(productRequestDTO))
+                .exchange()
+                .expectStatus().isCreated();
+        
+        webTestClient.get().uri("/api/v1/products/suggest?q=mx50")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].materialId").isEqualTo("379457HY");
+        
+        webTestClient.get().uri("/api/v1/products/suggest?q=mx")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+    
+    @Test
+    public void testGetProductStatsFromSnapshot() throws Exception {
+        ProductRequestDTO productRequestDTO = new ProductRequestDTO();
+        productRequestDTO.setMaterialId("STATS-1");
+        productRequestDTO.setName("Stats Product");
+        productRequestDTO.setPrice(new BigDecimal("12.50"));
+        productRequestDTO.setCurrencyCode("USD");
+        productRequestDTO.setCategoryName("TestCategory");
+        
+        webTestClient.post().uri("/api/v1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(productRequestDTO))
+                .exchange()
+                .expectStatus().isCreated();
+        productStatsStore.rebuild();
+        
+        webTestClient.get().uri("/api/v1/products/stats")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(1)
+                .jsonPath("$.categories[0].categoryName").isEqualTo("TestCategory")
+                .jsonPath("$.currencies[0].currencyCode").isEqualTo("USD")
+                .jsonPath("$.currencies[0].averagePrice").isEqualTo(12.5);
+    }
+    
+    @Test
+    public void testGetProductChangesSinceLastUpdate() throws Exception {
+        ProductRequestDTO productRequestDTO = new ProductRequestDTO();
+        productRequestDTO.setMaterialId("CHANGE-1");
+        productRequestDTO.setName("Changed Product");
+        productRequestDTO.setPrice(new BigDecimal("10.00"));
+        productRequestDTO.setCurrencyCode("USD");
+        productRequestDTO.setCategoryName("TestCategory");
+        
+        ProductResponseDTO created = webTestClient.post().uri("/api/v1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(productRequestDTO))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ProductResponseDTO.class)
+                .returnResult()
+                .getResponseBody();
+        
+        webTestClient.get().uri("/api/v1/products/changes?since={since}", created.getLastUpdate())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].materialId").isEqualTo("CHANGE-1");
+        
+        webTestClient.get().uri("/api/v1/products/changes?since={since}", created.getLastUpdate().plusSeconds(1))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(0);
+    }
+    
+    @Test
+    public void testConditionalGetReturnsNotModifiedUntilCatalogChanges() throws Exception {
+        ProductRequestDTO productRequestDTO = new ProductRequestDTO();
+        productRequestDTO.setMaterialId("ETAG-1");
+        productRequestDTO.setName("Versioned Product");
+        productRequestDTO.setPrice(new BigDecimal("10.00"));
+        productRequestDTO.setCurrencyCode("USD");
+        productRequestDTO.setCategoryName("TestCategory");
+        
+        String eTag = webTestClient.get().uri("/api/v1/products")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ProductResponseDTO.class)
+                .getResponseHeaders().getETag();
+        
+        webTestClient.get().uri("/api/v1/products")
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        
+        webTestClient.post().uri("/api/v1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(productRequestDTO))
+                .exchange()
+                .expectStatus().isCreated();
+        
+        webTestClient.get().uri("/api/v1/products")
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].materialId").isEqualTo("ETAG-1");
+    }
+    
+    @Test
+    public void testCreateAndUpdateProductsInBulk() {
+        ProductRequestDTO productRequestDTO = new ProductRequestDTO();
+        productRequestDTO.setMaterialId("12345");
+        productRequestDTO.setName("Test Product");
+        productRequestDTO.setPrice(new BigDecimal("100.00"));
+        productRequestDTO.setCurrencyCode("USD");
+        productRequestDTO.setCategoryName("TestCategory");
+        
+        webTestClient.post().uri("/api/v1/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(productRequestDTO, productRequestDTO))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("CREATED")
+                .jsonPath("$[0].product.materialId").isEqualTo("12345")
+                .jsonPath("$[1].status").isEqualTo("CONFLICT");
+        
+        productRequestDTO.setPrice(new BigDecimal("120.00"));
+        webTestClient.put().uri("/api/v1/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(productRequestDTO))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("UPDATED")
+                .jsonPath("$[0].product.price").isEqualTo(120.0);
+    }
+    
     @Test
     public void testCreateProduct() throws Exception {
         ProductRequestDTO productRequestDTO = new ProductRequestDTO();
@@ -0,0 +1,134 @@
+package com.covestro.controller;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.BlockingTaskProperties;
+import com.covestro.config.FxRateProperties;
+import com.covestro.config.ProductChangeFeedProperties;
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.service.CatalogVersion;
+import com.covestro.service.FxRateTable;
+import com.covestro.service.ProductBatchService;
+import com.covestro.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures what {@code ?targetCurrency=} adds to a full export of {@code GET /api/v1/products}, end to end: the
+ * controller runs in WebFlux behind a Reactor Netty server, and an HTTP client reads and discards the JSON array. The
+ * database is replaced by a stub that emits the products, so the overhead is measured against the cheapest possible
+ * export and is an upper bound for exports read from MySQL. Asserts that the median converted export takes less than
+ * {@code benchmark.maxOverhead} (5%) longer than the median plain one. Disabled by default; run with
+ * {@code mvn test -Dtest=PriceConversionExportBenchmarkTest -Dbenchmark=true [-Dbenchmark.products=1000000]}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class PriceConversionExportBenchmarkTest {
+    
+    private static final int PRODUCTS = Integer.getInteger("benchmark.products", 1_000_000);
+    private static final double MAX_OVERHEAD = Double.parseDouble(System.getProperty("benchmark.maxOverhead", "0.05"));
+    private static final int WARMUP_RUNS = 3;
+    private static final int RUNS = 9;
+    private static final String[] CURRENCIES = {"EUR", "USD", "INR", "JPY"};
+    private static final LocalDateTime LAST_UPDATE = LocalDateTime.of(2026, 1, 1, 0, 0);
+    
+    @Test
+    void benchmarkConversionOverheadOnFullListExport() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BlockingTaskExecutor blockingTaskExecutor = new BlockingTaskExecutor(new BlockingTaskProperties(), meterRegistry);
+        FxRateTable fxRateTable = new FxRateTable(new DefaultResourceLoader(), new ObjectMapper(), blockingTaskExecutor,
+                new FxRateProperties(), meterRegistry);
+        fxRateTable.reload();
+        ProductService productService = mock(ProductService.class);
+        when(productService.getAllProducts()).thenAnswer(invocation -> products());
+        
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.register(WebFluxConfiguration.class);
+            context.registerBean(ProductController.class, () -> new ProductController(productService,
+                    mock(ProductBatchService.class), fxRateTable, new CatalogVersion(), new ProductChangeFeedProperties()));
+            context.refresh();
+            DisposableServer server = HttpServer.create()
+                    .host("localhost")
+                    .port(0)
+                    .handle(new ReactorHttpHandlerAdapter(WebHttpHandlerBuilder.applicationContext(context).build()))
+                    .bindNow();
+            try {
+                HttpClient client = HttpClient.create().baseUrl("http://localhost:" + server.port())
+                        .responseTimeout(Duration.ofMinutes(5));
+                long plainBytes = export(client, "/api/v1/products")[1];
+                long convertedBytes = export(client, "/api/v1/products?targetCurrency=USD")[1];
+                assertTrue(plainBytes > PRODUCTS && convertedBytes > PRODUCTS, "export was cut short");
+                
+                long[] plain = new long[RUNS];
+                long[] converted = new long[RUNS];
+                for (int run = -WARMUP_RUNS; run < RUNS; run++) {
+                    long plainNanos = export(client, "/api/v1/products")[0];
+                    long convertedNanos = export(client, "/api/v1/products?targetCurrency=USD")[0];
+                    if (run >= 0) {
+                        plain[run] = plainNanos;
+                        converted[run] = convertedNanos;
+                    }
+                }
+                Arrays.sort(plain);
+                Arrays.sort(converted);
+                long plainMedian = plain[RUNS / 2];
+                long convertedMedian = converted[RUNS / 2];
+                double overhead = (double) convertedMedian / plainMedian - 1;
+                log.info("Exported {} products over HTTP: median {} ms plain ({} bytes), {} ms converted ({} bytes), "
+                                + "overhead {}%", PRODUCTS, plainMedian / 1_000_000, plainBytes,
+                        convertedMedian / 1_000_000, convertedBytes, String.format("%.1f", overhead * 100));
+                assertTrue(overhead < MAX_OVERHEAD, "conversion overhead was " + overhead);
+            } finally {
+                server.disposeNow();
+                blockingTaskExecutor.destroy();
+            }
+        }
+    }
+    
+    /**
+     * @return The time of one export in nanoseconds and its size in bytes
+     */
+    private static long[] export(HttpClient client, String uri) {
+        long start = System.nanoTime();
+        return client.get()
+                .uri(uri)
+                .responseConnection((response, connection) -> {
+                    assertEquals(200, response.status().code());
+                    return connection.inbound().receive().map(buffer -> (long) buffer.readableBytes());
+                })
+                .reduce(0L, Long::sum)
+                .map(bytes -> new long[]{System.nanoTime() - start, bytes})
+                .block();
+    }
+    
+    private static Flux<ProductResponseDTO> products() {
+        return Flux.range(0, PRODUCTS)
+                .map(i -> new ProductResponseDTO((long) i, "M" + i, "Product " + i,
+                        BigDecimal.valueOf(100 + i % 100_000, 2), CURRENCIES[i & 3], "Coatings", LAST_UPDATE));
+    }
+    
+    @EnableWebFlux
+    static class WebFluxConfiguration {
+    }
+}
@@ -1,27 +1,52 @@
 package com.covestro.controller;
 
+import com.covestro.config.ProductChangeFeedProperties;
 import com.covestro.dto.ProductRequestDTO;
 import com.covestro.dto.ProductResponseDTO;
+import com.covestro.dto.ProductSearchResultDTO;
+import com.covestro.dto.ProductStatsDTO;
+import com.covestro.dto.ProductSuggestionDTO;
+import com.covestro.repository.ProductSearchCriteria;
+import com.covestro.repository.ProductSearchCursor;
+import com.covestro.repository.ProductSortField;
 import com.covestro.repository.entity.Category;
 import com.covestro.repository.entity.Currency;
 import com.covestro.repository.entity.Product;
+import com.covestro.dto.BatchItemStatus;
+import com.covestro.service.CatalogVersion;
+import com.covestro.service.FallbackMarker;
+import com.covestro.service.FxRateTable;
+import com.covestro.service.PriceConverter;
+import com.covestro.service.ProductBatchService;
 import com.covestro.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +55,21 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
     
+    @Mock
+    private ProductBatchService productBatchService;
+    
+    @Mock
+    private FxRateTable fxRateTable;
+    
+    @Mock
+    private PriceConverter priceConverter;
+    
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+    
+    @Spy
+    private ProductChangeFeedProperties productChangeFeedProperties = new ProductChangeFeedProperties();
+    
     @InjectMocks
     private ProductController productController;
     
@@ -71,9 +111,9 @@ public class ProductControllerTest {
     
     @Test
     void testGetAllProductsShouldReturnFluxOfProductResponseDTO() {
-        when(productService.getAllProducts()).thenReturn(Flux.just(product));
+        when(productService.getAllProducts()).thenReturn(Flux.just(productResponseDTO));
         
-        Flux<ProductResponseDTO> result = productController.getAllProducts();
+        Flux<ProductResponseDTO> result = productController.getAllProducts(null, null, null, get("/api/v1/products")).getBody();
         
         StepVerifier.create(result)
                 .expectNextMatches(actualDto -> {
@@ -91,11 +131,131 @@ public class ProductControllerTest {
         verify(productService, times(1)).getAllProducts();
     }
     
+    @Test
+    void testGetAllProductsWithKeysetShouldReturnPage() {
+        when(productService.getProductsPage(10L, 20)).thenReturn(Flux.just(productResponseDTO));
+        
+        Flux<ProductResponseDTO> result = productController.getAllProducts(10L, 20, null, get("/api/v1/products")).getBody();
+        
+        StepVerifier.create(result)
+                .expectNextMatches(actualDto -> productResponseDTO.getId().equals(actualDto.getId()))
+                .verifyComplete();
+        
+        verify(productService, times(1)).getProductsPage(10L, 20);
+        verify(productService, never()).getAllProducts();
+    }
+    
+    @Test
+    void testGetAllProductsWithAfterOnlyShouldUseDefaultPageSize() {
+        when(productService.getProductsPage(10L, ProductService.DEFAULT_PAGE_SIZE)).thenReturn(Flux.empty());
+        
+        StepVerifier.create(productController.getAllProducts(10L, null, null, get("/api/v1/products")).getBody())
+                .verifyComplete();
+        
+        verify(productService, times(1)).getProductsPage(10L, ProductService.DEFAULT_PAGE_SIZE);
+    }
+    
+    @Test
+    void testGetAllProductsWithInvalidLimitShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productController.getAllProducts(null, ProductService.MAX_PAGE_SIZE + 1, null,
+                        get("/api/v1/products")));
+        
+        verifyNoInteractions(productService);
+    }
+    
+    @Test
+    void testSearchProductsShouldPassCriteriaToService() {
+        ProductSearchResultDTO page = new ProductSearchResultDTO(List.of(productResponseDTO), null);
+        when(productService.searchProducts(any(ProductSearchCriteria.class))).thenReturn(Mono.just(page));
+        String cursor = new ProductSearchCursor(ProductSortField.PRICE, new BigDecimal("5.00"), 3L).encode();
+        
+        StepVerifier.create(productController.searchProducts("TestCategory", "USD", BigDecimal.ONE, BigDecimal.TEN,
+                        "Test", ProductSortField.PRICE, Sort.Direction.DESC, 20, cursor))
+                .expectNext(page)
+                .verifyComplete();
+        
+        verify(productService, times(1)).searchProducts(new ProductSearchCriteria("TestCategory", "USD",
+                BigDecimal.ONE, BigDecimal.TEN, "Test", ProductSortField.PRICE, Sort.Direction.DESC,
+                new ProductSearchCursor(ProductSortField.PRICE, new BigDecimal("5.00"), 3L), 20));
+    }
+    
+    @Test
+    void testSearchProductsWithInvalidParametersShouldThrowIllegalArgumentException() {
+        String idCursor = new ProductSearchCursor(ProductSortField.ID, 3L, 3L).encode();
+        
+        assertThrows(IllegalArgumentException.class, () -> productController.searchProducts(null, null,
+                BigDecimal.TEN, BigDecimal.ONE, null, ProductSortField.ID, Sort.Direction.ASC, null, null));
+        assertThrows(IllegalArgumentException.class, () -> productController.searchProducts(null, null,
+                null, null, null, ProductSortField.ID, Sort.Direction.ASC, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> productController.searchProducts(null, null,
+                null, null, null, ProductSortField.ID, Sort.Direction.ASC, null, "not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> productController.searchProducts(null, null,
+                null, null, null, ProductSortField.NAME, Sort.Direction.ASC, null, idCursor));
+        
+        verifyNoInteractions(productService);
+    }
+    
+    @Test
+    void testSuggestProductsShouldTrimQueryAndUseDefaultLimit() {
+        ProductSuggestionDTO suggestion = new ProductSuggestionDTO(1L, "123", "Test Product");
+        when(productService.suggestProducts("test", ProductService.DEFAULT_SUGGESTIONS)).thenReturn(Flux.just(suggestion));
+        
+        StepVerifier.create(productController.suggestProducts(" test ", null))
+                .expectNext(suggestion)
+                .verifyComplete();
+    }
+    
+    @Test
+    void testSuggestProductsWithInvalidParametersShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> productController.suggestProducts(" te ", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> productController.suggestProducts("test", ProductService.MAX_SUGGESTIONS + 1));
+        
+        verifyNoInteractions(productService);
+    }
+    
+    @Test
+    void testGetProductStatsShouldReturnStats() {
+        ProductStatsDTO stats = new ProductStatsDTO(0, null, List.of(), List.of());
+        when(productService.getProductStats()).thenReturn(Mono.just(stats));
+        
+        StepVerifier.create(productController.getProductStats())
+                .expectNext(stats)
+                .verifyComplete();
+    }
+    
+    @Test
+    void testGetProductsPageWithTargetCurrencyShouldConvertPrices() {
+        when(fxRateTable.converter("EUR")).thenReturn(priceConverter);
+        when(priceConverter.convert(any())).thenAnswer(invocation -> {
+            ProductResponseDTO dto = invocation.getArgument(0);
+            dto.setPrice(new BigDecimal("9.22"));
+            dto.setCurrencyCode("EUR");
+            return dto;
+        });
+        when(productService.getProductsPage(0L, 20)).thenReturn(Flux.just(productResponseDTO));
+        
+        StepVerifier.create(productController.getAllProducts(0L, 20, "EUR", get("/api/v1/products")).getBody())
+                .expectNextMatches(dto -> new BigDecimal("9.22").equals(dto.getPrice()) && "EUR".equals(dto.getCurrencyCode()))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testGetProductByIdWithUnknownTargetCurrencyShouldThrowIllegalArgumentException() {
+        when(fxRateTable.converter("XXX")).thenThrow(new IllegalArgumentException("No FX rate for target currency: XXX"));
+        
+        assertThrows(IllegalArgumentException.class,
+                () -> productController.getProductById(1L, "XXX", get("/api/v1/products/1")));
+        
+        verifyNoInteractions(productService);
+    }
+    
     @Test
     void testGetProductByIdShouldReturnProductResponseDTO() {
         when(productService.getProductById(1L)).thenReturn(Mono.just(product));
         
-        Mono<ResponseEntity<ProductResponseDTO>> result = productController.getProductById(1L);
+        Mono<ResponseEntity<ProductResponseDTO>> result = productController.getProductById(1L, null, get("/api/v1/products/1"));
         
         StepVerifier.create(result)
                 .expectNextMatches(responseEntity -> {
@@ -118,7 +278,7 @@ public class ProductControllerTest {
     void testGetProductByIdShouldReturnNotFound() {
         when(productService.getProductById(1L)).thenReturn(Mono.empty());
         
-        Mono<ResponseEntity<ProductResponseDTO>> result = productController.getProductById(1L);
+        Mono<ResponseEntity<ProductResponseDTO>> result = productController.getProductById(1L, null, get("/api/v1/products/1"));
         
         StepVerifier.create(result)
                 .expectNextMatches(responseEntity -> {
@@ -130,6 +290,168 @@ public class ProductControllerTest {
         verify(productService, times(1)).getProductById(1L);
     }
     
+    @Test
+    void testGetAllProductsWithCurrentETagShouldReturnNotModifiedWithoutCallingService() {
+        when(productService.getAllProducts()).thenReturn(Flux.just(productResponseDTO));
+        String eTag = productController.getAllProducts(null, null, null, get("/api/v1/products"))
+                .getHeaders().getETag();
+        
+        ResponseEntity<Flux<ProductResponseDTO>> result = productController.getAllProducts(null, null, null,
+                MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/products").ifNoneMatch(eTag)));
+        
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertEquals(eTag, result.getHeaders().getETag());
+        assertNull(result.getBody());
+        verify(productService, times(1)).getAllProducts();
+    }
+    
+    @Test
+    void testGetAllProductsEmptiedByFallbackShouldBeSentWithoutETag() {
+        when(productService.getAllProducts()).thenReturn(FallbackMarker.mark(Flux.empty()));
+        MockServerWebExchange exchange = get("/api/v1/products");
+        ResponseEntity<Flux<ProductResponseDTO>> result = productController.getAllProducts(null, null, null, exchange);
+        assertTrue(result.getHeaders().getETag().startsWith("W/"));
+        exchange.getResponse().getHeaders().setETag(result.getHeaders().getETag());
+        
+        StepVerifier.create(result.getBody()).verifyComplete();
+        exchange.getResponse().setComplete().block();
+        
+        assertNull(exchange.getResponse().getHeaders().getETag());
+    }
+    
+    @Test
+    void testGetAllProductsCutShortByFallbackAfterHeadersWereSentShouldFail() {
+        when(productService.getAllProducts())
+                .thenReturn(Flux.just(productResponseDTO).concatWith(FallbackMarker.mark(Flux.empty())));
+        MockServerWebExchange exchange = get("/api/v1/products");
+        Flux<ProductResponseDTO> result = productController.getAllProducts(null, null, null, exchange).getBody();
+        exchange.getResponse().setComplete().block();
+        
+        StepVerifier.create(result)
+                .expectNextCount(1)
+                .verifyError(IllegalStateException.class);
+    }
+    
+    @Test
+    void testGetProductByIdWithCurrentETagShouldReturnNotModifiedWithoutCallingService() {
+        String eTag = "W/\"" + catalogVersion.current().version() + "\"";
+        
+        StepVerifier.create(productController.getProductById(1L, null, MockServerWebExchange.from(
+                        MockServerHttpRequest.get("/api/v1/products/1").ifNoneMatch(eTag))))
+                .expectNextMatches(responseEntity -> HttpStatus.NOT_MODIFIED.equals(responseEntity.getStatusCode()))
+                .verifyComplete();
+        
+        verifyNoInteractions(productService);
+    }
+    
+    @Test
+    void testGetProductByIdShouldNotAnswerIfModifiedSinceFromTheClock() {
+        when(productService.getProductById(1L)).thenReturn(Mono.just(product));
+        
+        ResponseEntity<ProductResponseDTO> result = productController.getProductById(1L, null, MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/v1/products/1").ifModifiedSince(System.currentTimeMillis()))).block();
+        
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(-1, result.getHeaders().getLastModified());
+    }
+    
+    @Test
+    void testGetProductByIdAfterCatalogChangeShouldReturnProductWithNewETag() {
+        when(productService.getProductById(1L)).thenReturn(Mono.just(product));
+        String eTag = productController.getProductById(1L, null, get("/api/v1/products/1")).block()
+                .getHeaders().getETag();
+        catalogVersion.bump();
+        
+        ResponseEntity<ProductResponseDTO> result = productController.getProductById(1L, null, MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/v1/products/1").header(HttpHeaders.IF_NONE_MATCH, eTag))).block();
+        
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertNotEquals(eTag, result.getHeaders().getETag());
+        assertEquals(productResponseDTO.getId(), result.getBody().getId());
+    }
+    
+    @Test
+    void testStreamProductChangesShouldResumeFromLastEventId() {
+        LocalDateTime lastUpdate = LocalDateTime.of(2026, 1, 1, 12, 30, 15);
+        productResponseDTO.setLastUpdate(lastUpdate);
+        when(productService.streamProductChanges(lastUpdate)).thenReturn(Flux.just(productResponseDTO));
+        
+        StepVerifier.create(productController.streamProductChanges(null, lastUpdate.toString()))
+                .expectNextMatches(event -> "product".equals(event.event()) && lastUpdate.toString().equals(event.id())
+                        && productResponseDTO.equals(event.data()))
+                .thenCancel()
+                .verify();
+    }
+    
+    @Test
+    void testStreamProductChangesWithInvalidLastEventIdShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> productController.streamProductChanges(null, "42"));
+        
+        verifyNoInteractions(productService);
+    }
+    
+    @Test
+    void testGetProductByMaterialIdShouldReturnProductResponseDTO() {
+        when(productService.getProductByMaterialId("123")).thenReturn(Mono.just(product));
+        
+        StepVerifier.create(productController.getProductByMaterialId("123", null))
+                .expectNextMatches(responseEntity -> {
+                    assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+                    assertEquals(productResponseDTO.getId(), responseEntity.getBody().getId());
+                    assertEquals(productResponseDTO.getMaterialId(), responseEntity.getBody().getMaterialId());
+                    return true;
+                })
+                .verifyComplete();
+        
+        verify(productService, times(1)).getProductByMaterialId("123");
+    }
+    
+    @Test
+    void testGetProductByMaterialIdShouldReturnNotFound() {
+        when(productService.getProductByMaterialId("123")).thenReturn(Mono.empty());
+        
+        StepVerifier.create(productController.getProductByMaterialId("123", null))
+                .expectNextMatches(responseEntity -> HttpStatus.NOT_FOUND.equals(responseEntity.getStatusCode()))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testGetProductsByMaterialIdsShouldReturnFoundProducts() {
+        when(productService.getProductsByMaterialIds(List.of("123", "456"))).thenReturn(Flux.just(product));
+        
+        StepVerifier.create(productController.getProductsByMaterialIds(List.of("123", "456"), null))
+                .expectNextMatches(actualDto -> "123".equals(actualDto.getMaterialId()))
+                .verifyComplete();
+        
+        verify(productService, times(1)).getProductsByMaterialIds(List.of("123", "456"));
+    }
+    
+    @Test
+    void testGetProductsByMaterialIdsWithTooManyIdsShouldThrowIllegalArgumentException() {
+        List<String> materialIds = IntStream.rangeClosed(0, ProductService.MAX_MATERIAL_IDS)
+                .mapToObj(String::valueOf)
+                .toList();
+        
+        assertThrows(IllegalArgumentException.class, () -> productController.getProductsByMaterialIds(materialIds, null));
+        
+        verifyNoInteractions(productService);
+    }
+    
+    @Test
+    void testCreateProductsShouldReturnPerItemResults() {
+        Flux<ProductRequestDTO> requests = Flux.just(productRequestDTO, productRequestDTO);
+        when(productBatchService.createProducts(requests)).thenReturn(Flux.just(
+                new ProductBatchService.ItemResult(0, BatchItemStatus.CREATED, product, null),
+                new ProductBatchService.ItemResult(1, BatchItemStatus.CONFLICT, null, "duplicate")));
+        
+        StepVerifier.create(productController.createProducts(requests))
+                .expectNextMatches(result -> result.getIndex() == 0 && result.getStatus() == BatchItemStatus.CREATED
+                        && "123".equals(result.getProduct().getMaterialId()))
+                .expectNextMatches(result -> result.getIndex() == 1 && result.getStatus() == BatchItemStatus.CONFLICT
+                        && result.getProduct() == null && "duplicate".equals(result.getMessage()))
+                .verifyComplete();
+    }
+    
     @Test
     void testUpdateProductShouldReturnUpdatedProductResponseDTO() {
         when(productService.updateProduct(1L, productRequestDTO)).thenReturn(Mono.just(product));
@@ -207,4 +529,8 @@ public class ProductControllerTest {
         
         verify(productService, times(1)).createProduct(productRequestDTO);
     }
+    
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
 }
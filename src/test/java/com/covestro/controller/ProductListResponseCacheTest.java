@@ -0,0 +1,183 @@
+package com.covestro.controller;
+
+import com.covestro.config.ProductResponseCacheProperties;
+import com.covestro.service.CatalogVersion;
+import com.covestro.service.FallbackMarker;
+import com.covestro.service.FxRateTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ProductListResponseCacheTest {
+    private static final String BODY = "[{\"id\":1,\"name\":\"Product 1\"},{\"id\":2,\"name\":\"Product 2\"}]";
+    
+    private CatalogVersion catalogVersion;
+    private ProductResponseCacheProperties properties;
+    private ProductListResponseCache responseCache;
+    private AtomicInteger controllerCalls;
+    private MediaType contentType;
+    private boolean fallback;
+    
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        properties = new ProductResponseCacheProperties();
+        controllerCalls = new AtomicInteger();
+        contentType = MediaType.APPLICATION_JSON;
+        responseCache = newResponseCache();
+    }
+    
+    @Test
+    void testRepeatedRequestShouldBeServedFromCacheInNegotiatedEncoding() throws IOException {
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/v1/products?limit=2"));
+        responseCache.filter(first, chain()).block();
+        assertEquals(BODY, first.getResponse().getBodyAsString().block());
+        
+        MockServerWebExchange gzipped = exchange(MockServerHttpRequest.get("/api/v1/products?limit=2")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"));
+        responseCache.filter(gzipped, chain()).block();
+        assertEquals("gzip", gzipped.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY, gunzip(gzipped));
+        assertEquals("\"7\"", gzipped.getResponse().getHeaders().getETag());
+        
+        MockServerWebExchange plain = exchange(MockServerHttpRequest.get("/api/v1/products?limit=2"));
+        responseCache.filter(plain, chain()).block();
+        assertNull(plain.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY, plain.getResponse().getBodyAsString().block());
+        assertEquals(BODY.length(), plain.getResponse().getHeaders().getContentLength());
+        
+        assertEquals(1, controllerCalls.get());
+    }
+    
+    @Test
+    void testCachedResponseShouldAnswerMatchingIfNoneMatchWithNotModified() {
+        responseCache.filter(exchange(MockServerHttpRequest.get("/api/v1/products")), chain()).block();
+        
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/api/v1/products").ifNoneMatch("\"7\""));
+        responseCache.filter(conditional, chain()).block();
+        
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals(1, controllerCalls.get());
+    }
+    
+    @Test
+    void testCatalogWriteOrOtherQueryShouldMissCache() {
+        responseCache.filter(exchange(MockServerHttpRequest.get("/api/v1/products?limit=2")), chain()).block();
+        responseCache.filter(exchange(MockServerHttpRequest.get("/api/v1/products?limit=3")), chain()).block();
+        catalogVersion.bump();
+        responseCache.filter(exchange(MockServerHttpRequest.get("/api/v1/products?limit=2")), chain()).block();
+        
+        assertEquals(3, controllerCalls.get());
+    }
+    
+    @Test
+    void testStreamsAndOversizedResponsesShouldNotBeCached() {
+        contentType = MediaType.APPLICATION_NDJSON;
+        responseCache.filter(exchange(MockServerHttpRequest.get("/api/v1/products")), chain()).block();
+        responseCache.filter(exchange(MockServerHttpRequest.get("/api/v1/products")), chain()).block();
+        assertEquals(2, controllerCalls.get());
+        
+        contentType = MediaType.APPLICATION_JSON;
+        properties.setMaximumEntrySize(DataSize.ofBytes(BODY.length() - 1));
+        responseCache = newResponseCache();
+        MockServerWebExchange oversized = exchange(MockServerHttpRequest.get("/api/v1/products"));
+        responseCache.filter(oversized, chain()).block();
+        responseCache.filter(exchange(MockServerHttpRequest.get("/api/v1/products")), chain()).block();
+        assertEquals(BODY, oversized.getResponse().getBodyAsString().block());
+        assertEquals(4, controllerCalls.get());
+    }
+    
+    @Test
+    void testResponseCutShortByFallbackShouldNotBeCached() {
+        fallback = true;
+        MockServerWebExchange truncated = exchange(MockServerHttpRequest.get("/api/v1/products"));
+        responseCache.filter(truncated, chain()).block();
+        assertEquals(BODY.substring(0, BODY.length() / 2), truncated.getResponse().getBodyAsString().block());
+        
+        fallback = false;
+        MockServerWebExchange recovered = exchange(MockServerHttpRequest.get("/api/v1/products"));
+        responseCache.filter(recovered, chain()).block();
+        assertEquals(BODY, recovered.getResponse().getBodyAsString().block());
+        responseCache.filter(exchange(MockServerHttpRequest.get("/api/v1/products")), chain()).block();
+        
+        assertEquals(2, controllerCalls.get());
+    }
+    
+    @Test
+    void testAcceptsGzipShouldHonourZeroQuality() {
+        assertTrue(ProductListResponseCache.acceptsGzip(MockServerHttpRequest.get("/")
+                .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.5").build()));
+        assertTrue(ProductListResponseCache.acceptsGzip(MockServerHttpRequest.get("/")
+                .header(HttpHeaders.ACCEPT_ENCODING, "*").build()));
+        assertFalse(ProductListResponseCache.acceptsGzip(MockServerHttpRequest.get("/")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0").build()));
+        assertFalse(ProductListResponseCache.acceptsGzip(MockServerHttpRequest.get("/").build()));
+    }
+    
+    private ProductListResponseCache newResponseCache() {
+        return new ProductListResponseCache(catalogVersion, mock(FxRateTable.class), properties, new SimpleMeterRegistry(),
+                Schedulers.immediate());
+    }
+    
+    /**
+     * Stands in for the controller: writes the body in two buffers, as the JSON encoder does for a list. With
+     * {@link #fallback} set, the service fails after the first buffer and its fallback completes the body, seen through
+     * a marker of the controller nested in the one of the cache.
+     */
+    private WebFilterChain chain() {
+        return exchange -> {
+            controllerCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().setContentType(contentType);
+            response.getHeaders().setETag("\"7\"");
+            byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+            int half = bytes.length / 2;
+            Flux<DataBuffer> first = Flux.just(response.bufferFactory().wrap(Arrays.copyOfRange(bytes, 0, half)));
+            return response.writeWith(first.concatWith(fallback
+                    ? FallbackMarker.<DataBuffer>mark(Flux.empty()).contextWrite(new FallbackMarker()::watch)
+                    : Flux.just(response.bufferFactory().wrap(Arrays.copyOfRange(bytes, half, bytes.length)))));
+        };
+    }
+    
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+    
+    private static String gunzip(MockServerWebExchange exchange) throws IOException {
+        byte[] gzipped = DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    return bytes;
+                })
+                .block();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.covestro.repository.IT;
+
+import com.covestro.dto.ProductResponseDTO;
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.ProductRepository;
+import com.covestro.repository.ProductSearchCriteria;
+import com.covestro.repository.ProductSearchCursor;
+import com.covestro.repository.ProductSearchRepository;
+import com.covestro.repository.ProductSortField;
+import com.covestro.repository.ProductViewRepository;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures selective product searches on a large catalog through {@link ProductSearchRepository} and checks with
+ * {@code EXPLAIN} that they are served by the composite indexes. Reports median and p99 latency per query shape,
+ * including the JDBC round trip. Disabled by default; run with
+ * {@code mvn test -Dtest=ProductSearchBenchmarkTest -Dbenchmark=true [-Dbenchmark.rows=10000000]}.
+ * Seeding ten million rows takes several minutes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ProductSearchBenchmarkTest {
+    
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000_000);
+    private static final int SEED_BATCH_SIZE = 10_000;
+    private static final int ITERATIONS = 1_000;
+    private static final long MAX_MEDIAN_NANOS = 1_000_000;
+    private static final String[] CURRENCIES = {"EUR", "USD", "INR", "JPY", "GBP"};
+    private static final String[] CATEGORIES = {"Coatings", "Plastics", "PerformanceMaterials", "Adhesives",
+            "Elastomers", "Films", "Foams", "Fibers", "Resins", "Additives"};
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductViewRepository productViewRepository;
+    
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+    
+    @Autowired
+    private ProductSearchRepository productSearchRepository;
+    
+    @Autowired
+    private CurrencyRepository currencyRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Container
+    private static final MySQLContainer<?> MY_SQL_CONTAINER = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("testtest")
+            .withReuse(true);
+    
+    @DynamicPropertySource
+    private static void setDatasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> MY_SQL_CONTAINER.getJdbcUrl() + "?rewriteBatchedStatements=true");
+        registry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
+        registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+    
+    @BeforeAll
+    void setUp() {
+        productViewRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        currencyRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        List<Currency> currencies = Arrays.stream(CURRENCIES)
+                .map(code -> currencyRepository.save(new Currency(null, code)))
+                .toList();
+        List<Category> categories = Arrays.stream(CATEGORIES)
+                .map(name -> categoryRepository.save(new Category(null, name)))
+                .toList();
+        
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        List<Product> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < ROWS; i++) {
+            BigDecimal price = BigDecimal.valueOf(1 + random.nextInt(100_000), 2);
+            batch.add(new Product(null, "SB" + i, "Material " + i, price,
+                    currencies.get(random.nextInt(currencies.size())),
+                    categories.get(random.nextInt(categories.size())), null));
+            if (batch.size() == SEED_BATCH_SIZE) {
+                productJdbcRepository.batchInsert(batch);
+                batch.clear();
+            }
+        }
+        productJdbcRepository.batchInsert(batch);
+        jdbcTemplate.execute("ANALYZE TABLE products");
+        log.info("Seeded {} products in {} s", ROWS, (System.nanoTime() - start) / 1_000_000_000);
+    }
+    
+    @Test
+    void selectiveSearchesShouldUseIndexesAndStaySubMillisecond() {
+        assertIndexUsed("idx_products_category_currency_price", "SELECT p.id FROM products p "
+                + "JOIN currency c ON c.id = p.currency_id JOIN category g ON g.id = p.category_id "
+                + "WHERE g.name = 'Resins' AND c.code = 'EUR' AND p.price >= 500.00 AND p.price <= 500.50 "
+                + "ORDER BY p.price, p.id LIMIT 21");
+        assertIndexUsed("idx_products_name", "SELECT p.id FROM products p "
+                + "JOIN currency c ON c.id = p.currency_id JOIN category g ON g.id = p.category_id "
+                + "WHERE p.name LIKE 'Material 4242%' ORDER BY p.name, p.id LIMIT 21");
+        
+        ProductSearchCriteria priceRange = new ProductSearchCriteria("Resins", "EUR", new BigDecimal("500.00"),
+                new BigDecimal("500.50"), null, ProductSortField.PRICE, Sort.Direction.ASC, null, 20);
+        ProductSearchCriteria namePrefix = new ProductSearchCriteria(null, null, null, null, "Material 4242",
+                ProductSortField.NAME, Sort.Direction.ASC, null, 20);
+        List<ProductResponseDTO> firstPage = productSearchRepository.search(namePrefix);
+        assertFalse(firstPage.isEmpty());
+        ProductSearchCriteria nextPage = new ProductSearchCriteria(null, null, null, null, "Material 4242",
+                ProductSortField.NAME, Sort.Direction.ASC,
+                ProductSearchCursor.after(ProductSortField.NAME, firstPage.get(Math.min(firstPage.size(), 20) - 1)), 20);
+        
+        long priceRangeMedian = measure("category + currency + price range",
+                () -> productSearchRepository.search(priceRange));
+        long namePrefixMedian = measure("name prefix", () -> productSearchRepository.search(namePrefix));
+        long nextPageMedian = measure("name prefix, next page", () -> productSearchRepository.search(nextPage));
+        
+        assertTrue(priceRangeMedian < MAX_MEDIAN_NANOS, "price range median " + priceRangeMedian + " ns");
+        assertTrue(namePrefixMedian < MAX_MEDIAN_NANOS, "name prefix median " + namePrefixMedian + " ns");
+        assertTrue(nextPageMedian < MAX_MEDIAN_NANOS, "next page median " + nextPageMedian + " ns");
+    }
+    
+    private void assertIndexUsed(String index, String sql) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+        log.info("Plan of {}: {}", sql, plan);
+        assertEquals(1, plan.stream().filter(row -> index.equals(row.get("key"))).count(), plan::toString);
+    }
+    
+    /**
+     * Runs the search {@value #ITERATIONS} times after a warm-up and logs median and p99 latency.
+     *
+     * @return Median latency in nanoseconds
+     */
+    private long measure(String name, Supplier<List<ProductResponseDTO>> search) {
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            search.get();
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            search.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        long median = nanos[ITERATIONS / 2];
+        log.info("{} on {} rows: median {} µs, p99 {} µs", name, ROWS, median / 1_000,
+                nanos[ITERATIONS * 99 / 100] / 1_000);
+        return median;
+    }
+}
@@ -0,0 +1,202 @@
+package com.covestro.repository.IT;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.BlockingTaskProperties;
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.JpaProductStore;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.ProductRepository;
+import com.covestro.repository.ProductSearchRepository;
+import com.covestro.repository.ProductStore;
+import com.covestro.repository.ProductViewRepository;
+import com.covestro.repository.R2dbcProductStore;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the JPA data path on the bounded elastic scheduler and on virtual threads with the R2DBC data path
+ * under a closed-loop {@code findById} load at increasing concurrency, reporting sustained requests per second
+ * and peak JVM thread count. All paths get a pool of {@value #POOL_SIZE} connections. Disabled by default; run with
+ * {@code mvn test -Dtest=ProductStoreLoadTest -Dbenchmark=true [-Dbenchmark.seconds=10]}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ProductStoreLoadTest {
+    
+    private static final int POOL_SIZE = 50;
+    private static final int ROWS = 10_000;
+    private static final int[] CONCURRENCY_LEVELS = {16, 64, 256, 1024};
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductViewRepository productViewRepository;
+    
+    @Autowired
+    private ProductSearchRepository productSearchRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+    
+    @Autowired
+    private CurrencyRepository currencyRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Container
+    private static final MySQLContainer<?> MY_SQL_CONTAINER = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("testtest")
+            .withReuse(true);
+    
+    private ConnectionPool connectionPool;
+    private long[] productIds;
+    
+    @DynamicPropertySource
+    private static void setDatasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> MY_SQL_CONTAINER.getJdbcUrl() + "?rewriteBatchedStatements=true");
+        registry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
+        registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> POOL_SIZE);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+    
+    @BeforeAll
+    void setUp() {
+        productViewRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        Currency currency = currencyRepository.findByCode("EUR").orElseGet(() -> currencyRepository.save(new Currency(null, "EUR")));
+        Category category = categoryRepository.findByName("Coatings").orElseGet(() -> categoryRepository.save(new Category(null, "Coatings")));
+        List<Product> products = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            products.add(new Product(null, "LT" + i, "Material " + i, BigDecimal.valueOf(100 + i, 2), currency, category, null));
+        }
+        productJdbcRepository.batchInsert(products);
+        productIds = productRepository.findAll().stream().mapToLong(Product::getId).toArray();
+        
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse("r2dbc:mysql://" + MY_SQL_CONTAINER.getHost()
+                        + ":" + MY_SQL_CONTAINER.getFirstMappedPort() + "/" + MY_SQL_CONTAINER.getDatabaseName())
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, MY_SQL_CONTAINER.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, MY_SQL_CONTAINER.getPassword())
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(POOL_SIZE)
+                .maxSize(POOL_SIZE)
+                .build());
+    }
+    
+    @AfterAll
+    void tearDown() {
+        connectionPool.dispose();
+    }
+    
+    @Test
+    void compareJpaWithR2dbcUnderLoad() {
+        BlockingTaskProperties virtualThreads = new BlockingTaskProperties();
+        virtualThreads.setMode(BlockingTaskProperties.Mode.VIRTUAL_THREADS);
+        BlockingTaskExecutor virtualThreadExecutor = new BlockingTaskExecutor(virtualThreads, new SimpleMeterRegistry());
+        Map<String, ProductStore> stores = new LinkedHashMap<>();
+        stores.put("jpa-bounded-elastic", new JpaProductStore(productRepository, productViewRepository,
+                productJdbcRepository, productSearchRepository, currencyRepository, categoryRepository,
+                transactionTemplate, new BlockingTaskExecutor(new BlockingTaskProperties(), new SimpleMeterRegistry())));
+        stores.put("jpa-virtual-threads", new JpaProductStore(productRepository, productViewRepository,
+                productJdbcRepository, productSearchRepository, currencyRepository, categoryRepository,
+                transactionTemplate, virtualThreadExecutor));
+        stores.put("r2dbc", new R2dbcProductStore(DatabaseClient.create(connectionPool),
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionPool))));
+        
+        Map<String, Double> maxRps = new LinkedHashMap<>();
+        for (int concurrency : CONCURRENCY_LEVELS) {
+            stores.forEach((mode, store) -> maxRps.merge(mode, drive(mode, store, concurrency), Math::max));
+        }
+        virtualThreadExecutor.destroy();
+        maxRps.forEach((mode, rps) -> log.info("{}: max sustained {} req/s", mode, Math.round(rps)));
+        assertTrue(maxRps.values().stream().allMatch(rps -> rps > 0));
+    }
+    
+    /**
+     * Keeps {@code concurrency} lookups in flight for {@link #DURATION} and logs throughput and peak threads.
+     *
+     * @return Completed lookups per second
+     */
+    private double drive(String mode, ProductStore store, int concurrency) {
+        // warm up the pool and JIT for this level
+        run(store, concurrency, System.nanoTime() + DURATION.toNanos() / 5);
+        
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long start = System.nanoTime();
+        long completed = run(store, concurrency, start + DURATION.toNanos());
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double rps = completed / seconds;
+        log.info("{} concurrency {}: {} req/s, peak threads {}", mode, concurrency, Math.round(rps),
+                threads.getPeakThreadCount());
+        return rps;
+    }
+    
+    private long run(ProductStore store, int concurrency, long deadlineNanos) {
+        AtomicLong completed = new AtomicLong();
+        Flux.range(0, concurrency)
+                .flatMap(worker -> Mono.defer(() -> store.findById(randomProductId()))
+                        .repeat(() -> System.nanoTime() < deadlineNanos)
+                        .doOnNext(product -> completed.incrementAndGet()), concurrency)
+                .blockLast();
+        return completed.get();
+    }
+    
+    private long randomProductId() {
+        return productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+    }
+}
@@ -0,0 +1,74 @@
+package com.covestro.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchQueryTest {
+    
+    @Test
+    void testQueryWithoutFiltersShouldOnlySortAndLimit() {
+        ProductSearchQuery query = ProductSearchQuery.from(new ProductSearchCriteria(null, null, null, null, null,
+                ProductSortField.ID, Sort.Direction.ASC, null, 10));
+        
+        assertTrue(query.sql().endsWith("WHERE 1 = 1 ORDER BY p.id ASC LIMIT :limit"));
+        assertEquals(Map.of("limit", 11), query.parameters());
+    }
+    
+    @Test
+    void testQueryShouldApplyFiltersAndKeysetForSortColumn() {
+        ProductSearchCursor after = new ProductSearchCursor(ProductSortField.PRICE, new BigDecimal("5.00"), 7L);
+        ProductSearchQuery query = ProductSearchQuery.from(new ProductSearchCriteria("Coatings", "EUR",
+                BigDecimal.ONE, BigDecimal.TEN, "50%_off", ProductSortField.PRICE, Sort.Direction.DESC, after, 20));
+        
+        assertTrue(query.sql().endsWith(" AND g.name = :categoryName AND c.code = :currencyCode"
+                + " AND p.price >= :minPrice AND p.price <= :maxPrice AND p.name LIKE :namePrefix"
+                + " AND (p.price < :afterValue OR (p.price = :afterValue AND p.id < :afterId) OR p.price IS NULL)"
+                + " ORDER BY p.price DESC, p.id DESC LIMIT :limit"));
+        assertEquals("50\\%\\_off%", query.parameters().get("namePrefix"));
+        assertEquals(new BigDecimal("5.00"), query.parameters().get("afterValue"));
+        assertEquals(7L, query.parameters().get("afterId"));
+    }
+    
+    @Test
+    void testCursorShouldSurviveEncoding() {
+        ProductSearchCursor name = new ProductSearchCursor(ProductSortField.NAME, "Resin: clear", 12L);
+        ProductSearchCursor lastUpdate = new ProductSearchCursor(ProductSortField.LAST_UPDATE,
+                LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000), 13L);
+        
+        assertEquals(name, ProductSearchCursor.decode(name.encode()));
+        assertEquals(lastUpdate, ProductSearchCursor.decode(lastUpdate.encode()));
+        assertThrows(IllegalArgumentException.class, () -> ProductSearchCursor.decode("PRICE:1:abc"));
+    }
+    
+    @Test
+    void testCursorWithoutSortValueShouldSurviveEncoding() {
+        ProductSearchCursor price = new ProductSearchCursor(ProductSortField.PRICE, null, 14L);
+        ProductSearchCursor name = new ProductSearchCursor(ProductSortField.NAME, "null", 15L);
+        
+        assertEquals(price, ProductSearchCursor.decode(price.encode()));
+        assertEquals(name, ProductSearchCursor.decode(name.encode()));
+    }
+    
+    @Test
+    void testKeysetAfterNullShouldContinueWithinNullsAndThenTheValues() {
+        ProductSearchCursor after = new ProductSearchCursor(ProductSortField.PRICE, null, 7L);
+        ProductSearchQuery ascending = ProductSearchQuery.from(new ProductSearchCriteria(null, null, null, null, null,
+                ProductSortField.PRICE, Sort.Direction.ASC, after, 20));
+        ProductSearchQuery descending = ProductSearchQuery.from(new ProductSearchCriteria(null, null, null, null, null,
+                ProductSortField.PRICE, Sort.Direction.DESC, after, 20));
+        
+        assertTrue(ascending.sql().endsWith(" AND (p.price IS NULL AND p.id > :afterId OR p.price IS NOT NULL)"
+                + " ORDER BY p.price ASC, p.id ASC LIMIT :limit"));
+        assertTrue(descending.sql().endsWith(" AND (p.price IS NULL AND p.id < :afterId)"
+                + " ORDER BY p.price DESC, p.id DESC LIMIT :limit"));
+        assertEquals(Map.of("afterId", 7L, "limit", 21), ascending.parameters());
+    }
+}
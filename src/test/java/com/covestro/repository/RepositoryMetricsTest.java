@@ -0,0 +1,79 @@
+package com.covestro.repository;
+
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RepositoryMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RepositoryMetrics repositoryMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repositoryMetrics = new RepositoryMetrics(meterRegistry);
+    }
+
+    @Test
+    void testAspectShouldTimeJdbcCallsWithTheirOutcome() {
+        ProductJdbcRepository target = mock(ProductJdbcRepository.class);
+        when(target.batchInsert(List.of())).thenReturn(0);
+        when(target.rebuildView()).thenThrow(new DataAccessResourceFailureException("down"));
+        ProductJdbcRepository productJdbcRepository = proxy(target);
+
+        productJdbcRepository.batchInsert(List.of());
+        assertThrows(DataAccessResourceFailureException.class, productJdbcRepository::rebuildView);
+
+        assertEquals(1, timer("ProductJdbcRepository", "batchInsert", "success").count());
+        assertEquals(1, meterRegistry.get(RepositoryMetrics.METER_NAME)
+                .tags("method", "rebuildView", "outcome", "error", "exception", "DataAccessResourceFailureException")
+                .timer().count());
+    }
+
+    @Test
+    void testAspectShouldTimeR2dbcCallsFromSubscriptionToTermination() {
+        R2dbcProductStore target = mock(R2dbcProductStore.class);
+        when(target.findById(1L)).thenReturn(Mono.just(new Product()));
+        when(target.findByMaterialIdIn(List.of("M1"))).thenReturn(Flux.never());
+        R2dbcProductStore r2dbcProductStore = proxy(target);
+
+        Mono<Product> findById = r2dbcProductStore.findById(1L);
+        assertEquals(0, meterRegistry.find(RepositoryMetrics.METER_NAME).timers().size());
+        StepVerifier.create(findById).expectNextCount(1).verifyComplete();
+        StepVerifier.create(r2dbcProductStore.findByMaterialIdIn(List.of("M1")))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
+        assertEquals(1, timer("R2dbcProductStore", "findById", "success").count());
+        assertEquals(1, timer("R2dbcProductStore", "findByMaterialIdIn", "cancelled").count());
+    }
+
+    private <T> T proxy(T target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(repositoryMetrics);
+        return proxyFactory.getProxy();
+    }
+
+    private Timer timer(String repository, String method, String outcome) {
+        return meterRegistry.get(RepositoryMetrics.METER_NAME)
+                .tags("repository", repository, "method", method, "outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,114 @@
+package com.covestro.service;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.BlockingTaskProperties;
+import com.covestro.config.FxRateProperties;
+import com.covestro.dto.ProductResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FxRateTableTest {
+    
+    private FxRateProperties properties;
+    private FxRateTable fxRateTable;
+    
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        properties = new FxRateProperties();
+        fxRateTable = new FxRateTable(new DefaultResourceLoader(), new ObjectMapper(),
+                new BlockingTaskExecutor(new BlockingTaskProperties(), meterRegistry), properties, meterRegistry);
+        fxRateTable.reload();
+    }
+    
+    @Test
+    void testConvertShouldApplyCrossRateAndTargetScale() {
+        PriceConverter toUsd = fxRateTable.converter(" usd ");
+        
+        assertPrice(toUsd.convert(product("10.00", "EUR")), "10.85", "USD");
+        assertPrice(toUsd.convert(product("1000.00", "INR")), "12.04", "USD");
+        assertPrice(toUsd.convert(product("5.55", "USD")), "5.55", "USD");
+        assertPrice(fxRateTable.converter("JPY").convert(product("10.00", "EUR")), "1615", "JPY");
+    }
+    
+    @Test
+    void testConvertShouldLeaveProductsWithoutRateUnchanged() {
+        PriceConverter toEur = fxRateTable.converter("EUR");
+        
+        assertPrice(toEur.convert(product("10.00", "XYZ")), "10.00", "XYZ");
+        ProductResponseDTO withoutPrice = product(null, "USD");
+        assertSame(withoutPrice, toEur.convert(withoutPrice));
+        assertEquals("USD", withoutPrice.getCurrencyCode());
+    }
+    
+    @Test
+    void testConvertShouldKeepPricesAlreadyInTargetCurrencyAndScale() {
+        ProductResponseDTO inUsd = product("5.55", "USD");
+        BigDecimal price = inUsd.getPrice();
+        
+        assertSame(price, fxRateTable.converter("USD").convert(inUsd).getPrice());
+        assertPrice(fxRateTable.converter("USD").convert(product("5.5", "USD")), "5.50", "USD");
+    }
+    
+    @Test
+    void testConverterForUnknownTargetCurrencyShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> fxRateTable.converter("XYZ"));
+    }
+    
+    @Test
+    void testRatesVersionShouldOnlyChangeWithTheRates(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("fx-rates.json");
+        Files.writeString(file, "{\"base\": \"EUR\", \"rates\": {\"USD\": 1.0850, \"JPY\": 161.5}}");
+        properties.setLocation(file.toUri().toString());
+        fxRateTable.reload();
+        long version = fxRateTable.converter("USD").getRatesVersion();
+        
+        fxRateTable.reload();
+        assertEquals(version, fxRateTable.converter("USD").getRatesVersion());
+        Files.writeString(file, "{\"base\": \"EUR\", \"rates\": {\"JPY\": 161.50, \"USD\": 1.085}}");
+        fxRateTable.reload();
+        assertEquals(version, fxRateTable.converter("USD").getRatesVersion());
+        
+        Files.writeString(file, "{\"base\": \"EUR\", \"rates\": {\"USD\": 1.0851, \"JPY\": 161.5}}");
+        fxRateTable.reload();
+        assertNotEquals(version, fxRateTable.converter("USD").getRatesVersion());
+    }
+    
+    @Test
+    void testReloadWithInvalidRatesShouldKeepPreviousRates(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("fx-rates.json");
+        Files.writeString(file, "{\"base\": \"EUR\", \"rates\": {\"USD\": 0}}");
+        properties.setLocation(file.toUri().toString());
+        
+        assertThrows(IllegalArgumentException.class, () -> fxRateTable.reload());
+        
+        assertPrice(fxRateTable.converter("USD").convert(product("10.00", "EUR")), "10.85", "USD");
+    }
+    
+    private static void assertPrice(ProductResponseDTO product, String price, String currencyCode) {
+        assertEquals(new BigDecimal(price), product.getPrice());
+        assertEquals(currencyCode, product.getCurrencyCode());
+    }
+    
+    private static ProductResponseDTO product(String price, String currencyCode) {
+        ProductResponseDTO product = new ProductResponseDTO();
+        product.setId(1L);
+        product.setPrice(price == null ? null : new BigDecimal(price));
+        product.setCurrencyCode(currencyCode);
+        return product;
+    }
+}
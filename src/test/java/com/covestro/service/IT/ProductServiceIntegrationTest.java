@@ -1,13 +1,19 @@
 package com.covestro.service.IT;
 
 import com.covestro.dto.ProductRequestDTO;
+import com.covestro.dto.ProductResponseDTO;
 import com.covestro.repository.CategoryRepository;
 import com.covestro.repository.CurrencyRepository;
 import com.covestro.repository.ProductRepository;
+import com.covestro.repository.ProductViewRepository;
 import com.covestro.repository.entity.Category;
 import com.covestro.repository.entity.Currency;
 import com.covestro.repository.entity.Product;
 import com.covestro.service.ProductService;
+import com.covestro.service.ReferenceDataCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,12 +44,21 @@ public class ProductServiceIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductViewRepository productViewRepository;
+    
     @Autowired
     private CurrencyRepository currencyRepository;
     
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
     @Container
     private static final MySQLContainer<?> MY_SQL_CONTAINER = new MySQLContainer<>("mysql:8.0")
             .withDatabaseName("testdb")
@@ -57,13 +72,16 @@ public class ProductServiceIntegrationTest {
         registry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
         registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
         registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
     }
     
     @BeforeEach
     void setUp() {
+        productViewRepository.deleteAllInBatch();
         productRepository.deleteAll();
         currencyRepository.deleteAll();
         categoryRepository.deleteAll();
+        referenceDataCache.invalidate();
         
         Currency currency = new Currency();
         currency.setCode("USD");
@@ -89,21 +107,55 @@ public class ProductServiceIntegrationTest {
         
         productService.createProduct(requestDTO).block();
         
-        Flux<Product> products = productService.getAllProducts();
+        Flux<ProductResponseDTO> products = productService.getAllProducts();
         
         StepVerifier.create(products)
                 .expectNextMatches(product -> {
                     assertEquals("12345", product.getMaterialId());
                     assertEquals("Test Product", product.getName());
                     assertEquals(new BigDecimal("100.00"), product.getPrice());
-                    assertEquals("USD", product.getCurrency().getCode());
-                    assertEquals("TestCategory", product.getCategory().getName());
+                    assertEquals("USD", product.getCurrencyCode());
+                    assertEquals("TestCategory", product.getCategoryName());
                     assertNotNull(product.getLastUpdate());
                     return true;
                 })
                 .verifyComplete();
     }
     
+    @Test
+    void testProductsPageShouldIssueOneStatement() {
+        for (int i = 0; i < 3; i++) {
+            ProductRequestDTO requestDTO = new ProductRequestDTO();
+            requestDTO.setMaterialId("M" + i);
+            requestDTO.setName("Test Product " + i);
+            requestDTO.setPrice(new BigDecimal("100.00"));
+            requestDTO.setCurrencyCode("USD");
+            requestDTO.setCategoryName(i % 2 == 0 ? "TestCategory" : "UpdatedCategory");
+            productService.createProduct(requestDTO).block();
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        StepVerifier.create(productService.getProductsPage(null, 2))
+                .expectNextMatches(product -> "M0".equals(product.getMaterialId())
+                        && "TestCategory".equals(product.getCategoryName()))
+                .expectNextMatches(product -> "M1".equals(product.getMaterialId())
+                        && "UpdatedCategory".equals(product.getCategoryName()))
+                .verifyComplete();
+        
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        
+        statistics.clear();
+        
+        StepVerifier.create(productService.getAllProducts())
+                .expectNextCount(3)
+                .verifyComplete();
+        
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+    
     @Test
     void testGetProductByIdShouldReturnMonoOfProduct() {
         ProductRequestDTO requestDTO = new ProductRequestDTO();
@@ -0,0 +1,197 @@
+package com.covestro.service;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.BlockingTaskProperties;
+import com.covestro.config.ProductChangeFeedProperties;
+import com.covestro.config.ProductCacheProperties;
+import com.covestro.dto.BatchItemStatus;
+import com.covestro.dto.ProductRequestDTO;
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.ProductRepository;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBatchServiceTest {
+    
+    @Mock
+    private ProductRepository productRepository;
+    
+    @Mock
+    private ProductJdbcRepository productJdbcRepository;
+    
+    @Mock
+    private CurrencyRepository currencyRepository;
+    
+    @Mock
+    private CategoryRepository categoryRepository;
+    
+    private ProductBatchService productBatchService;
+    private CatalogVersion catalogVersion;
+    private ProductNameIndex productNameIndex;
+    private Currency currency;
+    private Category category;
+    
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        catalogVersion = new CatalogVersion();
+        productNameIndex = new ProductNameIndex(productJdbcRepository, meterRegistry);
+        productBatchService = new ProductBatchService(productRepository, productJdbcRepository,
+                new ReferenceDataCache(currencyRepository, categoryRepository, meterRegistry),
+                new ProductCache(new ProductCacheProperties(), meterRegistry),
+                productNameIndex,
+                catalogVersion,
+                new ProductChangeFeed(new ProductChangeFeedProperties(), meterRegistry),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new BlockingTaskExecutor(new BlockingTaskProperties(), meterRegistry));
+        currency = new Currency(1L, "USD");
+        category = new Category(1L, "TestCategory");
+        lenient().when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(currency));
+        lenient().when(categoryRepository.findByName("TestCategory")).thenReturn(Optional.of(category));
+        lenient().when(categoryRepository.findByName("Unknown")).thenReturn(Optional.empty());
+    }
+    
+    @Test
+    void testCreateProductsShouldReturnOneResultPerItemInRequestOrder() {
+        ProductRequestDTO invalid = request("M2", "TestCategory");
+        invalid.setPrice(BigDecimal.ZERO);
+        when(productRepository.findByMaterialIdIn(anyCollection()))
+                .thenReturn(List.of(product(10L, "M3")))
+                .thenReturn(List.of(product(11L, "M1")));
+        
+        StepVerifier.create(productBatchService.createProducts(Flux.just(
+                        request("M1", "TestCategory"), invalid, request("M3", "TestCategory"),
+                        request("M1", "TestCategory"), request("M5", "Unknown"))))
+                .expectNextMatches(result -> result.index() == 0 && result.status() == BatchItemStatus.CREATED
+                        && result.product().getId() == 11L)
+                .expectNextMatches(result -> result.index() == 1 && result.status() == BatchItemStatus.INVALID
+                        && result.message().startsWith("price:"))
+                .expectNextMatches(result -> result.index() == 2 && result.status() == BatchItemStatus.CONFLICT)
+                .expectNextMatches(result -> result.index() == 3 && result.status() == BatchItemStatus.CONFLICT)
+                .expectNextMatches(result -> result.index() == 4 && result.status() == BatchItemStatus.INVALID
+                        && result.message().equals("Category not found: Unknown"))
+                .verifyComplete();
+        
+        verify(productJdbcRepository, times(1)).batchInsert(argThat(products ->
+                products.size() == 1 && products.get(0).getMaterialId().equals("M1")));
+    }
+    
+    @Test
+    void testCreateProductsShouldWriteOneJdbcBatchPerChunk() {
+        int items = ProductBatchService.WRITE_BATCH_SIZE + 1;
+        when(productRepository.findByMaterialIdIn(anyCollection())).thenReturn(List.of());
+        
+        StepVerifier.create(productBatchService.createProducts(Flux.range(0, items)
+                        .map(i -> request("M" + i, "TestCategory"))))
+                .expectNextCount(items)
+                .verifyComplete();
+        
+        ArgumentCaptor<List<Product>> batches = ArgumentCaptor.captor();
+        verify(productJdbcRepository, times(2)).batchInsert(batches.capture());
+        assertEquals(List.of(ProductBatchService.WRITE_BATCH_SIZE, 1), batches.getAllValues().stream().map(List::size).toList());
+        verify(categoryRepository, times(1)).findByName("TestCategory");
+        verify(currencyRepository, times(1)).findByCode("USD");
+    }
+    
+    @Test
+    void testCreateProductsShouldRetryFailedBatchRowByRow() {
+        when(productRepository.findByMaterialIdIn(anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(product(1L, "M1")));
+        when(productJdbcRepository.batchInsert(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+        
+        StepVerifier.create(productBatchService.createProducts(Flux.just(
+                        request("M1", "TestCategory"), request("M2", "TestCategory"))))
+                .expectNextMatches(result -> result.status() == BatchItemStatus.CREATED)
+                .expectNextMatches(result -> result.status() == BatchItemStatus.CONFLICT)
+                .verifyComplete();
+        
+        verify(productJdbcRepository, times(3)).batchInsert(anyList());
+    }
+    
+    @Test
+    void testUpdateProductsShouldUpdateByMaterialId() {
+        when(productRepository.findByMaterialIdIn(anyCollection())).thenReturn(List.of(product(7L, "M1")));
+        long version = catalogVersion.current().version();
+        
+        StepVerifier.create(productBatchService.updateProducts(Flux.just(
+                        request("M1", "TestCategory"), request("M2", "TestCategory"))))
+                .expectNextMatches(result -> result.status() == BatchItemStatus.UPDATED && result.product().getId() == 7L)
+                .expectNextMatches(result -> result.status() == BatchItemStatus.NOT_FOUND)
+                .verifyComplete();
+        
+        verify(productJdbcRepository, times(1)).batchUpdate(argThat(products ->
+                products.size() == 1 && products.get(0).getId() == 7L));
+        assertEquals(version + 1, catalogVersion.current().version());
+    }
+    
+    @Test
+    void testUpdateProductsShouldIndexIdsBeyondTheIntRange() {
+        when(productRepository.findByMaterialIdIn(anyCollection())).thenReturn(List.of(product(3_000_000_000L, "M1")));
+        
+        StepVerifier.create(productBatchService.updateProducts(Flux.just(request("M1", "TestCategory"))))
+                .expectNextMatches(result -> result.status() == BatchItemStatus.UPDATED)
+                .verifyComplete();
+        
+        assertEquals(3_000_000_000L, productNameIndex.suggest("Product M1", 10).get(0).getId());
+    }
+    
+    @Test
+    void testUnexpectedBatchFailureShouldMarkItemsFailed() {
+        when(productRepository.findByMaterialIdIn(anyCollection())).thenThrow(new IllegalStateException("down"));
+        long version = catalogVersion.current().version();
+        
+        StepVerifier.create(productBatchService.updateProducts(Flux.fromStream(IntStream.range(0, 3)
+                        .mapToObj(i -> request("M" + i, "TestCategory")))))
+                .expectNextMatches(result -> result.status() == BatchItemStatus.FAILED && "down".equals(result.message()))
+                .expectNextCount(2)
+                .verifyComplete();
+        assertEquals(version, catalogVersion.current().version());
+    }
+    
+    private ProductRequestDTO request(String materialId, String categoryName) {
+        ProductRequestDTO request = new ProductRequestDTO();
+        request.setMaterialId(materialId);
+        request.setName("Product " + materialId);
+        request.setPrice(new BigDecimal("10.00"));
+        request.setCurrencyCode("USD");
+        request.setCategoryName(categoryName);
+        return request;
+    }
+    
+    private Product product(Long id, String materialId) {
+        Product product = new Product();
+        product.setId(id);
+        product.setMaterialId(materialId);
+        product.setCurrency(currency);
+        product.setCategory(category);
+        return product;
+    }
+}
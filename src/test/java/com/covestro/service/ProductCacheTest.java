@@ -0,0 +1,84 @@
+package com.covestro.service;
+
+import com.covestro.config.ProductCacheProperties;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductCacheTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCache productCache;
+    private AtomicInteger loads;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productCache = new ProductCache(new ProductCacheProperties(), meterRegistry);
+        loads = new AtomicInteger();
+    }
+    
+    @Test
+    void testConcurrentMissesShouldShareOneLoad() {
+        Sinks.One<Product> database = Sinks.one();
+        Mono<Product> first = productCache.get(1L, id -> load(database.asMono()));
+        Mono<Product> second = productCache.get(1L, id -> load(database.asMono()));
+        
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> database.tryEmitValue(product(1L)))
+                .expectNextMatches(both -> both.getT1() == both.getT2())
+                .verifyComplete();
+        StepVerifier.create(productCache.get(1L, id -> load(Mono.empty()))).expectNextCount(1).verifyComplete();
+        
+        assertEquals(1, loads.get());
+        assertEquals(1, loadTimerCount("found"));
+    }
+    
+    @Test
+    void testMissingProductShouldNotBeCached() {
+        StepVerifier.create(productCache.get(1L, id -> load(Mono.empty()))).verifyComplete();
+        StepVerifier.create(productCache.get(1L, id -> load(Mono.just(product(1L))))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(productCache.get(1L, id -> load(Mono.empty()))).expectNextCount(1).verifyComplete();
+        
+        assertEquals(2, loads.get());
+        assertEquals(1, loadTimerCount("missing"));
+        assertEquals(1, loadTimerCount("found"));
+    }
+    
+    @Test
+    void testLoadOverlappingAnInvalidationShouldNotBeCached() {
+        Sinks.One<Product> database = Sinks.one();
+        
+        StepVerifier.create(productCache.get(1L, id -> load(database.asMono())))
+                .then(() -> productCache.invalidate(1L))
+                .then(() -> database.tryEmitValue(product(1L)))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(productCache.get(1L, id -> load(Mono.empty()))).verifyComplete();
+        
+        assertEquals(2, loads.get());
+    }
+    
+    private Mono<Product> load(Mono<Product> result) {
+        loads.incrementAndGet();
+        return result;
+    }
+    
+    private long loadTimerCount(String result) {
+        return meterRegistry.get("product.cache.loads").tag("result", result).timer().count();
+    }
+    
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,63 @@
+package com.covestro.service;
+
+import com.covestro.config.ProductChangeFeedProperties;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Exceptions;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductChangeFeedTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ProductChangeFeed productChangeFeed;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ProductChangeFeedProperties properties = new ProductChangeFeedProperties();
+        properties.setBufferSize(2);
+        productChangeFeed = new ProductChangeFeed(properties, meterRegistry);
+    }
+    
+    @Test
+    void testPublishShouldReachEverySubscriberOnlyAfterItSubscribed() {
+        productChangeFeed.publish(product(1L));
+        
+        StepVerifier.create(productChangeFeed.subscribe())
+                .then(() -> assertEquals(1, meterRegistry.get("product.changes.subscribers").gauge().value()))
+                .then(() -> productChangeFeed.publish(product(2L)))
+                .expectNextMatches(change -> change.getId().equals(2L) && "USD".equals(change.getCurrencyCode())
+                        && "Coatings".equals(change.getCategoryName()))
+                .thenCancel()
+                .verify();
+        
+        assertEquals(0, meterRegistry.get("product.changes.subscribers").gauge().value());
+    }
+    
+    @Test
+    void testSubscriberFallingBehindBufferShouldFailWithOverflow() {
+        StepVerifier.create(productChangeFeed.subscribe(), 0)
+                .then(() -> {
+                    for (long id = 1; id <= 3; id++) {
+                        productChangeFeed.publish(product(id));
+                    }
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(2)
+                .verifyErrorMatches(Exceptions::isOverflow);
+    }
+    
+    private static Product product(Long id) {
+        return new Product(id, "M" + id, "Product " + id, BigDecimal.TEN, new Currency(1L, "USD"),
+                new Category(1L, "Coatings"), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,136 @@
+package com.covestro.service;
+
+import com.covestro.dto.ProductSuggestionDTO;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class ProductNameIndexTest {
+    
+    @Mock
+    private ProductJdbcRepository productJdbcRepository;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ProductNameIndex productNameIndex;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productNameIndex = new ProductNameIndex(productJdbcRepository, meterRegistry);
+    }
+    
+    @Test
+    void testRebuildShouldIndexNamesAndMaterialIds() {
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(product(1L, "379457HY", "ATH Filler"));
+            consumer.accept(product(2L, "MX5012", "Makrolon MX50"));
+            consumer.accept(product(3L, "AB1", "Path finder"));
+            return null;
+        }).when(productJdbcRepository).forEachProduct(any());
+        
+        productNameIndex.rebuild();
+        
+        assertEquals(List.of(1L, 3L), ids(productNameIndex.suggest("ath", 10)));
+        assertEquals(List.of(2L), ids(productNameIndex.suggest("MX50", 10)));
+        assertEquals(List.of(1L), ids(productNameIndex.suggest("9457", 10)));
+        assertEquals(List.of(1L), ids(productNameIndex.suggest("ath", 1)));
+        assertEquals(3, meterRegistry.get("product.name.index.size").gauge().value());
+    }
+    
+    @Test
+    void testSuggestShouldOnlyReturnExactSubstringMatches() {
+        productNameIndex.put(product(1L, "M1", "abcd xbcy"));
+        productNameIndex.put(product(2L, "M2", "abcbcd"));
+        
+        assertTrue(productNameIndex.suggest("abcy", 10).isEmpty());
+        assertEquals(List.of(2L), ids(productNameIndex.suggest("abcbc", 10)));
+        assertEquals(List.of(1L, 2L), ids(productNameIndex.suggest("bcd", 10)));
+        assertTrue(productNameIndex.suggest("zzz", 10).isEmpty());
+        assertTrue(productNameIndex.suggest("bc", 10).isEmpty());
+    }
+    
+    @Test
+    void testPutShouldReplaceTheIndexedName() {
+        productNameIndex.put(product(5L, "M5", "Desmodur"));
+        productNameIndex.put(product(5L, "M5", "Bayhydur"));
+        
+        assertTrue(productNameIndex.suggest("desmo", 10).isEmpty());
+        assertEquals(List.of(5L), ids(productNameIndex.suggest("hydur", 10)));
+        assertEquals(1, meterRegistry.get("product.name.index.size").gauge().value());
+    }
+    
+    @Test
+    void testPutShouldKeepPostingsSortedForOutOfOrderIds() {
+        productNameIndex.put(product(9L, "M9", "Resin"));
+        productNameIndex.put(product(2L, "M2", "Resin"));
+        productNameIndex.put(product(5L, "M5", "Resin"));
+        
+        assertEquals(List.of(2L, 5L, 9L), ids(productNameIndex.suggest("resin", 10)));
+    }
+    
+    @Test
+    void testPutShouldAcceptIdsBeyondTheIntRange() {
+        productNameIndex.put(product(3_000_000_000L, "M3", "Resin"));
+        productNameIndex.put(product(Long.MAX_VALUE, "M4", "Resin"));
+        productNameIndex.put(product(1L, "M1", "Resin"));
+        
+        assertEquals(List.of(1L, 3_000_000_000L, Long.MAX_VALUE), ids(productNameIndex.suggest("resin", 10)));
+    }
+    
+    @Test
+    void testRemoveShouldDropTheProductAndReuseItsSlot() {
+        productNameIndex.put(product(1L, "M1", "Desmodur"));
+        productNameIndex.put(product(2L, "M2", "Desmophen"));
+        
+        productNameIndex.remove(1L);
+        productNameIndex.remove(99L);
+        productNameIndex.put(product(3L, "M3", "Desmolac"));
+        
+        assertEquals(List.of(2L, 3L), ids(productNameIndex.suggest("desmo", 10)));
+        assertTrue(productNameIndex.suggest("modur", 10).isEmpty());
+        assertEquals(2, meterRegistry.get("product.name.index.size").gauge().value());
+    }
+    
+    @Test
+    void testRebuildShouldApplyRemovalsMadeDuringTheBuild() {
+        productNameIndex.put(product(1L, "M1", "Desmodur"));
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(product(1L, "M1", "Desmodur"));
+            productNameIndex.remove(1L);
+            consumer.accept(product(2L, "M2", "Desmophen"));
+            return null;
+        }).when(productJdbcRepository).forEachProduct(any());
+        
+        productNameIndex.rebuild();
+        
+        assertEquals(List.of(2L), ids(productNameIndex.suggest("desmo", 10)));
+    }
+    
+    private List<Long> ids(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::getId).toList();
+    }
+    
+    private Product product(Long id, String materialId, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setMaterialId(materialId);
+        product.setName(name);
+        return product;
+    }
+}
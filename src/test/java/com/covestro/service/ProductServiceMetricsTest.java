@@ -0,0 +1,112 @@
+package com.covestro.service;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.BlockingTaskProperties;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductServiceMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductServiceMetrics productServiceMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productServiceMetrics = new ProductServiceMetrics(meterRegistry);
+    }
+
+    @Test
+    void testAspectShouldTimeServiceOperationsExceptTheEndlessChangeStream() {
+        ProductService target = mock(ProductService.class);
+        when(target.getProductById(1L)).thenReturn(Mono.just(new Product()));
+        when(target.getProductsPage(null, 10)).thenReturn(Flux.error(new IllegalStateException("down")));
+        when(target.streamProductChanges(null)).thenReturn(Flux.empty());
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(productServiceMetrics);
+        ProductService productService = proxyFactory.getProxy();
+
+        StepVerifier.create(productService.getProductById(1L)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(productService.getProductsPage(null, 10)).verifyError(IllegalStateException.class);
+        StepVerifier.create(productService.streamProductChanges(null)).verifyComplete();
+
+        assertEquals(1, timer("getProductById", "success").count());
+        assertEquals(1, meterRegistry.get(ProductServiceMetrics.METER_NAME)
+                .tags("operation", "getProductsPage", "outcome", "error", "exception", "IllegalStateException")
+                .timer().count());
+        assertNull(meterRegistry.find(ProductServiceMetrics.METER_NAME).tag("operation", "streamProductChanges").timer());
+    }
+
+    @Test
+    void testFallbackShouldBeRecordedAsFallbackWithItsCause() {
+        Mono<Product> withFallback = Mono.<Product>error(new IllegalStateException("down"))
+                .onErrorResume(e -> ProductServiceMetrics.fallback(e, Mono.empty()));
+        Flux<Product> fluxWithFallback = Flux.<Product>error(new IllegalStateException("down"))
+                .onErrorResume(e -> ProductServiceMetrics.fallback(e, Flux.empty()));
+
+        StepVerifier.create(productServiceMetrics.time("getProductById", withFallback)).verifyComplete();
+        StepVerifier.create(productServiceMetrics.time("getAllProducts", fluxWithFallback)).verifyComplete();
+
+        assertEquals(1, meterRegistry.get(ProductServiceMetrics.METER_NAME)
+                .tags("operation", "getProductById", "outcome", "fallback", "exception", "IllegalStateException")
+                .timer().count());
+        assertEquals(1, timer("getAllProducts", "fallback").count());
+    }
+
+    @Test
+    void testCancelledOperationShouldOnlyCountAsSuccessOnceMonoEmitted() {
+        StepVerifier.create(productServiceMetrics.time("getProductById", Mono.just(1).concatWith(Mono.never()).next()))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(productServiceMetrics.time("getProductChanges", Flux.never()))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
+        assertEquals(1, timer("getProductById", "success").count());
+        assertEquals(1, timer("getProductChanges", "cancelled").count());
+    }
+
+    @Test
+    void testBlockingTasksShouldBeTaggedWithTheOperationTheyRunFor() {
+        BlockingTaskExecutor executor = new BlockingTaskExecutor(new BlockingTaskProperties(), meterRegistry);
+
+        productServiceMetrics.time("getProductChanges", executor.execute(() -> LocalDateTime.now()).flux())
+                .blockLast(Duration.ofSeconds(5));
+        executor.execute(() -> 1).block(Duration.ofSeconds(5));
+        StepVerifier.create(executor.execute(() -> {
+                    throw new IllegalStateException("down");
+                }))
+                .verifyError(IllegalStateException.class);
+
+        assertEquals(1, meterRegistry.get("blocking.tasks.wait").tag("operation", "getProductChanges").timer().count());
+        assertEquals(1, meterRegistry.get("blocking.tasks.execution")
+                .tags("operation", "getProductChanges", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("blocking.tasks.execution")
+                .tags("operation", "none", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("blocking.tasks.execution")
+                .tags("operation", "none", "outcome", "error").timer().count());
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.get(ProductServiceMetrics.METER_NAME)
+                .tags("operation", operation, "outcome", outcome)
+                .timer();
+    }
+}
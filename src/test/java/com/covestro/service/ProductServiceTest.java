@@ -1,18 +1,36 @@
 package com.covestro.service;
 
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.BlockingTaskProperties;
+import com.covestro.config.ProductChangeFeedProperties;
+import com.covestro.config.ProductCacheProperties;
+import com.covestro.config.ProductStatsProperties;
+import com.covestro.config.ProductUpdateCoalescingProperties;
 import com.covestro.dto.ProductRequestDTO;
+import com.covestro.dto.ProductResponseDTO;
 import com.covestro.repository.CategoryRepository;
 import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.JpaProductStore;
+import com.covestro.repository.ProductJdbcRepository;
 import com.covestro.repository.ProductRepository;
+import com.covestro.repository.ProductSearchCriteria;
+import com.covestro.repository.ProductSearchCursor;
+import com.covestro.repository.ProductSearchRepository;
+import com.covestro.repository.ProductSortField;
+import com.covestro.repository.ProductViewRepository;
 import com.covestro.repository.entity.Category;
 import com.covestro.repository.entity.Currency;
 import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -21,7 +39,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,14 +51,26 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
     
+    @Mock
+    private ProductViewRepository productViewRepository;
+    
+    @Mock
+    private ProductJdbcRepository productJdbcRepository;
+    
+    @Mock
+    private ProductSearchRepository productSearchRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
     @Mock
     private CurrencyRepository currencyRepository;
     
     @Mock
     private CategoryRepository categoryRepository;
     
-    @InjectMocks
     private ProductService productService;
+    private CatalogVersion catalogVersion;
     
     private ProductRequestDTO productRequestDTO;
     private Product product;
@@ -46,6 +79,22 @@ class ProductServiceTest {
     
     @BeforeEach
     void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BlockingTaskExecutor blockingTaskExecutor = new BlockingTaskExecutor(new BlockingTaskProperties(), meterRegistry);
+        catalogVersion = new CatalogVersion();
+        productService = new ProductService(
+                new JpaProductStore(productRepository, productViewRepository, productJdbcRepository,
+                        productSearchRepository, currencyRepository, categoryRepository,
+                        new TransactionTemplate(transactionManager), blockingTaskExecutor),
+                new ReferenceDataCache(currencyRepository, categoryRepository, meterRegistry),
+                new ProductCache(new ProductCacheProperties(), meterRegistry),
+                new ProductNameIndex(productJdbcRepository, meterRegistry),
+                new ProductStatsStore(productRepository, productJdbcRepository, categoryRepository, currencyRepository,
+                        blockingTaskExecutor, new ProductStatsProperties(), meterRegistry),
+                catalogVersion,
+                new ProductChangeFeed(new ProductChangeFeedProperties(), meterRegistry),
+                new ProductUpdateCoalescer(new ProductUpdateCoalescingProperties(), meterRegistry));
+        
         productRequestDTO = new ProductRequestDTO();
         productRequestDTO.setMaterialId("12345");
         productRequestDTO.setName("Test Product");
@@ -71,15 +120,113 @@ class ProductServiceTest {
     
     @Test
     void testGetAllProductsShouldReturnProducts() {
-        when(productRepository.findAll()).thenReturn(List.of(product));
+        ProductResponseDTO response = responseWithId(1L);
+        when(productViewRepository.findResponsePage(0L, Limit.of(ProductService.STREAM_CHUNK_SIZE)))
+                .thenReturn(List.of(response));
         
-        Flux<Product> result = productService.getAllProducts();
+        Flux<ProductResponseDTO> result = productService.getAllProducts();
         
         StepVerifier.create(result)
-                .expectNext(product)
+                .expectNext(response)
                 .verifyComplete();
         
-        verify(productRepository, times(1)).findAll();
+        verify(productViewRepository, times(1)).findResponsePage(0L, Limit.of(ProductService.STREAM_CHUNK_SIZE));
+        verify(productRepository, never()).findAll();
+    }
+    
+    @Test
+    void testGetAllProductsShouldFetchChunksOnDemand() {
+        int chunkSize = ProductService.STREAM_CHUNK_SIZE;
+        Limit chunk = Limit.of(chunkSize);
+        when(productViewRepository.findResponsePage(0L, chunk)).thenReturn(responsesWithIds(1, chunkSize));
+        when(productViewRepository.findResponsePage((long) chunkSize, chunk))
+                .thenReturn(responsesWithIds(chunkSize + 1, 2 * chunkSize));
+        when(productViewRepository.findResponsePage(2L * chunkSize, chunk)).thenReturn(List.of(responseWithId(1L)));
+        
+        StepVerifier.create(productService.getAllProducts(), 1)
+                .expectNextCount(1)
+                .then(() -> verify(productViewRepository, never()).findResponsePage(2L * chunkSize, chunk))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(2L * chunkSize)
+                .verifyComplete();
+        
+        verify(productViewRepository, times(1)).findResponsePage(2L * chunkSize, chunk);
+    }
+    
+    private List<ProductResponseDTO> responsesWithIds(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(this::responseWithId)
+                .toList();
+    }
+    
+    private ProductResponseDTO responseWithId(long id) {
+        return new ProductResponseDTO(id, "M" + id, "Product " + id, BigDecimal.TEN, "USD", "TestCategory",
+                LocalDateTime.now());
+    }
+    
+    @Test
+    void testGetProductChangesShouldContinueFromLastUpdateAndIdOfPreviousChunk() {
+        int chunkSize = ProductService.STREAM_CHUNK_SIZE;
+        Limit chunk = Limit.of(chunkSize);
+        LocalDateTime since = LocalDateTime.of(2026, 1, 1, 0, 0);
+        List<ProductResponseDTO> firstChunk = responsesWithIds(1, chunkSize);
+        ProductResponseDTO last = firstChunk.get(chunkSize - 1);
+        when(productViewRepository.findChangedResponsePage(since, 0L, chunk)).thenReturn(firstChunk);
+        when(productViewRepository.findChangedResponsePage(last.getLastUpdate(), last.getId(), chunk))
+                .thenReturn(List.of(responseWithId(chunkSize + 1L)));
+        
+        StepVerifier.create(productService.getProductChanges(since))
+                .expectNextCount(chunkSize + 1L)
+                .verifyComplete();
+    }
+    
+    @Test
+    void testStreamProductChangesShouldReplayStoredChangesAndPushNewWrites() {
+        LocalDateTime since = LocalDateTime.of(2026, 1, 1, 0, 0);
+        ProductResponseDTO stored = responseWithId(2L);
+        when(productViewRepository.findChangedResponsePage(since, 0L, Limit.of(ProductService.STREAM_CHUNK_SIZE)))
+                .thenReturn(List.of(stored));
+        when(categoryRepository.findByName("TestCategory")).thenReturn(Optional.of(category));
+        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(currency));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
+        
+        StepVerifier.create(productService.streamProductChanges(since))
+                .expectNext(stored)
+                .then(() -> productService.createProduct(productRequestDTO).block())
+                .expectNextMatches(change -> change.getId().equals(1L) && "USD".equals(change.getCurrencyCode()))
+                .thenCancel()
+                .verify();
+    }
+    
+    @Test
+    void testGetProductsPageShouldReturnPageAfterId() {
+        ProductResponseDTO response = responseWithId(6L);
+        when(productViewRepository.findResponsePage(5L, Limit.of(10))).thenReturn(List.of(response));
+        
+        StepVerifier.create(productService.getProductsPage(5L, 10))
+                .expectNext(response)
+                .verifyComplete();
+        
+        verify(productViewRepository, times(1)).findResponsePage(5L, Limit.of(10));
+    }
+    
+    @Test
+    void testSearchProductsShouldReturnCursorOnlyWhenThereIsANextPage() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria("TestCategory", null, null, null, null,
+                ProductSortField.NAME, Sort.Direction.ASC, null, 2);
+        when(productSearchRepository.search(criteria)).thenReturn(responsesWithIds(1, 3));
+        
+        StepVerifier.create(productService.searchProducts(criteria))
+                .expectNextMatches(page -> page.getProducts().size() == 2
+                        && ProductSearchCursor.decode(page.getNextCursor())
+                        .equals(new ProductSearchCursor(ProductSortField.NAME, "Product 2", 2L)))
+                .verifyComplete();
+        
+        when(productSearchRepository.search(criteria)).thenReturn(responsesWithIds(1, 2));
+        
+        StepVerifier.create(productService.searchProducts(criteria))
+                .expectNextMatches(page -> page.getProducts().size() == 2 && page.getNextCursor() == null)
+                .verifyComplete();
     }
     
     @Test
@@ -107,12 +254,75 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(1L);
     }
     
+    @Test
+    void testGetProductByIdShouldServeRepeatedLookupsFromCache() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        
+        StepVerifier.create(productService.getProductById(1L)).expectNext(product).verifyComplete();
+        StepVerifier.create(productService.getProductById(1L)).expectNext(product).verifyComplete();
+        
+        verify(productRepository, times(1)).findById(1L);
+    }
+    
+    @Test
+    void testGetProductByIdShouldNotCacheMissingProduct() {
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        
+        StepVerifier.create(productService.getProductById(1L)).verifyComplete();
+        StepVerifier.create(productService.getProductById(1L)).verifyComplete();
+        
+        verify(productRepository, times(2)).findById(1L);
+    }
+    
+    @Test
+    void testUpdateProductShouldWriteThroughToCache() {
+        Product updated = new Product();
+        updated.setId(1L);
+        updated.setName("Updated Product");
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(currency));
+        when(categoryRepository.findByName("TestCategory")).thenReturn(Optional.of(category));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updated);
+        
+        StepVerifier.create(productService.getProductById(1L)).expectNext(product).verifyComplete();
+        StepVerifier.create(productService.updateProduct(1L, productRequestDTO)).expectNext(updated).verifyComplete();
+        StepVerifier.create(productService.getProductById(1L)).expectNext(updated).verifyComplete();
+        
+        verify(productRepository, times(2)).findById(1L);
+    }
+    
+    @Test
+    void testGetProductByMaterialIdShouldReturnProduct() {
+        when(productRepository.findByMaterialId("12345")).thenReturn(Optional.of(product));
+        
+        StepVerifier.create(productService.getProductByMaterialId("12345"))
+                .expectNext(product)
+                .verifyComplete();
+        
+        verify(productRepository, times(1)).findByMaterialId("12345");
+    }
+    
+    @Test
+    void testGetProductsByMaterialIdsShouldUseOneQueryAndKeepRequestOrder() {
+        Product other = new Product();
+        other.setId(2L);
+        other.setMaterialId("67890");
+        when(productRepository.findByMaterialIdIn(Set.of("67890", "12345", "unknown")))
+                .thenReturn(List.of(product, other));
+        
+        StepVerifier.create(productService.getProductsByMaterialIds(List.of("67890", "unknown", "12345", "67890")))
+                .expectNext(other, product)
+                .verifyComplete();
+        
+        verify(productRepository, times(1)).findByMaterialIdIn(anyCollection());
+    }
+    
     @Test
     void testUpdateProductShouldReturnUpdatedProduct() {
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(currency));
         when(categoryRepository.findByName("TestCategory")).thenReturn(Optional.of(category));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
         
         Mono<Product> result = productService.updateProduct(1L, productRequestDTO);
         
@@ -123,12 +333,13 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(1L);
         verify(currencyRepository, times(1)).findByCode("USD");
         verify(categoryRepository, times(1)).findByName("TestCategory");
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(productRepository, times(1)).saveAndFlush(any(Product.class));
     }
     
     @Test
     void testUpdateProductShouldReturnEmptyWhenProductNotFound() {
         when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(categoryRepository.findByName("TestCategory")).thenReturn(Optional.of(category));
         
         Mono<Product> result = productService.updateProduct(1L, productRequestDTO);
         
@@ -136,13 +347,28 @@ class ProductServiceTest {
                 .verifyComplete();
         
         verify(productRepository, times(1)).findById(1L);
+        verify(currencyRepository, never()).findByCode("USD");
+        verify(currencyRepository, never()).save(any(Currency.class));
+    }
+    
+    @Test
+    void testUpdateProductWithUnknownCategoryShouldFailBeforeReadingTheProduct() {
+        when(categoryRepository.findByName("TestCategory")).thenReturn(Optional.empty());
+        
+        StepVerifier.create(productService.updateProduct(1L, productRequestDTO))
+                .verifyError(IllegalArgumentException.class);
+        
+        verify(currencyRepository, never()).findByCode("USD");
+        verify(productRepository, never()).findById(1L);
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
     }
     
     @Test
     void testCreateProductShouldReturnCreatedProduct() {
         when(categoryRepository.findByName("TestCategory")).thenReturn(Optional.of(category));
         when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(currency));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
+        long version = catalogVersion.current().version();
         
         Mono<Product> result = productService.createProduct(productRequestDTO);
         
@@ -152,7 +378,40 @@ class ProductServiceTest {
         
         verify(categoryRepository, times(1)).findByName("TestCategory");
         verify(currencyRepository, times(1)).findByCode("USD");
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(productRepository, times(1)).saveAndFlush(any(Product.class));
+        verify(productJdbcRepository, times(1)).refreshView(List.of(1L));
+        assertEquals(version + 1, catalogVersion.current().version());
+    }
+    
+    @Test
+    void testCreatedProductShouldBeSuggested() {
+        when(categoryRepository.findByName("TestCategory")).thenReturn(Optional.of(category));
+        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(currency));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
+        
+        StepVerifier.create(productService.suggestProducts("product", 10)).verifyComplete();
+        StepVerifier.create(productService.createProduct(productRequestDTO)).expectNext(product).verifyComplete();
+        
+        StepVerifier.create(productService.suggestProducts("product", 10))
+                .expectNextMatches(suggestion -> suggestion.getId() == 1L && "Test Product".equals(suggestion.getName()))
+                .verifyComplete();
+        StepVerifier.create(productService.suggestProducts("234", 10))
+                .expectNextMatches(suggestion -> "12345".equals(suggestion.getMaterialId()))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testCreateProductShouldResolveReferenceDataFromCacheAfterFirstLookup() {
+        when(categoryRepository.findByName("TestCategory")).thenReturn(Optional.of(category));
+        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(currency));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
+        
+        StepVerifier.create(productService.createProduct(productRequestDTO)).expectNext(product).verifyComplete();
+        StepVerifier.create(productService.createProduct(productRequestDTO)).expectNext(product).verifyComplete();
+        
+        verify(categoryRepository, times(1)).findByName("TestCategory");
+        verify(currencyRepository, times(1)).findByCode("USD");
+        verify(productRepository, times(2)).saveAndFlush(any(Product.class));
     }
     
     @Test
@@ -0,0 +1,144 @@
+package com.covestro.service;
+
+import com.covestro.config.BlockingTaskExecutor;
+import com.covestro.config.BlockingTaskProperties;
+import com.covestro.config.ProductStatsProperties;
+import com.covestro.dto.CategoryStatsDTO;
+import com.covestro.dto.PriceStatsDTO;
+import com.covestro.dto.ProductStatsDTO;
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.ProductJdbcRepository;
+import com.covestro.repository.ProductRepository;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductStatsStoreTest {
+    
+    @Mock
+    private ProductRepository productRepository;
+    
+    @Mock
+    private ProductJdbcRepository productJdbcRepository;
+    
+    @Mock
+    private CategoryRepository categoryRepository;
+    
+    @Mock
+    private CurrencyRepository currencyRepository;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ProductStatsStore productStatsStore;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productStatsStore = new ProductStatsStore(productRepository, productJdbcRepository, categoryRepository,
+                currencyRepository, new BlockingTaskExecutor(new BlockingTaskProperties(), meterRegistry),
+                new ProductStatsProperties(), meterRegistry);
+    }
+    
+    @Test
+    void testRebuildShouldAggregateCountsAndPricesPerCategoryAndCurrency() {
+        when(productRepository.count()).thenReturn(5L);
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(1L, "Coatings"), new Category(2L, "Adhesives")));
+        when(currencyRepository.findAll()).thenReturn(List.of(new Currency(1L, "USD")));
+        when(currencyRepository.findById(2L)).thenReturn(Optional.of(new Currency(2L, "EUR")));
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(product(1L, "10.00", 1L, 1L));
+            consumer.accept(product(2L, "20.01", 1L, 1L));
+            consumer.accept(product(3L, "5.50", 1L, 2L));
+            consumer.accept(product(4L, "7.25", 2L, 2L));
+            consumer.accept(product(5L, null, 2L, 2L));
+            return null;
+        }).when(productJdbcRepository).forEachProduct(any());
+        
+        productStatsStore.rebuild();
+        ProductStatsDTO stats = productStatsStore.getStats();
+        
+        assertEquals(5, stats.getCount());
+        assertEquals(List.of("Adhesives", "Coatings"), stats.getCategories().stream().map(CategoryStatsDTO::getCategoryName).toList());
+        CategoryStatsDTO adhesives = stats.getCategories().get(0);
+        assertEquals(2, adhesives.getCount());
+        assertPrices(adhesives.getPrices().get(0), "EUR", 1, "7.25", "7.25", "7.25");
+        CategoryStatsDTO coatings = stats.getCategories().get(1);
+        assertEquals(3, coatings.getCount());
+        assertEquals(2, coatings.getPrices().size());
+        assertPrices(coatings.getPrices().get(0), "EUR", 1, "5.50", "5.50", "5.50");
+        assertPrices(coatings.getPrices().get(1), "USD", 2, "10.00", "20.01", "15.01");
+        assertEquals(2, stats.getCurrencies().size());
+        assertPrices(stats.getCurrencies().get(0), "EUR", 2, "5.50", "7.25", "6.38");
+        assertPrices(stats.getCurrencies().get(1), "USD", 2, "10.00", "20.01", "15.01");
+        assertEquals(5, meterRegistry.get("product.stats.snapshot.size").gauge().value());
+    }
+    
+    @Test
+    void testRebuildShouldGrowBeyondExpectedSize() {
+        int products = 3000;
+        when(productRepository.count()).thenReturn(0L);
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(1L, "Coatings")));
+        when(currencyRepository.findAll()).thenReturn(List.of(new Currency(1L, "USD")));
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            for (long id = 1; id <= products; id++) {
+                consumer.accept(product(id, id + ".00", 1L, 1L));
+            }
+            return null;
+        }).when(productJdbcRepository).forEachProduct(any());
+        
+        productStatsStore.rebuild();
+        ProductStatsDTO stats = productStatsStore.getStats();
+        
+        assertEquals(products, stats.getCount());
+        assertPrices(stats.getCurrencies().get(0), "USD", products, "1.00", "3000.00", "1500.50");
+    }
+    
+    @Test
+    void testGetStatsBeforeRebuildShouldReturnEmptyStats() {
+        ProductStatsDTO stats = productStatsStore.getStats();
+        
+        assertEquals(0, stats.getCount());
+        assertNull(stats.getSnapshotTime());
+        assertTrue(stats.getCategories().isEmpty());
+        assertTrue(stats.getCurrencies().isEmpty());
+    }
+    
+    private static void assertPrices(PriceStatsDTO prices, String currencyCode, long count,
+                                     String min, String max, String average) {
+        assertEquals(currencyCode, prices.getCurrencyCode());
+        assertEquals(count, prices.getCount());
+        assertEquals(new BigDecimal(min), prices.getMinPrice());
+        assertEquals(new BigDecimal(max), prices.getMaxPrice());
+        assertEquals(new BigDecimal(average), prices.getAveragePrice());
+    }
+    
+    private static Product product(Long id, String price, Long categoryId, Long currencyId) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(price == null ? null : new BigDecimal(price));
+        product.setCategory(new Category(categoryId, null));
+        product.setCurrency(new Currency(currencyId, null));
+        return product;
+    }
+}
@@ -0,0 +1,200 @@
+package com.covestro.service;
+
+import com.covestro.config.ProductUpdateCoalescingProperties;
+import com.covestro.dto.ProductRequestDTO;
+import com.covestro.repository.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductUpdateCoalescerTest {
+    
+    private static final Duration WINDOW = Duration.ofMillis(20);
+    
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualTimeScheduler scheduler;
+    private ProductUpdateCoalescer coalescer;
+    private List<ProductRequestDTO> written;
+    private BiFunction<Long, ProductRequestDTO, Mono<Product>> writer;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = VirtualTimeScheduler.create();
+        ProductUpdateCoalescingProperties properties = new ProductUpdateCoalescingProperties();
+        properties.setEnabled(true);
+        properties.setWindow(WINDOW);
+        properties.setStripes(4);
+        coalescer = new ProductUpdateCoalescer(properties, meterRegistry, scheduler);
+        written = new ArrayList<>();
+        writer = (id, request) -> {
+            written.add(request);
+            return Mono.just(product(id, request));
+        };
+    }
+    
+    @Test
+    void testUpdatesWithinWindowShouldBeWrittenOnceWithTheLastUpdate() {
+        List<Mono<Product>> results = new ArrayList<>();
+        for (String name : List.of("first", "second", "third")) {
+            results.add(coalescer.update(1L, Mono.just(request(name)), writer).cache());
+            results.getLast().subscribe();
+        }
+        
+        assertTrue(written.isEmpty());
+        scheduler.advanceTimeBy(WINDOW);
+        
+        assertEquals(1, written.size());
+        assertEquals("third", written.getFirst().getName());
+        for (Mono<Product> result : results) {
+            StepVerifier.create(result)
+                    .assertNext(product -> assertEquals("third", product.getName()))
+                    .verifyComplete();
+        }
+        assertEquals(2, meterRegistry.get("product.updates.coalesced").counter().count());
+        assertEquals(0, coalescer.size());
+    }
+    
+    @Test
+    void testUpdatesDuringRunningWriteShouldBeWrittenAfterIt() {
+        Sinks.One<Product> firstWrite = Sinks.one();
+        List<String> started = new ArrayList<>();
+        BiFunction<Long, ProductRequestDTO, Mono<Product>> slowWriter = (id, request) -> {
+            started.add(request.getName());
+            return started.size() == 1 ? firstWrite.asMono() : Mono.just(product(id, request));
+        };
+        Mono<Product> first = coalescer.update(1L, Mono.just(request("first")), slowWriter).cache();
+        first.subscribe();
+        scheduler.advanceTimeBy(WINDOW);
+        
+        Mono<Product> second = coalescer.update(1L, Mono.just(request("second")), slowWriter).cache();
+        Mono<Product> third = coalescer.update(1L, Mono.just(request("third")), slowWriter).cache();
+        second.subscribe();
+        third.subscribe();
+        scheduler.advanceTimeBy(WINDOW.multipliedBy(5));
+        assertEquals(List.of("first"), started);
+        
+        firstWrite.tryEmitValue(product(1L, request("first")));
+        
+        assertEquals(List.of("first", "third"), started);
+        StepVerifier.create(first).assertNext(product -> assertEquals("first", product.getName())).verifyComplete();
+        StepVerifier.create(second).assertNext(product -> assertEquals("third", product.getName())).verifyComplete();
+        StepVerifier.create(third).assertNext(product -> assertEquals("third", product.getName())).verifyComplete();
+        assertEquals(0, coalescer.size());
+    }
+    
+    @Test
+    void testFailedOrEmptyWriteShouldCompleteAllCallersOfTheBatch() {
+        BiFunction<Long, ProductRequestDTO, Mono<Product>> failing =
+                (id, request) -> Mono.error(new IllegalStateException("Write failed"));
+        Mono<Product> first = coalescer.update(1L, Mono.just(request("first")), failing).cache();
+        Mono<Product> second = coalescer.update(1L, Mono.just(request("second")), failing).cache();
+        Mono<Product> missing = coalescer.update(2L, Mono.just(request("missing")), (id, request) -> Mono.empty()).cache();
+        first.subscribe(product -> { }, error -> { });
+        second.subscribe(product -> { }, error -> { });
+        missing.subscribe();
+        scheduler.advanceTimeBy(WINDOW);
+        
+        StepVerifier.create(first).verifyError(IllegalStateException.class);
+        StepVerifier.create(second).verifyError(IllegalStateException.class);
+        StepVerifier.create(missing).verifyComplete();
+        assertEquals(0, coalescer.size());
+        
+        StepVerifier.create(coalescer.update(1L, Mono.just(request("retry")), writer).cache())
+                .then(() -> scheduler.advanceTimeBy(WINDOW))
+                .assertNext(product -> assertEquals("retry", product.getName()))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testInvalidUpdateShouldFailOnlyItsCallerAndNotJoinTheBatch() {
+        Mono<Product> valid = coalescer.update(1L, Mono.just(request("valid")), writer).cache();
+        Mono<Product> invalid = coalescer.update(1L,
+                Mono.<ProductRequestDTO>error(new IllegalArgumentException("Category not found")), writer).cache();
+        valid.subscribe();
+        invalid.subscribe(product -> { }, error -> { });
+        scheduler.advanceTimeBy(WINDOW);
+        
+        assertEquals(List.of("valid"), written.stream().map(ProductRequestDTO::getName).toList());
+        StepVerifier.create(valid).assertNext(product -> assertEquals("valid", product.getName())).verifyComplete();
+        StepVerifier.create(invalid).verifyError(IllegalArgumentException.class);
+        assertEquals(0, meterRegistry.get("product.updates.coalesced").counter().count());
+    }
+    
+    @Test
+    void testWriteShouldSeeTheContextOfTheCallerThatOpenedTheBatch() {
+        List<String> operations = new ArrayList<>();
+        BiFunction<Long, ProductRequestDTO, Mono<Product>> contextWriter = (id, request) -> Mono.deferContextual(context -> {
+            operations.add(context.getOrDefault("operation", "none"));
+            return Mono.just(product(id, request));
+        });
+        Mono<Product> first = coalescer.update(1L, Mono.just(request("first")), contextWriter)
+                .contextWrite(context -> context.put("operation", "first")).cache();
+        Mono<Product> second = coalescer.update(1L, Mono.just(request("second")), contextWriter)
+                .contextWrite(context -> context.put("operation", "second")).cache();
+        first.subscribe();
+        second.subscribe();
+        scheduler.advanceTimeBy(WINDOW);
+        
+        assertEquals(List.of("first"), operations);
+    }
+    
+    @Test
+    void testUpdatesToDifferentProductsShouldNotBeMerged() {
+        Mono<Product> first = coalescer.update(1L, Mono.just(request("first")), writer).cache();
+        Mono<Product> second = coalescer.update(5L, Mono.just(request("second")), writer).cache();
+        first.subscribe();
+        second.subscribe();
+        scheduler.advanceTimeBy(WINDOW);
+        
+        assertEquals(2, written.size());
+        StepVerifier.create(first).assertNext(product -> assertEquals(1L, product.getId())).verifyComplete();
+        StepVerifier.create(second).assertNext(product -> assertEquals(5L, product.getId())).verifyComplete();
+        assertEquals(0, meterRegistry.get("product.updates.coalesced").counter().count());
+    }
+    
+    @Test
+    void testDisabledCoalescerShouldWriteEveryUpdateRightAway() {
+        ProductUpdateCoalescer disabled = new ProductUpdateCoalescer(new ProductUpdateCoalescingProperties(),
+                meterRegistry, scheduler);
+        
+        StepVerifier.create(disabled.update(1L, Mono.just(request("first")), writer)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(disabled.update(1L, Mono.just(request("second")), writer)).expectNextCount(1).verifyComplete();
+        
+        assertEquals(2, written.size());
+    }
+    
+    @Test
+    void testUpdateShouldNotBeQueuedWithoutSubscriber() {
+        coalescer.update(1L, Mono.just(request("unused")), writer);
+        scheduler.advanceTimeBy(WINDOW);
+        
+        assertTrue(written.isEmpty());
+        assertEquals(0, coalescer.size());
+    }
+    
+    private static ProductRequestDTO request(String name) {
+        ProductRequestDTO request = new ProductRequestDTO();
+        request.setName(name);
+        return request;
+    }
+    
+    private static Product product(Long id, ProductRequestDTO request) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(request.getName());
+        return product;
+    }
+}
@@ -0,0 +1,121 @@
+package com.covestro.service;
+
+import com.covestro.repository.CategoryRepository;
+import com.covestro.repository.CurrencyRepository;
+import com.covestro.repository.entity.Category;
+import com.covestro.repository.entity.Currency;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+    
+    @Mock
+    private CurrencyRepository currencyRepository;
+    
+    @Mock
+    private CategoryRepository categoryRepository;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ReferenceDataCache referenceDataCache;
+    private Currency euro;
+    private Category coatings;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        referenceDataCache = new ReferenceDataCache(currencyRepository, categoryRepository, meterRegistry);
+        euro = new Currency(1L, "EUR");
+        coatings = new Category(1L, "Coatings");
+    }
+    
+    @Test
+    void testPreloadShouldServeLookupsWithoutDatabase() {
+        when(currencyRepository.findAll()).thenReturn(List.of(euro));
+        when(categoryRepository.findAll()).thenReturn(List.of(coatings));
+        
+        referenceDataCache.preload();
+        
+        assertSame(euro, referenceDataCache.getCurrency("EUR"));
+        assertSame(coatings, referenceDataCache.getCategory("Coatings"));
+        assertSame(euro, referenceDataCache.findOrCreateCurrency("EUR"));
+        assertEquals(Optional.of(coatings), referenceDataCache.findCategory("Coatings"));
+        verify(currencyRepository, never()).findByCode(any());
+        verify(categoryRepository, never()).findByName(any());
+        assertEquals(1.0, gets(ReferenceDataCache.CURRENCY_CACHE, "hit"));
+        assertEquals(1.0, gets(ReferenceDataCache.CATEGORY_CACHE, "hit"));
+        assertEquals(1.0, meterRegistry.get("cache.size").tag("cache", "currency").gauge().value());
+    }
+    
+    @Test
+    void testMissShouldReadThroughAndCache() {
+        when(categoryRepository.findByName("Coatings")).thenReturn(Optional.of(coatings));
+        
+        assertNull(referenceDataCache.getCategory("Coatings"));
+        assertEquals(Optional.of(coatings), referenceDataCache.findCategory("Coatings"));
+        assertSame(coatings, referenceDataCache.getCategory("Coatings"));
+        
+        verify(categoryRepository, times(1)).findByName("Coatings");
+        assertEquals(1.0, gets(ReferenceDataCache.CATEGORY_CACHE, "miss"));
+        assertEquals(1.0, gets(ReferenceDataCache.CATEGORY_CACHE, "hit"));
+    }
+    
+    @Test
+    void testUnknownCategoryShouldNotBeCached() {
+        when(categoryRepository.findByName("Unknown")).thenReturn(Optional.empty());
+        
+        assertTrue(referenceDataCache.findCategory("Unknown").isEmpty());
+        assertTrue(referenceDataCache.findCategory("Unknown").isEmpty());
+        
+        verify(categoryRepository, times(2)).findByName("Unknown");
+    }
+    
+    @Test
+    void testFindOrCreateCurrencyShouldCacheCreatedCurrency() {
+        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.empty());
+        when(currencyRepository.save(any(Currency.class))).thenReturn(euro);
+        
+        assertSame(euro, referenceDataCache.findOrCreateCurrency("EUR"));
+        assertSame(euro, referenceDataCache.getCurrency("EUR"));
+        
+        verify(currencyRepository, times(1)).save(any(Currency.class));
+    }
+    
+    @Test
+    void testFindOrCreateCurrencyShouldReReadOnConcurrentInsert() {
+        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.empty(), Optional.of(euro));
+        when(currencyRepository.save(any(Currency.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        
+        assertSame(euro, referenceDataCache.findOrCreateCurrency("EUR"));
+        
+        verify(currencyRepository, times(2)).findByCode("EUR");
+    }
+    
+    @Test
+    void testInvalidateShouldReadThroughAgain() {
+        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(euro));
+        referenceDataCache.findOrCreateCurrency("EUR");
+        
+        referenceDataCache.invalidate();
+        
+        assertNull(referenceDataCache.getCurrency("EUR"));
+        referenceDataCache.findOrCreateCurrency("EUR");
+        verify(currencyRepository, times(2)).findByCode("EUR");
+    }
+    
+    private double gets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).counter().count();
+    }
+}